@@ -1,6 +1,7 @@
 package concertbookingsystem;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public class Booking {
     private final String id;
@@ -8,7 +9,7 @@ public class Booking {
     private final Concert concert;
     private final List<Seat> seats;
     private final double totalPrice;
-    private BookingStatus status;
+    private volatile BookingStatus status;
 
     public Booking(String id, User user, Concert concert, List<Seat> seats) {
         this.id = id;
@@ -23,7 +24,7 @@ public class Booking {
         return seats.stream().mapToDouble(Seat::getPrice).sum();
     }
 
-    public void confirmBooking() {
+    public synchronized void confirmBooking() {
         if (status == BookingStatus.PENDING) {
             status = BookingStatus.CONFIRMED;
             // Send booking confirmation to the user
@@ -32,12 +33,32 @@ public class Booking {
     }
 
     public void cancelBooking() {
-        if (status == BookingStatus.CONFIRMED) {
+        cancelBooking(booking -> {
+        });
+    }
+
+    // beforeRelease runs once the booking is marked cancelled but before its seats go back on
+    // sale, so a ledger records the cancellation ahead of anyone rebooking those seats.
+    // Returns false, and does nothing, unless the booking was confirmed.
+    synchronized boolean cancelBooking(Consumer<Booking> beforeRelease) {
+        if (status != BookingStatus.CONFIRMED) {
+            return false;
+        }
+        status = BookingStatus.CANCELLED;
+        beforeRelease.accept(this);
+        seats.forEach(Seat::release);
+        System.out.printf("Booking %s cancelled\n", id);
+        // Send booking cancellation notification to the user
+        // ...
+        return true;
+    }
+
+    // Payment never went through: give the seats back without a cancellation notice.
+    synchronized void abandon(Consumer<Booking> beforeRelease) {
+        if (status == BookingStatus.PENDING) {
             status = BookingStatus.CANCELLED;
+            beforeRelease.accept(this);
             seats.forEach(Seat::release);
-            System.out.printf("Booking %s cancelled\n", id);
-            // Send booking cancellation notification to the user
-            // ...
         }
     }
 
@@ -1,7 +1,9 @@
 package concertbookingsystem;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class Concert {
     private final String id;
@@ -9,6 +11,8 @@ public class Concert {
     private final String venue;
     private final LocalDateTime dateTime;
     private final List<Seat> seats;
+    private final SeatInventory inventory;
+    private final Map<String, Integer> seatIndexById;
 
     public Concert(String id, String artist, String venue, LocalDateTime dateTime, List<Seat> seats) {
         this.id = id;
@@ -16,6 +20,12 @@ public class Concert {
         this.venue = venue;
         this.dateTime = dateTime;
         this.seats = seats;
+        this.inventory = new SeatInventory(seats);
+        seats.forEach(seat -> seat.attachInventory(inventory));
+        this.seatIndexById = new HashMap<>();
+        for (int i = 0; i < seats.size(); i++) {
+            seatIndexById.put(seats.get(i).getId(), i);
+        }
     }
 
     public String getId() {
@@ -37,4 +47,23 @@ public class Concert {
     public List<Seat> getSeats() {
         return seats;
     }
+
+    // Position of the seat in getSeats(), or -1 if it belongs to another concert. Seat ids are
+    // only unique within a concert, so the seat found by id must also be this very seat.
+    public int getSeatIndex(Seat seat) {
+        Integer index = seatIndexById.get(seat.getId());
+        return index != null && seats.get(index) == seat ? index : -1;
+    }
+
+    public SeatInventory getInventory() {
+        return inventory;
+    }
+
+    public long getAvailableSeatCount(SeatType seatType) {
+        return inventory.getAvailable(seatType);
+    }
+
+    public long getAvailableSeatCount() {
+        return inventory.getAvailable();
+    }
 }
@@ -1,21 +1,43 @@
 package concertbookingsystem;
 
+import concertbookingsystem.ledger.BookingLedger;
+import concertbookingsystem.ledger.LedgerHandler;
+import concertbookingsystem.search.ConcertIndex;
+import concertbookingsystem.search.ConcertQuery;
+import concertbookingsystem.waitingroom.QueueTicket;
+import concertbookingsystem.waitingroom.WaitingRoom;
+
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class ConcertTicketBookingSystem {
+    private static final long LEDGER_SEGMENT_BYTES = 64 * 1024 * 1024;
+
     private static ConcertTicketBookingSystem instance;
     private final Map<String, Concert> concerts;
     private final Map<String, Booking> bookings;
-    private final Object lock = new Object();
+    private final ConcertIndex concertIndex;
+    private final Map<String, WaitingRoom> waitingRooms;
+    private final Map<String, ScheduledFuture<?>> admissionTasks;
+    private ScheduledExecutorService admissionScheduler;
+    private volatile BookingLedger ledger;
+    private ScheduledExecutorService snapshotScheduler;
 
     private ConcertTicketBookingSystem() {
         concerts = new ConcurrentHashMap<>();
         bookings = new ConcurrentHashMap<>();
+        concertIndex = new ConcertIndex();
+        waitingRooms = new ConcurrentHashMap<>();
+        admissionTasks = new ConcurrentHashMap<>();
     }
 
     public static synchronized ConcertTicketBookingSystem getInstance() {
@@ -25,8 +47,15 @@ public class ConcertTicketBookingSystem {
         return instance;
     }
 
+    public static ConcertTicketBookingSystem newInstance() {
+        return new ConcertTicketBookingSystem();
+    }
+
+    // A concert id is added once; re-adding it keeps the concert already indexed and booked against.
     public void addConcert(Concert concert) {
-        concerts.put(concert.getId(), concert);
+        if (concerts.putIfAbsent(concert.getId(), concert) == null) {
+            concertIndex.add(concert);
+        }
     }
 
     public Concert getConcert(String concertId) {
@@ -34,54 +63,278 @@ public class ConcertTicketBookingSystem {
     }
 
     public List<Concert> searchConcerts(String artist, String venue, LocalDateTime dateTime) {
-        return concerts.values().stream()
-                .filter(concert -> concert.getArtist().equalsIgnoreCase(artist) &&
-                        concert.getVenue().equalsIgnoreCase(venue) &&
-                        concert.getDateTime().equals(dateTime))
-                .collect(Collectors.toList());
+        return concertIndex.search(new ConcertQuery().artist(artist).venue(venue).on(dateTime));
+    }
+
+    // Any mix of artist, venue and date range, e.g. new ConcertQuery().venue(v).between(from, to).
+    public List<Concert> searchConcerts(ConcertQuery query) {
+        return concertIndex.search(query);
+    }
+
+    // Puts a concert's on-sale behind a waiting room. Every admitIntervalMillis the next
+    // batchSize buyers are let through, as long as no more than maxActive are booking at once.
+    // An admitted buyer who has not booked within sessionTtlMillis loses their slot.
+    public synchronized WaitingRoom openWaitingRoom(Concert concert, int batchSize, int maxActive,
+                                                    long admitIntervalMillis, long sessionTtlMillis) {
+        WaitingRoom existing = waitingRooms.get(concert.getId());
+        if (existing != null) {
+            return existing;
+        }
+        WaitingRoom room = new WaitingRoom(concert.getId(), batchSize, maxActive, sessionTtlMillis);
+        waitingRooms.put(concert.getId(), room);
+        if (admissionScheduler == null) {
+            admissionScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "waiting-room-admission");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        admissionTasks.put(concert.getId(), admissionScheduler.scheduleAtFixedRate(
+                room::admitNextBatch, 0, admitIntervalMillis, TimeUnit.MILLISECONDS));
+        return room;
+    }
+
+    public synchronized void closeWaitingRoom(Concert concert) {
+        WaitingRoom room = waitingRooms.remove(concert.getId());
+        if (room != null) {
+            room.close();
+            admissionTasks.remove(concert.getId()).cancel(false);
+        }
+    }
+
+    public WaitingRoom getWaitingRoom(Concert concert) {
+        return waitingRooms.get(concert.getId());
+    }
+
+    public QueueTicket joinWaitingRoom(User user, Concert concert) {
+        WaitingRoom room = waitingRooms.get(concert.getId());
+        if (room == null) {
+            throw new IllegalStateException("Concert " + concert.getId() + " has no waiting room open.");
+        }
+        return room.join(user);
     }
 
     public Booking bookTickets(User user, Concert concert, List<Seat> seats) {
-        synchronized (lock) {
-            // Check seat availability and book seats
-            for (Seat seat : seats) {
-                if (seat.getStatus() != SeatStatus.AVAILABLE) {
-                    throw new SeatNotAvailableException("Seat " + seat.getSeatNumber() + " is not available.");
-                }
+        if (waitingRooms.containsKey(concert.getId())) {
+            throw new NotAdmittedException("Concert " + concert.getId() + " is on sale through its waiting room.");
+        }
+        return reserveAndPay(user, concert, seats);
+    }
+
+    // Books for a buyer admitted from the waiting room. A successful booking hands the slot
+    // back for the next batch; on a lost seat the buyer keeps the session to pick again,
+    // unless the concert has sold out, which closes the room.
+    public Booking bookTickets(QueueTicket ticket, List<Seat> seats) {
+        WaitingRoom room = waitingRooms.get(ticket.getConcertId());
+        if (room == null || !room.isSessionActive(ticket)) {
+            throw new NotAdmittedException("Ticket " + ticket.getPosition() + " has no active session.");
+        }
+        Concert concert = concerts.get(ticket.getConcertId());
+        try {
+            Booking booking = reserveAndPay(ticket.getUser(), concert, seats);
+            room.leave(ticket);
+            return booking;
+        } catch (SeatNotAvailableException e) {
+            if (isSoldOut(concert)) {
+                room.leave(ticket);
+                closeWaitingRoom(concert);
             }
-            seats.forEach(Seat::book);
+            throw e;
+        }
+    }
 
-            // Create booking
-            String bookingId = generateBookingId();
-            Booking booking = new Booking(bookingId, user, concert, seats);
-            bookings.put(bookingId, booking);
+    public void leaveWaitingRoom(QueueTicket ticket) {
+        WaitingRoom room = waitingRooms.get(ticket.getConcertId());
+        if (room != null) {
+            room.leave(ticket);
+        }
+    }
 
-            // Process payment
-            processPayment(booking);
+    // Seats are claimed one compare-and-set at a time and rolled back on conflict, so buyers
+    // only contend on the seats they actually want. Payment runs after the claim, holding no lock.
+    // Only a paid booking is written to the ledger, so replay never brings back an unpaid one, and
+    // the booking is confirmed once its record is durable. If payment or the ledger fails, the
+    // seats go back on sale and the booking is dropped.
+    private Booking reserveAndPay(User user, Concert concert, List<Seat> seats) {
+        if (seats.isEmpty()) {
+            throw new IllegalArgumentException("No seats selected.");
+        }
+        // The ledger records seats by their index in the concert, so foreign seats cannot be booked.
+        for (Seat seat : seats) {
+            if (concert.getSeatIndex(seat) < 0) {
+                throw new IllegalArgumentException("Seat " + seat.getId() + " is not part of concert " + concert.getId() + ".");
+            }
+        }
+        claimSeats(seats);
 
-            // Confirm booking
-            booking.confirmBooking();
+        String bookingId = generateBookingId();
+        Booking booking = new Booking(bookingId, user, concert, seats);
+        bookings.put(bookingId, booking);
 
-            System.out.println("Booking " + booking.getId() + " - " + booking.getSeats().size() + " seats booked");
+        if (!processPayment(booking)) {
+            booking.abandon(unlogged -> {
+            });
+            bookings.remove(bookingId);
+            throw new IllegalStateException("Payment failed for booking " + bookingId);
+        }
 
-            return booking;
+        BookingLedger currentLedger = ledger;
+        if (currentLedger != null) {
+            long sequence = 0;
+            try {
+                sequence = currentLedger.appendSeatsBooked(booking);
+                currentLedger.awaitDurable(sequence);
+            } catch (RuntimeException e) {
+                long appended = sequence;
+                booking.abandon(abandoned -> {
+                    // The booking may already be in the ledger; log its cancellation if the ledger still takes it.
+                    if (appended != 0) {
+                        try {
+                            recordCancellation(abandoned);
+                        } catch (RuntimeException suppressed) {
+                            e.addSuppressed(suppressed);
+                        }
+                    }
+                });
+                bookings.remove(bookingId);
+                // Refund the payment
+                // ...
+                throw e;
+            }
         }
+        booking.confirmBooking();
+        return booking;
+    }
+
+    private void claimSeats(List<Seat> seats) {
+        for (int i = 0; i < seats.size(); i++) {
+            if (!seats.get(i).tryBook()) {
+                for (int j = 0; j < i; j++) {
+                    seats.get(j).release();
+                }
+                throw new SeatNotAvailableException("Seat " + seats.get(i).getSeatNumber() + " is not available.");
+            }
+        }
+    }
+
+    // The counter answers the common case; a zero is confirmed against the seats because a
+    // release may be in flight while the counter is read.
+    private boolean isSoldOut(Concert concert) {
+        if (concert.getAvailableSeatCount() > 0) {
+            return false;
+        }
+        for (Seat seat : concert.getSeats()) {
+            if (seat.getStatus() == SeatStatus.AVAILABLE) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public void cancelBooking(String bookingId) {
         Booking booking = bookings.get(bookingId);
-        if (booking != null) {
-            booking.cancelBooking();
+        // A booking still pending payment is left alone, so it stays findable once it confirms.
+        if (booking != null && booking.cancelBooking(this::recordCancellation)) {
             bookings.remove(bookingId);
         }
     }
 
-    private void processPayment(Booking booking) {
+    private void recordCancellation(Booking booking) {
+        BookingLedger currentLedger = ledger;
+        if (currentLedger != null) {
+            currentLedger.appendBookingCancelled(booking);
+        }
+    }
+
+    // Rebuilds seat state and active bookings from the ledger in the directory, then logs every
+    // booking and cancellation there from now on. Concerts must already be added; the ledger
+    // only holds who has which seats. snapshotIntervalMillis of 0 disables periodic snapshots.
+    public synchronized void enableLedger(Path directory, long snapshotIntervalMillis) {
+        if (ledger != null) {
+            throw new IllegalStateException("Ledger already enabled");
+        }
+        long lastSequence = BookingLedger.recover(directory, new LedgerRecovery());
+        ledger = new BookingLedger(directory, lastSequence + 1, LEDGER_SEGMENT_BYTES, new ArrayList<>(bookings.values()));
+        if (snapshotIntervalMillis > 0) {
+            snapshotScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "booking-ledger-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshotScheduler.scheduleWithFixedDelay(this::takeLedgerSnapshot, snapshotIntervalMillis,
+                    snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void takeLedgerSnapshot() {
+        BookingLedger currentLedger = ledger;
+        if (currentLedger == null) {
+            throw new IllegalStateException("Ledger not enabled");
+        }
+        currentLedger.takeSnapshot();
+    }
+
+    public BookingLedger getLedger() {
+        return ledger;
+    }
+
+    public synchronized void shutdown() {
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdown();
+        }
+        if (admissionScheduler != null) {
+            admissionScheduler.shutdown();
+        }
+        BookingLedger currentLedger = ledger;
+        if (currentLedger != null) {
+            currentLedger.close();
+        }
+    }
+
+    private boolean processPayment(Booking booking) {
         // Process payment for the booking
         // ...
+        return true;
     }
 
     private String generateBookingId() {
         return "BKG" + UUID.randomUUID();
     }
+
+    // Runs before the ledger is open, so nothing here is logged again. Both callbacks are
+    // idempotent because replay can repeat what the snapshot already holds.
+    private class LedgerRecovery implements LedgerHandler {
+        @Override
+        public void onSeatsBooked(String bookingId, String concertId, String userId, String userName,
+                                  String userEmail, int[] seatIndexes) {
+            Concert concert = requireConcert(concertId);
+            List<Seat> seats = seatsAt(concert, seatIndexes);
+            seats.forEach(Seat::tryBook);
+            Booking booking = new Booking(bookingId, new User(userId, userName, userEmail), concert, seats);
+            booking.confirmBooking();
+            bookings.put(bookingId, booking);
+        }
+
+        @Override
+        public void onBookingCancelled(String bookingId, String concertId, int[] seatIndexes) {
+            bookings.remove(bookingId);
+            seatsAt(requireConcert(concertId), seatIndexes).forEach(Seat::release);
+        }
+
+        private Concert requireConcert(String concertId) {
+            Concert concert = concerts.get(concertId);
+            if (concert == null) {
+                throw new IllegalStateException("Ledger refers to unknown concert " + concertId);
+            }
+            return concert;
+        }
+
+        private List<Seat> seatsAt(Concert concert, int[] seatIndexes) {
+            List<Seat> seats = new ArrayList<>(seatIndexes.length);
+            for (int index : seatIndexes) {
+                seats.add(concert.getSeats().get(index));
+            }
+            return seats;
+        }
+    }
 }
@@ -1,5 +1,11 @@
 package concertbookingsystem;
 
+import concertbookingsystem.search.ConcertQuery;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -30,19 +36,75 @@ public class ConcertTicketBookingSystemDemo {
             System.out.println("Concert: " + concert.getArtist() + " at " + concert.getVenue());
         }
 
+        searchResults = bookingSystem.searchConcerts(new ConcertQuery().artist("artist 1"));
+        System.out.println("Concerts by artist 1: " + searchResults.size());
+        searchResults = bookingSystem.searchConcerts(new ConcertQuery().venue("VENUE 2")
+                .between(LocalDateTime.now(), LocalDateTime.now().plusDays(90)));
+        System.out.println("Concerts at venue 2 in the next 90 days: " + searchResults.size());
+
         // Book tickets
         List<Seat> selectedSeats1 = selectSeats(concert1, 3);
         Booking booking1 = bookingSystem.bookTickets(user1, concert1, selectedSeats1);
+        System.out.println("Booking " + booking1.getId() + " - " + booking1.getSeats().size() + " seats booked");
 
         List<Seat> selectedSeats2 = selectSeats(concert2, 2);
         Booking booking2 = bookingSystem.bookTickets(user2, concert2, selectedSeats2);
+        System.out.println("Booking " + booking2.getId() + " - " + booking2.getSeats().size() + " seats booked");
+
+        printAvailability(concert1);
 
         // Cancel booking
         bookingSystem.cancelBooking(booking1.getId());
+        printAvailability(concert1);
 
         // Book tickets again
         List<Seat> selectedSeats3 = selectSeats(concert1, 2);
         Booking booking3 = bookingSystem.bookTickets(user2, concert1, selectedSeats3);
+        System.out.println("Booking " + booking3.getId() + " - " + booking3.getSeats().size() + " seats booked");
+
+        demonstrateLedgerRecovery();
+    }
+
+    // Books and cancels with the ledger on, restarts into a fresh system with the same concert
+    // catalog, and shows the seat state coming back from the snapshot plus the later events.
+    private static void demonstrateLedgerRecovery() {
+        Path ledgerDirectory;
+        try {
+            ledgerDirectory = Files.createTempDirectory("concert-ledger");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        LocalDateTime showTime = LocalDateTime.now().plusDays(45);
+        User user = new User("U003", "Sam Lee", "sam@example.com");
+
+        ConcertTicketBookingSystem before = ConcertTicketBookingSystem.newInstance();
+        Concert concert = new Concert("C003", "Artist 3", "Venue 3", showTime, generateSeats(100));
+        before.addConcert(concert);
+        before.enableLedger(ledgerDirectory, 0);
+        Booking first = before.bookTickets(user, concert, selectSeats(concert, 4));
+        before.bookTickets(user, concert, selectSeats(concert, 12));
+        before.takeLedgerSnapshot();
+        before.cancelBooking(first.getId());
+        before.bookTickets(user, concert, selectSeats(concert, 1));
+        System.out.print("Before restart: ");
+        printAvailability(concert);
+        before.shutdown();
+
+        ConcertTicketBookingSystem after = ConcertTicketBookingSystem.newInstance();
+        Concert restored = new Concert("C003", "Artist 3", "Venue 3", showTime, generateSeats(100));
+        after.addConcert(restored);
+        after.enableLedger(ledgerDirectory, 0);
+        System.out.print("After restart:  ");
+        printAvailability(restored);
+        after.shutdown();
+    }
+
+    private static void printAvailability(Concert concert) {
+        StringBuilder availability = new StringBuilder("Available at " + concert.getId() + ":");
+        for (SeatType seatType : SeatType.values()) {
+            availability.append(' ').append(seatType).append('=').append(concert.getAvailableSeatCount(seatType));
+        }
+        System.out.println(availability);
     }
 
     private static List<Seat> generateSeats(int numberOfSeats) {
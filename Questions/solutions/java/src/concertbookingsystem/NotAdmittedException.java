@@ -0,0 +1,9 @@
+package concertbookingsystem;
+
+public class NotAdmittedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public NotAdmittedException(String message) {
+        super(message);
+    }
+}
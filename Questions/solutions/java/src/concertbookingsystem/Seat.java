@@ -1,32 +1,51 @@
 package concertbookingsystem;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 public class Seat {
     private final String id;
     private final String seatNumber;
     private final SeatType seatType;
     private final double price;
-    private SeatStatus status;
+    private final AtomicReference<SeatStatus> status;
+    private SeatInventory inventory;
 
     public Seat(String id, String seatNumber, SeatType seatType, double price) {
         this.id = id;
         this.seatNumber = seatNumber;
         this.seatType = seatType;
         this.price = price;
-        this.status = SeatStatus.AVAILABLE;
+        this.status = new AtomicReference<>(SeatStatus.AVAILABLE);
     }
 
-    public synchronized void book() {
-        if (status == SeatStatus.AVAILABLE) {
-            status = SeatStatus.BOOKED;
-        } else {
+    public void book() {
+        if (!tryBook()) {
             throw new SeatNotAvailableException("Seat is already booked or reserved.");
         }
     }
 
-    public synchronized void release() {
-        if (status == SeatStatus.BOOKED) {
-            status = SeatStatus.AVAILABLE;
+    // Single compare-and-set, so concurrent buyers of one seat have exactly one winner.
+    // The inventory moves only when the status transition itself succeeds, which keeps the
+    // counts exact.
+    public boolean tryBook() {
+        if (!status.compareAndSet(SeatStatus.AVAILABLE, SeatStatus.BOOKED)) {
+            return false;
+        }
+        if (inventory != null) {
+            inventory.onBooked(seatType);
         }
+        return true;
+    }
+
+    public void release() {
+        if (status.compareAndSet(SeatStatus.BOOKED, SeatStatus.AVAILABLE) && inventory != null) {
+            inventory.onReleased(seatType);
+        }
+    }
+
+    // Set once by the owning Concert before it is published.
+    void attachInventory(SeatInventory inventory) {
+        this.inventory = inventory;
     }
 
     public double getPrice() {
@@ -46,6 +65,6 @@ public class Seat {
     }
 
     public SeatStatus getStatus() {
-        return status;
+        return status.get();
     }
 }
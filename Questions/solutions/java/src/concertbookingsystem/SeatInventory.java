@@ -0,0 +1,52 @@
+package concertbookingsystem;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+// Available seat counts per SeatType for one concert, updated by Seat on every successful
+// book or release. LongAdder stripes the writes so a busy on-sale does not serialize on one
+// counter, and a read sums a handful of cells instead of walking the seat list. A read racing
+// with writers can be off by the in-flight updates; once they land the count is exact.
+public class SeatInventory {
+    private static final SeatType[] SEAT_TYPES = SeatType.values();
+
+    private final LongAdder[] available = new LongAdder[SEAT_TYPES.length];
+    private final int[] capacity = new int[SEAT_TYPES.length];
+
+    SeatInventory(List<Seat> seats) {
+        for (int i = 0; i < available.length; i++) {
+            available[i] = new LongAdder();
+        }
+        for (Seat seat : seats) {
+            int type = seat.getSeatType().ordinal();
+            capacity[type]++;
+            if (seat.getStatus() == SeatStatus.AVAILABLE) {
+                available[type].increment();
+            }
+        }
+    }
+
+    void onBooked(SeatType seatType) {
+        available[seatType.ordinal()].decrement();
+    }
+
+    void onReleased(SeatType seatType) {
+        available[seatType.ordinal()].increment();
+    }
+
+    public long getAvailable(SeatType seatType) {
+        return available[seatType.ordinal()].sum();
+    }
+
+    public long getAvailable() {
+        long total = 0;
+        for (LongAdder counter : available) {
+            total += counter.sum();
+        }
+        return total;
+    }
+
+    public int getCapacity(SeatType seatType) {
+        return capacity[seatType.ordinal()];
+    }
+}
@@ -0,0 +1,302 @@
+package concertbookingsystem.ledger;
+
+import concertbookingsystem.Booking;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Append-only log of seat bookings and cancellations with group commit. Appending only
+// encodes the event into an in-memory batch; a single writer thread swaps the batch out,
+// writes it and forces it with one fsync, then wakes every caller waiting in awaitDurable.
+// However many bookings arrive during one fsync, they share the next one.
+public class BookingLedger implements AutoCloseable {
+    private static final String SEGMENT_PREFIX = "ledger-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int INITIAL_BATCH_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final long segmentBytes;
+    // Bookings whose SEATS_BOOKED event has been appended and not yet cancelled, updated under
+    // the append lock so a snapshot at sequence S reflects at least every event up to S.
+    private final Map<String, Booking> activeBookings = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition();
+    private final Condition batchDurable = lock.newCondition();
+    private final Thread writer;
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BATCH_BYTES);
+    private ByteBuffer writing = ByteBuffer.allocate(INITIAL_BATCH_BYTES);
+    private long nextSequence;
+    private long durableSequence;
+    private long batchCount;
+    private IOException failure;
+    private boolean closed;
+    // Writer thread only.
+    private FileChannel segment;
+
+    public BookingLedger(Path directory, long nextSequence, long segmentBytes, Collection<Booking> recoveredBookings) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.nextSequence = nextSequence;
+        this.durableSequence = nextSequence - 1;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (Booking booking : recoveredBookings) {
+            activeBookings.put(booking.getId(), booking);
+        }
+        this.writer = new Thread(this::writeBatches, "booking-ledger-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public long appendSeatsBooked(Booking booking) {
+        lock.lock();
+        try {
+            checkOpen();
+            long sequence = nextSequence++;
+            pending = LedgerCodec.putSeatsBooked(pending, sequence, booking);
+            activeBookings.put(booking.getId(), booking);
+            batchReady.signal();
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long appendBookingCancelled(Booking booking) {
+        lock.lock();
+        try {
+            checkOpen();
+            long sequence = nextSequence++;
+            pending = LedgerCodec.putBookingCancelled(pending, sequence, booking);
+            activeBookings.remove(booking.getId());
+            batchReady.signal();
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Blocks until the event with this sequence, and everything before it, is on disk.
+    public void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durableSequence < sequence && failure == null) {
+                batchDurable.awaitUninterruptibly();
+            }
+            if (durableSequence < sequence) {
+                throw new UncheckedIOException("Booking ledger write failed", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkOpen() {
+        if (failure != null) {
+            throw new UncheckedIOException("Booking ledger write failed", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Booking ledger is closed");
+        }
+    }
+
+    private void writeBatches() {
+        while (true) {
+            ByteBuffer batch;
+            long firstSequence;
+            long lastSequence;
+            lock.lock();
+            try {
+                while (pending.position() == 0 && !closed) {
+                    batchReady.awaitUninterruptibly();
+                }
+                if (pending.position() == 0) {
+                    return;
+                }
+                batch = pending;
+                pending = writing;
+                writing = batch;
+                firstSequence = durableSequence + 1;
+                lastSequence = nextSequence - 1;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                batch.flip();
+                FileChannel channel = segmentFor(firstSequence);
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                error = e;
+            }
+            batch.clear();
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durableSequence = lastSequence;
+                    batchCount++;
+                }
+                batchDurable.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Starts a new segment once the current one is full; segments are named by the first
+    // sequence they hold, so a batch never straddles two files.
+    private FileChannel segmentFor(long firstSequence) throws IOException {
+        if (segment != null && segment.size() < segmentBytes) {
+            return segment;
+        }
+        if (segment != null) {
+            segment.close();
+        }
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        segment = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        // Make the new file's directory entry durable along with its first batch.
+        try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        } catch (IOException e) {
+            // not every platform can open a directory; the data itself is still forced
+        }
+        return segment;
+    }
+
+    // Writes the active bookings as of the current sequence, then drops the segments and
+    // snapshots it makes redundant. Appends carry on while it runs: anything that lands after
+    // the chosen sequence is replayed on top, which recovery handles idempotently.
+    public long takeSnapshot() {
+        long sequence;
+        lock.lock();
+        try {
+            checkOpen();
+            sequence = nextSequence - 1;
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(sequence);
+        LedgerSnapshot.write(directory, sequence, activeBookings.values());
+        deleteSegmentsThrough(sequence);
+        return sequence;
+    }
+
+    private void deleteSegmentsThrough(long snapshotSequence) {
+        List<Path> segments = listSegments(directory);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstSequenceOf(segments.get(i + 1)) <= snapshotSequence + 1) {
+                try {
+                    Files.deleteIfExists(segments.get(i));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    public long getLastSequence() {
+        lock.lock();
+        try {
+            return nextSequence - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Number of fsyncs so far; appended events divided by this is the average group size.
+    public long getBatchCount() {
+        lock.lock();
+        try {
+            return batchCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Flushes whatever is pending, then stops the writer.
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            batchReady.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+            if (segment != null) {
+                segment.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Loads the latest snapshot, replays every later event in order, and returns the sequence
+    // of the last event found, so a new ledger can continue from the next one.
+    public static long recover(Path directory, LedgerHandler handler) {
+        long lastSequence = LedgerSnapshot.loadLatest(directory, handler);
+        long afterSequence = lastSequence;
+        for (Path path : listSegments(directory)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                long sequence;
+                while ((sequence = LedgerCodec.read(buffer, afterSequence, handler)) >= 0) {
+                    lastSequence = Math.max(lastSequence, sequence);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return lastSequence;
+    }
+
+    private static List<Path> listSegments(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long firstSequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
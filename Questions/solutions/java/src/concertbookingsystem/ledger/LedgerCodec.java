@@ -0,0 +1,147 @@
+package concertbookingsystem.ledger;
+
+import concertbookingsystem.Booking;
+import concertbookingsystem.Concert;
+import concertbookingsystem.Seat;
+import concertbookingsystem.User;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Binary layout shared by ledger segments and snapshots:
+//   [int length][byte type][long sequence][payload]
+// where length covers type, sequence and payload and strings are a short byte count followed
+// by UTF-8 bytes. A short or zero length marks the end of what was written.
+final class LedgerCodec {
+    static final int LENGTH_BYTES = 4;
+    static final int HEADER_BYTES = LENGTH_BYTES + 1 + 8;
+
+    private LedgerCodec() {
+    }
+
+    static byte[] utf8(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("String too long for ledger: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+
+    static int sizeOf(byte[] string) {
+        return 2 + string.length;
+    }
+
+    static int[] seatIndexes(Booking booking) {
+        Concert concert = booking.getConcert();
+        List<Seat> seats = booking.getSeats();
+        int[] indexes = new int[seats.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = concert.getSeatIndex(seats.get(i));
+        }
+        return indexes;
+    }
+
+    // Grows the buffer as needed and returns the one that now holds the record.
+    static ByteBuffer putSeatsBooked(ByteBuffer buffer, long sequence, Booking booking) {
+        User user = booking.getUser();
+        byte[] bookingId = utf8(booking.getId());
+        byte[] concertId = utf8(booking.getConcert().getId());
+        byte[] userId = utf8(user.getId());
+        byte[] userName = utf8(user.getName());
+        byte[] userEmail = utf8(user.getEmail());
+        int[] seats = seatIndexes(booking);
+        int payload = sizeOf(bookingId) + sizeOf(concertId) + sizeOf(userId) + sizeOf(userName) + sizeOf(userEmail)
+                + 4 + seats.length * 4;
+        buffer = putHeader(buffer, LedgerEventType.SEATS_BOOKED, sequence, payload);
+        putString(buffer, bookingId);
+        putString(buffer, concertId);
+        putString(buffer, userId);
+        putString(buffer, userName);
+        putString(buffer, userEmail);
+        putInts(buffer, seats);
+        return buffer;
+    }
+
+    static ByteBuffer putBookingCancelled(ByteBuffer buffer, long sequence, Booking booking) {
+        byte[] bookingId = utf8(booking.getId());
+        byte[] concertId = utf8(booking.getConcert().getId());
+        int[] seats = seatIndexes(booking);
+        buffer = putHeader(buffer, LedgerEventType.BOOKING_CANCELLED, sequence,
+                sizeOf(bookingId) + sizeOf(concertId) + 4 + seats.length * 4);
+        putString(buffer, bookingId);
+        putString(buffer, concertId);
+        putInts(buffer, seats);
+        return buffer;
+    }
+
+    private static ByteBuffer putHeader(ByteBuffer buffer, byte type, long sequence, int payloadBytes) {
+        int recordBytes = HEADER_BYTES + payloadBytes;
+        if (buffer.remaining() < recordBytes) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + recordBytes));
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+        buffer.putInt(recordBytes - LENGTH_BYTES);
+        buffer.put(type);
+        buffer.putLong(sequence);
+        return buffer;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] string) {
+        buffer.putShort((short) string.length);
+        buffer.put(string);
+    }
+
+    private static void putInts(ByteBuffer buffer, int[] values) {
+        buffer.putInt(values.length);
+        for (int value : values) {
+            buffer.putInt(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int[] getInts(ByteBuffer buffer) {
+        int[] values = new int[buffer.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buffer.getInt();
+        }
+        return values;
+    }
+
+    // Decodes the record at the buffer's position and dispatches it if its sequence is after
+    // afterSequence. Returns the record's sequence, or -1 at the end of the written region,
+    // including a record torn by a crash mid-write.
+    static long read(ByteBuffer buffer, long afterSequence, LedgerHandler handler) {
+        if (buffer.remaining() < HEADER_BYTES) {
+            return -1;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt();
+        if (length <= 0 || length > buffer.remaining()) {
+            buffer.position(start);
+            return -1;
+        }
+        byte type = buffer.get();
+        long sequence = buffer.getLong();
+        if (sequence <= afterSequence) {
+            buffer.position(start + LENGTH_BYTES + length);
+            return sequence;
+        }
+        switch (type) {
+            case LedgerEventType.SEATS_BOOKED -> handler.onSeatsBooked(getString(buffer), getString(buffer),
+                    getString(buffer), getString(buffer), getString(buffer), getInts(buffer));
+            case LedgerEventType.BOOKING_CANCELLED -> handler.onBookingCancelled(getString(buffer),
+                    getString(buffer), getInts(buffer));
+            default -> throw new IllegalStateException("Unknown ledger record type " + type + " at sequence " + sequence);
+        }
+        buffer.position(start + LENGTH_BYTES + length);
+        return sequence;
+    }
+}
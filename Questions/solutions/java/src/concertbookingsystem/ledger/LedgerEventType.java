@@ -0,0 +1,9 @@
+package concertbookingsystem.ledger;
+
+final class LedgerEventType {
+    static final byte SEATS_BOOKED = 1;
+    static final byte BOOKING_CANCELLED = 2;
+
+    private LedgerEventType() {
+    }
+}
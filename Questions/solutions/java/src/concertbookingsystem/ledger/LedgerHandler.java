@@ -0,0 +1,12 @@
+package concertbookingsystem.ledger;
+
+// Receives ledger events during recovery. Seats are identified by their index in the
+// concert's seat list. Snapshot entries arrive as onSeatsBooked for every booking that was
+// active, and replay may repeat an event the snapshot already reflects, so handlers must
+// treat both callbacks as idempotent.
+public interface LedgerHandler {
+    void onSeatsBooked(String bookingId, String concertId, String userId, String userName, String userEmail,
+                       int[] seatIndexes);
+
+    void onBookingCancelled(String bookingId, String concertId, int[] seatIndexes);
+}
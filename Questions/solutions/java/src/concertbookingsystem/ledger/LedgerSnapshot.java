@@ -0,0 +1,108 @@
+package concertbookingsystem.ledger;
+
+import concertbookingsystem.Booking;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Seat ownership as of one ledger sequence: a SEATS_BOOKED record per active booking, in the
+// ledger's own record layout. The file only appears under its final name once it is complete
+// and on disk.
+public final class LedgerSnapshot {
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private LedgerSnapshot() {
+    }
+
+    static void write(Path directory, long sequence, Iterable<Booking> activeBookings) {
+        Path temporaryPath = directory.resolve(fileName(sequence) + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+            for (Booking booking : activeBookings) {
+                buffer = LedgerCodec.putSeatsBooked(buffer, sequence, booking);
+                if (buffer.position() >= BUFFER_BYTES) {
+                    drain(channel, buffer);
+                }
+            }
+            drain(channel, buffer);
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(temporaryPath, directory.resolve(fileName(sequence)), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (Path snapshot : listSnapshots(directory)) {
+            if (sequenceOf(snapshot) < sequence) {
+                try {
+                    Files.deleteIfExists(snapshot);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Feeds the newest complete snapshot to the handler and returns the ledger sequence it
+    // covers, or 0 when there is no snapshot and the ledger must be replayed from the start.
+    public static long loadLatest(Path directory, LedgerHandler handler) {
+        List<Path> snapshots = listSnapshots(directory);
+        if (snapshots.isEmpty()) {
+            return 0;
+        }
+        Path latest = snapshots.getLast();
+        try (FileChannel channel = FileChannel.open(latest, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            while (LedgerCodec.read(buffer, Long.MIN_VALUE, handler) >= 0) {
+                // records are dispatched by read()
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sequenceOf(latest);
+    }
+
+    private static String fileName(long sequence) {
+        return String.format("%s%020d%s", PREFIX, sequence, SUFFIX);
+    }
+
+    private static List<Path> listSnapshots(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long sequenceOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,112 @@
+package concertbookingsystem.search;
+
+import concertbookingsystem.Concert;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+// Secondary indexes over concerts: a date-ordered skip list of everything, plus one
+// date-ordered posting list per case-folded artist and venue. A query clips each posting
+// list it names to the date range and intersects them by leapfrogging, so the work is
+// bounded by the shortest list involved, not by the size of the catalog.
+public class ConcertIndex {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final NavigableMap<ConcertKey, Concert> byDate = new ConcurrentSkipListMap<>();
+    private final Map<String, NavigableMap<ConcertKey, Concert>> byArtist = new ConcurrentHashMap<>();
+    private final Map<String, NavigableMap<ConcertKey, Concert>> byVenue = new ConcurrentHashMap<>();
+
+    public void add(Concert concert) {
+        ConcertKey key = new ConcertKey(concert.getDateTime(), concert.getId());
+        byDate.put(key, concert);
+        postingsFor(byArtist, normalize(concert.getArtist())).put(key, concert);
+        postingsFor(byVenue, normalize(concert.getVenue())).put(key, concert);
+    }
+
+    // Results come back in date order.
+    public List<Concert> search(ConcertQuery query) {
+        if (query.matchesNothing()) {
+            return new ArrayList<>();
+        }
+        List<NavigableMap<ConcertKey, Concert>> postings = new ArrayList<>(2);
+        if (query.getArtist() != null) {
+            NavigableMap<ConcertKey, Concert> artist = byArtist.get(normalize(query.getArtist()));
+            if (artist == null) {
+                return new ArrayList<>();
+            }
+            postings.add(clip(artist, query));
+        }
+        if (query.getVenue() != null) {
+            NavigableMap<ConcertKey, Concert> venue = byVenue.get(normalize(query.getVenue()));
+            if (venue == null) {
+                return new ArrayList<>();
+            }
+            postings.add(clip(venue, query));
+        }
+        if (postings.isEmpty()) {
+            return new ArrayList<>(clip(byDate, query).values());
+        }
+        if (postings.size() == 1) {
+            return new ArrayList<>(postings.get(0).values());
+        }
+        return intersect(postings);
+    }
+
+    // Leapfrog join: every list jumps with ceilingKey to the largest key seen so far, so a
+    // sparse list drags the dense ones along and they never walk entries in between.
+    private static List<Concert> intersect(List<NavigableMap<ConcertKey, Concert>> postings) {
+        List<Concert> results = new ArrayList<>();
+        NavigableMap<ConcertKey, Concert> lead = postings.get(0);
+        ConcertKey target = lead.isEmpty() ? null : lead.firstKey();
+        while (target != null) {
+            boolean matched = true;
+            for (NavigableMap<ConcertKey, Concert> list : postings) {
+                ConcertKey found = list.ceilingKey(target);
+                if (found == null) {
+                    return results;
+                }
+                if (!found.equals(target)) {
+                    target = found;
+                    matched = false;
+                }
+            }
+            if (matched) {
+                results.add(lead.get(target));
+                target = lead.higherKey(target);
+            }
+        }
+        return results;
+    }
+
+    private static NavigableMap<ConcertKey, Concert> clip(NavigableMap<ConcertKey, Concert> postings, ConcertQuery query) {
+        if (query.getFrom() != null && query.getTo() != null) {
+            return postings.subMap(ConcertKey.bound(query.getFrom()), true, ConcertKey.bound(query.getTo()), false);
+        }
+        if (query.getFrom() != null) {
+            return postings.tailMap(ConcertKey.bound(query.getFrom()), true);
+        }
+        if (query.getTo() != null) {
+            return postings.headMap(ConcertKey.bound(query.getTo()), false);
+        }
+        return postings;
+    }
+
+    private static NavigableMap<ConcertKey, Concert> postingsFor(Map<String, NavigableMap<ConcertKey, Concert>> index,
+                                                                 String key) {
+        return index.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>());
+    }
+
+    // Compatibility-folds, lower-cases and collapses whitespace, so "The  Band" and "the band" match.
+    static String normalize(String value) {
+        String folded = Normalizer.normalize(value, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        return WHITESPACE.matcher(folded.trim()).replaceAll(" ");
+    }
+}
@@ -0,0 +1,51 @@
+package concertbookingsystem.search;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Orders concerts by date, then id, so every posting list shares one order and can be
+// intersected by skipping forward. A key with an empty id sorts before every real concert
+// at that time and is used as a range bound. The time is kept as plain numbers so a probe
+// compares primitives instead of chasing into LocalDateTime's date and time objects.
+class ConcertKey implements Comparable<ConcertKey> {
+    private final long epochSecond;
+    private final int nano;
+    private final String concertId;
+
+    ConcertKey(LocalDateTime dateTime, String concertId) {
+        this.epochSecond = dateTime.toEpochSecond(ZoneOffset.UTC);
+        this.nano = dateTime.getNano();
+        this.concertId = concertId;
+    }
+
+    static ConcertKey bound(LocalDateTime time) {
+        return new ConcertKey(time, "");
+    }
+
+    @Override
+    public int compareTo(ConcertKey other) {
+        if (epochSecond != other.epochSecond) {
+            return Long.compare(epochSecond, other.epochSecond);
+        }
+        if (nano != other.nano) {
+            return Integer.compare(nano, other.nano);
+        }
+        return concertId.compareTo(other.concertId);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ConcertKey other)) {
+            return false;
+        }
+        return epochSecond == other.epochSecond && nano == other.nano && concertId.equals(other.concertId);
+    }
+
+    @Override
+    public int hashCode() {
+        return (Long.hashCode(epochSecond) * 31 + nano) * 31 + concertId.hashCode();
+    }
+}
@@ -0,0 +1,60 @@
+package concertbookingsystem.search;
+
+import java.time.LocalDateTime;
+
+// Search criteria; anything left unset matches every concert. The date range is [from, to).
+public class ConcertQuery {
+    private String artist;
+    private String venue;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private boolean noDate;
+
+    public ConcertQuery artist(String artist) {
+        this.artist = artist;
+        return this;
+    }
+
+    public ConcertQuery venue(String venue) {
+        this.venue = venue;
+        return this;
+    }
+
+    public ConcertQuery between(LocalDateTime from, LocalDateTime to) {
+        this.from = from;
+        this.to = to;
+        this.noDate = false;
+        return this;
+    }
+
+    // A null date matches no concert, just as no concert starts at a null time.
+    public ConcertQuery on(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            between(null, null);
+            noDate = true;
+            return this;
+        }
+        return between(dateTime, dateTime.plusNanos(1));
+    }
+
+    // True when no concert can match: the date range is empty or inverted, or on(null) was asked for.
+    public boolean matchesNothing() {
+        return noDate || (from != null && to != null && !from.isBefore(to));
+    }
+
+    public String getArtist() {
+        return artist;
+    }
+
+    public String getVenue() {
+        return venue;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+}
@@ -0,0 +1,190 @@
+package concertbookingsystem.waitingroom;
+
+import concertbookingsystem.Booking;
+import concertbookingsystem.Concert;
+import concertbookingsystem.ConcertTicketBookingSystem;
+import concertbookingsystem.NotAdmittedException;
+import concertbookingsystem.Seat;
+import concertbookingsystem.SeatNotAvailableException;
+import concertbookingsystem.SeatStatus;
+import concertbookingsystem.SeatType;
+import concertbookingsystem.User;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 100k buyers hit one concert's on-sale at the same instant. They queue in its waiting room,
+// are admitted in batches and book on a small worker pool, while a second concert keeps
+// selling on the side to show the flash sale does not hold it up.
+public class FlashSaleLoadTest {
+    private static final int BUYERS = 100_000;
+    private static final int SEATS = 20_000;
+    private static final int MAX_SEATS_PER_BUYER = 4;
+    private static final int ATTEMPTS_PER_BUYER = 3;
+    private static final int BATCH_SIZE = 1_000;
+    private static final int MAX_ACTIVE = 2_000;
+    private static final long ADMIT_INTERVAL_MILLIS = 5;
+    private static final long SESSION_TTL_MILLIS = 60_000;
+    private static final int SIDE_SALES = 2_000;
+
+    public static void run() throws InterruptedException, IOException {
+        ConcertTicketBookingSystem system = ConcertTicketBookingSystem.newInstance();
+        Concert flashSale = new Concert("FLASH", "Headliner", "Stadium", LocalDateTime.now().plusDays(90), generateSeats("F", SEATS));
+        Concert sideConcert = new Concert("SIDE", "Opener", "Club", LocalDateTime.now().plusDays(10), generateSeats("S", SIDE_SALES));
+        system.addConcert(flashSale);
+        system.addConcert(sideConcert);
+        system.enableLedger(Files.createTempDirectory("flash-sale-ledger"), 500);
+        system.openWaitingRoom(flashSale, BATCH_SIZE, MAX_ACTIVE, ADMIT_INTERVAL_MILLIS, SESSION_TTL_MILLIS);
+
+        // Workers spend most of a booking waiting for the ledger fsync, so run more than there are cores.
+        int workerCount = Math.max(16, Runtime.getRuntime().availableProcessors() * 2);
+        ExecutorService workers = Executors.newFixedThreadPool(workerCount);
+        CountDownLatch done = new CountDownLatch(BUYERS);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger seatsSold = new AtomicInteger();
+        AtomicInteger missedOut = new AtomicInteger();
+        AtomicInteger turnedAway = new AtomicInteger();
+        long[] queueWaitNanos = new long[BUYERS];
+        AtomicInteger admittedCount = new AtomicInteger();
+
+        Thread sideSeller = new Thread(() -> {
+            long[] latencies = new long[SIDE_SALES];
+            int sold = 0;
+            for (Seat seat : sideConcert.getSeats()) {
+                long start = System.nanoTime();
+                system.bookTickets(new User("SIDE" + sold, "Side buyer", ""), sideConcert, List.of(seat));
+                latencies[sold++] = System.nanoTime() - start;
+            }
+            System.out.println("Side concert bookings during the sale: " + sold + ", " + percentiles(latencies, sold));
+        }, "side-seller");
+
+        long start = System.nanoTime();
+        int joiners = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        Thread[] joinThreads = new Thread[joiners];
+        for (int t = 0; t < joiners; t++) {
+            int first = t;
+            joinThreads[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(first);
+                for (int i = first; i < BUYERS; i += joiners) {
+                    QueueTicket ticket;
+                    try {
+                        ticket = system.joinWaitingRoom(new User("B" + i, "Buyer " + i, ""), flashSale);
+                    } catch (IllegalStateException e) {
+                        // The sale sold out and its room closed before this buyer arrived
+                        turnedAway.incrementAndGet();
+                        done.countDown();
+                        continue;
+                    }
+                    int wanted = 1 + random.nextInt(MAX_SEATS_PER_BUYER);
+                    int startSeat = random.nextInt(SEATS);
+                    ticket.getAdmission().whenCompleteAsync((admitted, error) -> {
+                        try {
+                            if (error != null) {
+                                turnedAway.incrementAndGet();
+                                return;
+                            }
+                            queueWaitNanos[admittedCount.getAndIncrement()] = admitted.getAdmittedAtNanos() - admitted.getJoinedAtNanos();
+                            Booking booking = buy(system, flashSale, admitted, wanted, startSeat);
+                            if (booking != null) {
+                                booked.incrementAndGet();
+                                seatsSold.addAndGet(booking.getSeats().size());
+                            } else {
+                                missedOut.incrementAndGet();
+                            }
+                        } finally {
+                            done.countDown();
+                        }
+                    }, workers);
+                }
+            }, "joiner-" + t);
+        }
+        for (Thread thread : joinThreads) {
+            thread.start();
+        }
+        sideSeller.start();
+        for (Thread thread : joinThreads) {
+            thread.join();
+        }
+        long joinedNanos = System.nanoTime() - start;
+        done.await();
+        long elapsedNanos = System.nanoTime() - start;
+        sideSeller.join();
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+
+        long actuallyBooked = flashSale.getSeats().stream().filter(seat -> seat.getStatus() == SeatStatus.BOOKED).count();
+        System.out.printf("%,d buyers joined in %.1f ms; sale finished in %.1f ms%n",
+                BUYERS, joinedNanos / 1e6, elapsedNanos / 1e6);
+        System.out.printf("Bookings: %,d (%,d seats, %,d booked on the map), missed out: %,d, turned away at sell-out: %,d%n",
+                booked.get(), seatsSold.get(), actuallyBooked, missedOut.get(), turnedAway.get());
+        System.out.printf("Inventory counter after the sale: %,d available of %,d seats%n",
+                flashSale.getAvailableSeatCount(), SEATS);
+        System.out.printf("Throughput: %,.0f bookings/s, %,.0f buyers resolved/s%n",
+                booked.get() / (elapsedNanos / 1e9), BUYERS / (elapsedNanos / 1e9));
+        System.out.println("Queue wait of admitted buyers: " + percentiles(queueWaitNanos, admittedCount.get()));
+        System.out.printf("Ledger: %,d events in %,d fsyncs%n",
+                system.getLedger().getLastSequence(), system.getLedger().getBatchCount());
+        system.shutdown();
+    }
+
+    // Admitted buyer picks seats near a random spot and retries a couple of times if someone
+    // else got there first. Finding nothing at all means the show is gone.
+    private static Booking buy(ConcertTicketBookingSystem system, Concert concert, QueueTicket ticket, int wanted, int startSeat) {
+        List<Seat> seats = concert.getSeats();
+        for (int attempt = 0; attempt < ATTEMPTS_PER_BUYER; attempt++) {
+            List<Seat> picked = new ArrayList<>(wanted);
+            for (int i = 0; i < seats.size() && picked.size() < wanted; i++) {
+                Seat seat = seats.get((startSeat + attempt * 97 + i) % seats.size());
+                if (seat.getStatus() == SeatStatus.AVAILABLE) {
+                    picked.add(seat);
+                }
+            }
+            if (picked.isEmpty()) {
+                system.leaveWaitingRoom(ticket);
+                system.closeWaitingRoom(concert);
+                return null;
+            }
+            try {
+                return system.bookTickets(ticket, picked);
+            } catch (SeatNotAvailableException e) {
+                // lost the race for one of the seats; look again
+            } catch (NotAdmittedException e) {
+                // sold out or timed out while picking
+                return null;
+            }
+        }
+        system.leaveWaitingRoom(ticket);
+        return null;
+    }
+
+    private static List<Seat> generateSeats(String prefix, int count) {
+        List<Seat> seats = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            SeatType seatType = (i <= count / 10) ? SeatType.VIP : (i <= count * 3 / 10) ? SeatType.PREMIUM : SeatType.REGULAR;
+            double price = (seatType == SeatType.VIP) ? 100.0 : (seatType == SeatType.PREMIUM) ? 75.0 : 50.0;
+            seats.add(new Seat(prefix + i, prefix + i, seatType, price));
+        }
+        return seats;
+    }
+
+    private static String percentiles(long[] nanos, int count) {
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        if (count == 0) {
+            return "no samples";
+        }
+        return String.format("p50 %.1f us, p99 %.1f us, max %.1f us",
+                sorted[count / 2] / 1e3, sorted[(int) (count * 0.99)] / 1e3, sorted[count - 1] / 1e3);
+    }
+}
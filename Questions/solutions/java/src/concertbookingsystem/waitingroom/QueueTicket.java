@@ -0,0 +1,71 @@
+package concertbookingsystem.waitingroom;
+
+import concertbookingsystem.User;
+
+import java.util.concurrent.CompletableFuture;
+
+// A buyer's place in a concert's waiting room. The admission future completes when the
+// buyer is let through to book, and is cancelled if the room closes first.
+public class QueueTicket {
+    private final User user;
+    private final String concertId;
+    private final long position;
+    private final long joinedAtNanos;
+    private final CompletableFuture<QueueTicket> admission = new CompletableFuture<>();
+    private volatile long admittedAtNanos;
+    private volatile boolean finished;
+
+    QueueTicket(User user, String concertId, long position) {
+        this.user = user;
+        this.concertId = concertId;
+        this.position = position;
+        this.joinedAtNanos = System.nanoTime();
+    }
+
+    void admit() {
+        admittedAtNanos = System.nanoTime();
+        admission.complete(this);
+    }
+
+    // True only for the first call, so a session frees its admission slot exactly once.
+    synchronized boolean finish() {
+        if (finished) {
+            return false;
+        }
+        finished = true;
+        return true;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public String getConcertId() {
+        return concertId;
+    }
+
+    // Order of arrival in the queue, starting at 0.
+    public long getPosition() {
+        return position;
+    }
+
+    public boolean isAdmitted() {
+        return admission.isDone() && !admission.isCancelled();
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public CompletableFuture<QueueTicket> getAdmission() {
+        return admission;
+    }
+
+    public long getJoinedAtNanos() {
+        return joinedAtNanos;
+    }
+
+    public long getAdmittedAtNanos() {
+        return admittedAtNanos;
+    }
+}
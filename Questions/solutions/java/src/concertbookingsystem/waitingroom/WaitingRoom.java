@@ -0,0 +1,122 @@
+package concertbookingsystem.waitingroom;
+
+import concertbookingsystem.User;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Virtual waiting room for one concert's on-sale. Buyers join in arrival order and are let
+// through in batches, never more than maxActive at once, so the booking path only ever sees
+// a bounded crowd no matter how many buyers arrive together. An admitted buyer keeps their
+// slot until they book, leave, or sit on it longer than the session ttl.
+public class WaitingRoom {
+    private final String concertId;
+    private final int batchSize;
+    private final int maxActive;
+    private final long sessionTtlNanos;
+    private final Queue<QueueTicket> waiting = new ConcurrentLinkedQueue<>();
+    // Admitted in admission order, which is also expiry order.
+    private final Queue<QueueTicket> sessions = new ConcurrentLinkedQueue<>();
+    private final AtomicLong nextPosition = new AtomicLong();
+    private final AtomicLong admittedCount = new AtomicLong();
+    private final AtomicInteger active = new AtomicInteger();
+    private volatile boolean closed;
+
+    public WaitingRoom(String concertId, int batchSize, int maxActive, long sessionTtlMillis) {
+        this.concertId = concertId;
+        this.batchSize = batchSize;
+        this.maxActive = maxActive;
+        this.sessionTtlNanos = TimeUnit.MILLISECONDS.toNanos(sessionTtlMillis);
+    }
+
+    public QueueTicket join(User user) {
+        QueueTicket ticket = new QueueTicket(user, concertId, nextPosition.getAndIncrement());
+        waiting.add(ticket);
+        if (closed) {
+            // Raced with close(); make sure nobody is left waiting on a drained queue.
+            drain();
+        }
+        return ticket;
+    }
+
+    // Lets through the next batch, limited by the free session slots. Called by one admitting
+    // thread at a time. Returns the number of buyers admitted.
+    public int admitNextBatch() {
+        expireSessions(System.nanoTime());
+        int slots = Math.min(batchSize, maxActive - active.get());
+        int admitted = 0;
+        while (admitted < slots && !closed) {
+            QueueTicket ticket = waiting.poll();
+            if (ticket == null) {
+                break;
+            }
+            active.incrementAndGet();
+            admittedCount.incrementAndGet();
+            ticket.admit();
+            sessions.add(ticket);
+            admitted++;
+        }
+        return admitted;
+    }
+
+    // Ends an admitted buyer's session, whether they booked or gave up.
+    public void leave(QueueTicket ticket) {
+        if (ticket.isAdmitted() && ticket.finish()) {
+            active.decrementAndGet();
+        }
+    }
+
+    public boolean isSessionActive(QueueTicket ticket) {
+        return ticket.isAdmitted() && !ticket.isFinished()
+                && System.nanoTime() - ticket.getAdmittedAtNanos() < sessionTtlNanos;
+    }
+
+    // Drops finished sessions off the front and reclaims the slots of expired ones.
+    private void expireSessions(long nowNanos) {
+        QueueTicket ticket;
+        while ((ticket = sessions.peek()) != null) {
+            if (!ticket.isFinished() && nowNanos - ticket.getAdmittedAtNanos() < sessionTtlNanos) {
+                break;
+            }
+            sessions.poll();
+            leave(ticket);
+        }
+    }
+
+    // Roughly how many buyers are still ahead of this ticket.
+    public long getPeopleAhead(QueueTicket ticket) {
+        return Math.max(0, ticket.getPosition() - admittedCount.get());
+    }
+
+    // Stops admitting; everyone still waiting is turned away, e.g. once the concert sells out.
+    public void close() {
+        closed = true;
+        drain();
+    }
+
+    private void drain() {
+        QueueTicket ticket;
+        while ((ticket = waiting.poll()) != null) {
+            ticket.getAdmission().cancel(false);
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public String getConcertId() {
+        return concertId;
+    }
+
+    public long getWaitingCount() {
+        return Math.max(0, nextPosition.get() - admittedCount.get());
+    }
+
+    public int getActiveCount() {
+        return active.get();
+    }
+}
@@ -1,6 +1,7 @@
 package loggingframework;
 
 import loggingframework.logappender.ConsoleAppender;
+import loggingframework.logfilter.LogFilter;
 
 public class Logger {
     private static final Logger instance = new Logger();
@@ -20,29 +21,72 @@ public class Logger {
     }
 
     public void log(LogLevel level, String message) {
-        if (level.ordinal() >= config.getLogLevel().ordinal()) {
-            LogMessage logMessage = new LogMessage(level, message);
-            config.getLogAppender().append(logMessage);
+        log(level, message, (Object[]) null);
+    }
+
+    public void log(LogLevel level, String template, Object... args) {
+        LoggerConfig config = this.config;
+        if (level.ordinal() < config.getLogLevel().ordinal()) {
+            return;
+        }
+
+        // Filters see the unformatted template, so dropped messages are never formatted or allocated.
+        for (LogFilter filter : config.getLogFilters()) {
+            if (!filter.accept(level, template)) {
+                return;
+            }
+        }
+        // Suppression counts are only collected once the message is certain to be written, so a
+        // later filter dropping it cannot lose them.
+        long suppressed = 0;
+        for (LogFilter filter : config.getLogFilters()) {
+            suppressed += filter.drainSuppressed(level, template);
         }
+
+        String message = args == null || args.length == 0 ? template : String.format(template, args);
+        if (suppressed > 0) {
+            message = message + " (suppressed " + suppressed + " similar messages)";
+        }
+        config.getLogAppender().append(new LogMessage(level, message));
     }
 
     public void debug(String message) {
         log(LogLevel.DEBUG, message);
     }
 
+    public void debug(String template, Object... args) {
+        log(LogLevel.DEBUG, template, args);
+    }
+
     public void info(String message) {
         log(LogLevel.INFO, message);
     }
 
+    public void info(String template, Object... args) {
+        log(LogLevel.INFO, template, args);
+    }
+
     public void warning(String message) {
         log(LogLevel.WARNING, message);
     }
 
+    public void warning(String template, Object... args) {
+        log(LogLevel.WARNING, template, args);
+    }
+
     public void error(String message) {
         log(LogLevel.ERROR, message);
     }
 
+    public void error(String template, Object... args) {
+        log(LogLevel.ERROR, template, args);
+    }
+
     public void fatal(String message) {
         log(LogLevel.FATAL, message);
     }
+
+    public void fatal(String template, Object... args) {
+        log(LogLevel.FATAL, template, args);
+    }
 }
@@ -1,14 +1,20 @@
 package loggingframework;
 
 import loggingframework.logappender.LogAppender;
+import loggingframework.logfilter.LogFilter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class LoggerConfig {
     private LogLevel logLevel;
     private LogAppender logAppender;
+    private final List<LogFilter> logFilters;
 
     public LoggerConfig(LogLevel logLevel, LogAppender logAppender) {
         this.logLevel = logLevel;
         this.logAppender = logAppender;
+        this.logFilters = new CopyOnWriteArrayList<>();
     }
 
     public LogLevel getLogLevel() {
@@ -26,4 +32,13 @@ public class LoggerConfig {
     public void setLogAppender(LogAppender logAppender) {
         this.logAppender = logAppender;
     }
+
+    public List<LogFilter> getLogFilters() {
+        return logFilters;
+    }
+
+    public LoggerConfig addLogFilter(LogFilter logFilter) {
+        logFilters.add(logFilter);
+        return this;
+    }
 }
@@ -1,6 +1,9 @@
 package loggingframework;
 
+import loggingframework.logappender.ConsoleAppender;
 import loggingframework.logappender.FileAppender;
+import loggingframework.logfilter.RateLimitFilter;
+import loggingframework.logfilter.SamplingFilter;
 
 public class LoggingFrameworkDemo {
     public static void run() {
@@ -17,5 +20,21 @@ public class LoggingFrameworkDemo {
 
         logger.debug("This is a debug message");
         logger.info("This is an information message");
+
+        // Rate limiting repeated messages and sampling debug output
+        LoggerConfig filteredConfig = new LoggerConfig(LogLevel.DEBUG, new ConsoleAppender())
+                .addLogFilter(new SamplingFilter().setSampleRate(LogLevel.DEBUG, 0.1))
+                .addLogFilter(new RateLimitFilter(5, 3));
+        logger.setConfig(filteredConfig);
+
+        for (int i = 0; i < 100_000; i++) {
+            logger.error("Connection to %s failed (attempt %d)", "db-1", i);
+        }
+        try {
+            Thread.sleep(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.error("Connection to %s failed (attempt %d)", "db-1", 100_000);
     }
 }
@@ -0,0 +1,15 @@
+package loggingframework.logfilter;
+
+import loggingframework.LogLevel;
+
+public interface LogFilter {
+    // Returns false to drop the message.
+    boolean accept(LogLevel level, String template);
+
+    // Called once every filter has accepted the message and it is about to be written.
+    // Returns the number of similar messages this filter suppressed since the last one
+    // that was written, and starts counting afresh.
+    default long drainSuppressed(LogLevel level, String template) {
+        return 0;
+    }
+}
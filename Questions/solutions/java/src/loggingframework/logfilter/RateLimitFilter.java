@@ -0,0 +1,79 @@
+package loggingframework.logfilter;
+
+import loggingframework.LogLevel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RateLimitFilter implements LogFilter {
+    private static final int DEFAULT_MAX_TEMPLATES = 10_000;
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxTemplates;
+    private final Map<String, TokenBucket> buckets;
+    private final TokenBucket overflowBucket;
+
+    public RateLimitFilter(int messagesPerSecond, int burstSize) {
+        this(messagesPerSecond, burstSize, DEFAULT_MAX_TEMPLATES);
+    }
+
+    public RateLimitFilter(int messagesPerSecond, int burstSize, int maxTemplates) {
+        if (messagesPerSecond <= 0 || burstSize <= 0 || maxTemplates <= 0) {
+            throw new IllegalArgumentException("Rate, burst size and template limit must be positive");
+        }
+        this.emissionIntervalNanos = TimeUnit.SECONDS.toNanos(1) / messagesPerSecond;
+        this.burstToleranceNanos = emissionIntervalNanos * (burstSize - 1);
+        this.maxTemplates = maxTemplates;
+        this.buckets = new ConcurrentHashMap<>();
+        this.overflowBucket = new TokenBucket();
+    }
+
+    @Override
+    public boolean accept(LogLevel level, String template) {
+        TokenBucket bucket = bucketFor(template);
+        if (bucket.tryAcquire(System.nanoTime())) {
+            return true;
+        }
+        bucket.suppressed.incrementAndGet();
+        return false;
+    }
+
+    @Override
+    public long drainSuppressed(LogLevel level, String template) {
+        return bucketFor(template).suppressed.getAndSet(0);
+    }
+
+    private TokenBucket bucketFor(String template) {
+        TokenBucket bucket = buckets.get(template);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxTemplates) {
+            return overflowBucket;
+        }
+        return buckets.computeIfAbsent(template, t -> new TokenBucket());
+    }
+
+    // Token bucket expressed as a theoretical arrival time (GCRA), so that
+    // consuming a token is a single compare-and-set on one field.
+    private class TokenBucket {
+        private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicLong suppressed = new AtomicLong();
+
+        boolean tryAcquire(long now) {
+            while (true) {
+                long tat = theoreticalArrival.get();
+                long start = Math.max(tat, now);
+                if (start - now > burstToleranceNanos) {
+                    return false;
+                }
+                if (theoreticalArrival.compareAndSet(tat, start + emissionIntervalNanos)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
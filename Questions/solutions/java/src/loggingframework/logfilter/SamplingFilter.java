@@ -0,0 +1,32 @@
+package loggingframework.logfilter;
+
+import loggingframework.LogLevel;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class SamplingFilter implements LogFilter {
+    // Replaced wholesale on every change, so logging threads always read a complete, published array.
+    private volatile double[] sampleRates;
+
+    public SamplingFilter() {
+        sampleRates = new double[LogLevel.values().length];
+        Arrays.fill(sampleRates, 1.0);
+    }
+
+    public synchronized SamplingFilter setSampleRate(LogLevel level, double rate) {
+        if (rate < 0.0 || rate > 1.0) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1");
+        }
+        double[] updated = sampleRates.clone();
+        updated[level.ordinal()] = rate;
+        sampleRates = updated;
+        return this;
+    }
+
+    @Override
+    public boolean accept(LogLevel level, String template) {
+        double rate = sampleRates[level.ordinal()];
+        return rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate;
+    }
+}
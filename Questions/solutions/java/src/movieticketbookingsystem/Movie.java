@@ -13,6 +13,18 @@ public class Movie {
         this.durationInMinutes = durationInMinutes;
     }
 
+    public String getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
     public int getDurationInMinutes() {
         return durationInMinutes;
     }
@@ -5,8 +5,13 @@ import movieticketbookingsystem.seat.Seat;
 import movieticketbookingsystem.seat.SeatStatus;
 import movieticketbookingsystem.seat.SeatType;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class MovieTicketBookingDemo {
     public static void run() {
@@ -30,20 +35,68 @@ public class MovieTicketBookingDemo {
         bookingSystem.addShow(show1);
         bookingSystem.addShow(show2);
 
+        // What is playing in Location 1 over the next day
+        LocalDateTime from = LocalDateTime.now().minusMinutes(1);
+        for (Movie movie : bookingSystem.findMoviesPlayingInCity("Location 1", from, from.plusDays(1))) {
+            System.out.println("Playing in Location 1: " + movie.getTitle() + " ("
+                    + bookingSystem.findShowsOfMovieInCity(movie.getId(), "Location 1", from, from.plusDays(1)).size()
+                    + " show(s))");
+        }
+
         // Book tickets
         User user = new User("U1", "John Doe", "john@example.com");
         List<Seat> selectedSeats = Arrays.asList(show1.getSeats().get("1-5"), show1.getSeats().get("1-6"));
         Booking booking = bookingSystem.bookTickets(user, show1, selectedSeats);
         if (booking != null) {
             System.out.println("Booking successful. Booking ID: " + booking.getId());
-            bookingSystem.confirmBooking(booking.getId());
+            System.out.println("Booking confirmed: " + bookingSystem.confirmBooking(booking.getId()));
         } else {
             System.out.println("Booking failed. Seats not available.");
         }
 
+        // Ask for four seats together and take the best block the show has left
+        Booking together = bookingSystem.bookBestAvailable(user, show1, 4);
+        System.out.println("Best four seats together: " + together.getSeats().stream().map(Seat::getId).toList());
+        bookingSystem.confirmBooking(together.getId());
+
         // Cancel booking
         bookingSystem.cancelBooking(booking.getId());
         System.out.println("Booking canceled. Booking ID: " + booking.getId());
+
+        // Many users race for the same pair of seats; exactly one claim wins
+        List<Seat> contestedSeats = Arrays.asList(show1.getSeats().get("3-4"), show1.getSeats().get("3-5"));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Booking>> attempts = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            User racer = new User("R" + i, "Racer " + i, "racer" + i + "@example.com");
+            attempts.add(executor.submit(() -> bookingSystem.bookTickets(racer, show1, contestedSeats)));
+        }
+        int winners = 0;
+        for (Future<Booking> attempt : attempts) {
+            try {
+                if (attempt.get() != null) {
+                    winners++;
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        executor.shutdown();
+        System.out.println("Concurrent bookings for the same seats: " + winners + " succeeded");
+
+        // An abandoned checkout: the hold lapses and the seats return to sale
+        bookingSystem.setHoldTtl(Duration.ofMillis(200));
+        List<Seat> abandonedSeats = List.of(show2.getSeats().get("4-4"));
+        Booking abandoned = bookingSystem.bookTickets(user, show2, abandonedSeats);
+        try {
+            Thread.sleep(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Abandoned hold status: " + abandoned.getStatus() + ", seat available again: "
+                + show2.isSeatAvailable(abandonedSeats.get(0)));
+        System.out.println("Late confirmation accepted: " + bookingSystem.confirmBooking(abandoned.getId()));
+        bookingSystem.setHoldTtl(Duration.ofMinutes(10));
     }
 
     private static Map<String, Seat> createSeats(int rows, int columns) {
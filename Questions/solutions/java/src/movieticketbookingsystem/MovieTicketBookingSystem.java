@@ -2,9 +2,12 @@ package movieticketbookingsystem;
 
 import movieticketbookingsystem.booking.Booking;
 import movieticketbookingsystem.booking.BookingStatus;
+import movieticketbookingsystem.booking.HoldExpirer;
+import movieticketbookingsystem.search.ShowIndex;
 import movieticketbookingsystem.seat.Seat;
-import movieticketbookingsystem.seat.SeatStatus;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -15,19 +18,29 @@ import java.util.concurrent.atomic.AtomicLong;
 
 public class MovieTicketBookingSystem {
     private static MovieTicketBookingSystem instance;
-    private final List<Movie> movies;
-    private final List<Theater> theaters;
+    private final Map<String, Movie> movies;
+    private final Map<String, Theater> theaters;
     private final Map<String, Show> shows;
+    private final ShowIndex showIndex;
     private final Map<String, Booking> bookings;
 
     private static final String BOOKING_ID_PREFIX = "BKG";
     private static final AtomicLong bookingCounter = new AtomicLong(0);
+    private static final long HOLD_EXPIRY_TICK_MILLIS = 100;
+    private static final int HOLD_EXPIRY_WHEEL_SLOTS = 8192;
+
+    private final HoldExpirer holdExpirer;
+    private volatile Clock clock = Clock.systemUTC();
+    private volatile Duration holdTtl = Duration.ofMinutes(10);
 
     private MovieTicketBookingSystem() {
-        movies = new ArrayList<>();
-        theaters = new ArrayList<>();
+        movies = new ConcurrentHashMap<>();
+        theaters = new ConcurrentHashMap<>();
         shows = new ConcurrentHashMap<>();
+        showIndex = new ShowIndex();
         bookings = new ConcurrentHashMap<>();
+        holdExpirer = new HoldExpirer(HOLD_EXPIRY_TICK_MILLIS, HOLD_EXPIRY_WHEEL_SLOTS, this::expireHold);
+        holdExpirer.start(() -> clock.millis());
     }
 
     public static synchronized MovieTicketBookingSystem getInstance() {
@@ -38,56 +51,101 @@ public class MovieTicketBookingSystem {
     }
 
     public void addMovie(Movie movie) {
-        movies.add(movie);
+        movies.put(movie.getId(), movie);
     }
 
     public void addTheater(Theater theater) {
-        theaters.add(theater);
+        theaters.put(theater.getId(), theater);
     }
 
     public void addShow(Show show) {
-        shows.put(show.getId(), show);
+        if (shows.putIfAbsent(show.getId(), show) == null) {
+            showIndex.add(show);
+        }
     }
 
     public List<Movie> getMovies() {
-        return movies;
+        return new ArrayList<>(movies.values());
     }
 
     public List<Theater> getTheaters() {
-        return theaters;
+        return new ArrayList<>(theaters.values());
+    }
+
+    public Movie getMovie(String movieId) {
+        return movies.get(movieId);
+    }
+
+    public Theater getTheater(String theaterId) {
+        return theaters.get(theaterId);
+    }
+
+    // Start-time ranges are [from, to); results come back in start time order.
+    public List<Show> findShowsOfMovie(String movieId, LocalDateTime from, LocalDateTime to) {
+        return showIndex.findShowsOfMovie(movieId, from, to);
+    }
+
+    public List<Show> findShowsAtTheater(String theaterId, LocalDateTime from, LocalDateTime to) {
+        return showIndex.findShowsAtTheater(theaterId, from, to);
+    }
+
+    public List<Show> findShowsInCity(String city, LocalDateTime from, LocalDateTime to) {
+        return showIndex.findShowsInCity(city, from, to);
+    }
+
+    public List<Show> findShowsOfMovieInCity(String movieId, String city, LocalDateTime from, LocalDateTime to) {
+        return showIndex.findShowsOfMovieInCity(movieId, city, from, to);
+    }
+
+    public List<Movie> findMoviesPlayingInCity(String city, LocalDateTime from, LocalDateTime to) {
+        return showIndex.findMoviesPlayingInCity(city, from, to);
     }
 
     public Show getShow(String showId) {
         return shows.get(showId);
     }
 
-    public synchronized Booking bookTickets(User user, Show show, List<Seat> selectedSeats) {
-        if (areSeatsAvailable(show, selectedSeats)) {
-            markSeatsAsBooked(show, selectedSeats);
-            double totalPrice = calculateTotalPrice(selectedSeats);
-            String bookingId = generateBookingId();
-            Booking booking = new Booking(bookingId, user, show, selectedSeats, totalPrice, BookingStatus.PENDING);
-            bookings.put(bookingId, booking);
-            return booking;
+    public Booking getBooking(String bookingId) {
+        return bookings.get(bookingId);
+    }
+
+    // How long seats stay held for an unconfirmed booking.
+    public void setHoldTtl(Duration holdTtl) {
+        this.holdTtl = holdTtl;
+    }
+
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    public HoldExpirer getHoldExpirer() {
+        return holdExpirer;
+    }
+
+    // Seats are claimed on the show itself, so bookings for different shows never contend.
+    // The booking starts PENDING with its seats held until confirmed or the hold expires.
+    public Booking bookTickets(User user, Show show, List<Seat> selectedSeats) {
+        if (show.claimSeats(selectedSeats)) {
+            return createHold(user, show, selectedSeats);
         }
         return null;
     }
 
-    private boolean areSeatsAvailable(Show show, List<Seat> selectedSeats) {
-        for (Seat seat : selectedSeats) {
-            Seat showSeat = show.getSeats().get(seat.getId());
-            if (showSeat == null || showSeat.getStatus() != SeatStatus.AVAILABLE) {
-                return false;
-            }
-        }
-        return true;
+    // Holds the best available block of count adjacent seats; null if the show has no such block.
+    public Booking bookBestAvailable(User user, Show show, int count) {
+        List<Seat> seats = show.claimBestAvailable(count);
+        return seats == null ? null : createHold(user, show, seats);
     }
 
-    private void markSeatsAsBooked(Show show, List<Seat> selectedSeats) {
-        for (Seat seat : selectedSeats) {
-            Seat showSeat = show.getSeats().get(seat.getId());
-            showSeat.setStatus(SeatStatus.BOOKED);
-        }
+    private Booking createHold(User user, Show show, List<Seat> heldSeats) {
+        double totalPrice = calculateTotalPrice(heldSeats);
+        String bookingId = generateBookingId();
+        long holdExpiresAt = clock.millis() + holdTtl.toMillis();
+        Booking booking = new Booking(bookingId, user, show, heldSeats, totalPrice, BookingStatus.PENDING,
+                holdExpiresAt);
+        bookings.put(bookingId, booking);
+        holdExpirer.schedule(booking);
+        return booking;
     }
 
     private double calculateTotalPrice(List<Seat> selectedSeats) {
@@ -100,29 +158,51 @@ public class MovieTicketBookingSystem {
         return BOOKING_ID_PREFIX + timestamp + String.format("%06d", bookingNumber);
     }
 
-    public synchronized void confirmBooking(String bookingId) {
+    // Succeeds only while the hold is live; a hold past its deadline is expired on the spot
+    // even if the expirer has not reached it yet.
+    public boolean confirmBooking(String bookingId) {
         Booking booking = bookings.get(bookingId);
-        if (booking != null && booking.getStatus() == BookingStatus.PENDING) {
-            booking.setStatus(BookingStatus.CONFIRMED);
-            // Process payment and send confirmation
-            // ...
+        if (booking == null) {
+            return false;
         }
+        if (clock.millis() >= booking.getHoldExpiresAtMillis()) {
+            expireHold(booking);
+            return false;
+        }
+        if (!booking.compareAndSetStatus(BookingStatus.PENDING, BookingStatus.CONFIRMED)) {
+            return false;
+        }
+        booking.getShow().markSeatsBooked(booking.getSeats());
+        // Process payment and send confirmation
+        // ...
+        return true;
     }
 
-    public synchronized void cancelBooking(String bookingId) {
+    private void expireHold(Booking booking) {
+        if (booking.compareAndSetStatus(BookingStatus.PENDING, BookingStatus.EXPIRED)) {
+            booking.getShow().releaseSeats(booking.getSeats());
+        }
+    }
+
+    public void cancelBooking(String bookingId) {
         Booking booking = bookings.get(bookingId);
-        if (booking != null && booking.getStatus() != BookingStatus.CANCELLED) {
-            booking.setStatus(BookingStatus.CANCELLED);
-            markSeatsAsAvailable(booking.getShow(), booking.getSeats());
+        if (booking != null && cancel(booking)) {
+            booking.getShow().releaseSeats(booking.getSeats());
             // Process refund and send cancellation notification
             // ...
         }
     }
 
-    private void markSeatsAsAvailable(Show show, List<Seat> seats) {
-        for (Seat seat : seats) {
-            Seat showSeat = show.getSeats().get(seat.getId());
-            showSeat.setStatus(SeatStatus.AVAILABLE);
+    // Only the thread that moves the booking to CANCELLED releases its seats.
+    private boolean cancel(Booking booking) {
+        while (true) {
+            BookingStatus current = booking.getStatus();
+            if (current == BookingStatus.CANCELLED || current == BookingStatus.EXPIRED) {
+                return false;
+            }
+            if (booking.compareAndSetStatus(current, BookingStatus.CANCELLED)) {
+                return true;
+            }
         }
     }
 }
@@ -1,8 +1,13 @@
 package movieticketbookingsystem;
 
 import movieticketbookingsystem.seat.Seat;
+import movieticketbookingsystem.seat.SeatMap;
+import movieticketbookingsystem.seat.SeatStatus;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 public class Show {
@@ -12,6 +17,7 @@ public class Show {
     private final LocalDateTime startTime;
     private final LocalDateTime endTime;
     private final Map<String, Seat> seats;
+    private final SeatMap seatMap;
 
     public Show(String id, Movie movie, Theater theater, LocalDateTime startTime, LocalDateTime endTime, Map<String, Seat> seats) {
         this.id = id;
@@ -20,6 +26,78 @@ public class Show {
         this.startTime = startTime;
         this.endTime = endTime;
         this.seats = seats;
+        this.seatMap = new SeatMap(seats.values());
+    }
+
+    // Atomically holds all of the given seats, or none of them if any is already taken.
+    public boolean claimSeats(List<Seat> selectedSeats) {
+        int[] indices = indicesOf(selectedSeats);
+        if (indices == null || !seatMap.tryClaim(indices)) {
+            return false;
+        }
+        for (int index : indices) {
+            seatMap.seatAt(index).setStatus(SeatStatus.HELD);
+        }
+        return true;
+    }
+
+    // Holds the best available block of adjacent seats in one row, or returns null if none is free.
+    public List<Seat> claimBestAvailable(int count) {
+        int[] block = seatMap.claimBestBlock(count);
+        if (block == null) {
+            return null;
+        }
+        List<Seat> claimed = new ArrayList<>(block.length);
+        for (int index : block) {
+            Seat seat = seatMap.seatAt(index);
+            seat.setStatus(SeatStatus.HELD);
+            claimed.add(seat);
+        }
+        return claimed;
+    }
+
+    // Turns held seats into booked ones; availability is unchanged, only the displayed state.
+    public void markSeatsBooked(List<Seat> heldSeats) {
+        for (Seat seat : heldSeats) {
+            int index = seatMap.indexOf(seat.getId());
+            if (index >= 0) {
+                seatMap.seatAt(index).setStatus(SeatStatus.BOOKED);
+            }
+        }
+    }
+
+    public void releaseSeats(List<Seat> claimedSeats) {
+        int[] indices = indicesOf(claimedSeats);
+        if (indices == null) {
+            return;
+        }
+        for (int index : indices) {
+            seatMap.seatAt(index).setStatus(SeatStatus.AVAILABLE);
+        }
+        seatMap.release(indices);
+    }
+
+    public boolean isSeatAvailable(Seat seat) {
+        int index = seatMap.indexOf(seat.getId());
+        return index >= 0 && seatMap.isAvailable(index);
+    }
+
+    // Sorted bitmap indices, or null if a seat is unknown or listed twice.
+    private int[] indicesOf(List<Seat> selectedSeats) {
+        int[] indices = new int[selectedSeats.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = seatMap.indexOf(selectedSeats.get(i).getId());
+            if (indices[i] < 0) {
+                return null;
+            }
+        }
+        Arrays.sort(indices);
+        for (int i = 1; i < indices.length; i++) {
+            if (indices[i] == indices[i - 1]) {
+                return null;
+            }
+        }
+        return indices;
     }
 
     public String getId() {
@@ -45,4 +123,8 @@ public class Show {
     public Map<String, Seat> getSeats() {
         return seats;
     }
+
+    public SeatMap getSeatMap() {
+        return seatMap;
+    }
 }
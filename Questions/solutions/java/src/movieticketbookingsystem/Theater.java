@@ -14,4 +14,22 @@ public class Theater {
         this.location = location;
         this.shows = shows;
     }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    // The theater's location is the city it is searched under.
+    public String getCity() {
+        return location;
+    }
+
 }
@@ -5,6 +5,7 @@ import movieticketbookingsystem.User;
 import movieticketbookingsystem.seat.Seat;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Booking {
     private final String id;
@@ -12,19 +13,23 @@ public class Booking {
     private final Show show;
     private final List<Seat> seats;
     private final double totalPrice;
-    private BookingStatus status;
+    private final AtomicReference<BookingStatus> status;
+    private final long holdExpiresAtMillis;
 
-    public Booking(String id, User user, Show show, List<Seat> seats, double totalPrice, BookingStatus status) {
+    public Booking(String id, User user, Show show, List<Seat> seats, double totalPrice, BookingStatus status,
+                   long holdExpiresAtMillis) {
         this.id = id;
         this.user = user;
         this.show = show;
         this.seats = seats;
         this.totalPrice = totalPrice;
-        this.status = status;
+        this.status = new AtomicReference<>(status);
+        this.holdExpiresAtMillis = holdExpiresAtMillis;
     }
 
-    public void setStatus(BookingStatus status) {
-        this.status = status;
+    // Moves the booking from expected to target; false if another thread changed it first.
+    public boolean compareAndSetStatus(BookingStatus expected, BookingStatus target) {
+        return status.compareAndSet(expected, target);
     }
 
     public String getId() {
@@ -47,7 +52,12 @@ public class Booking {
         return totalPrice;
     }
 
+    // While PENDING the seats are only held; the hold lapses at this instant unless confirmed.
+    public long getHoldExpiresAtMillis() {
+        return holdExpiresAtMillis;
+    }
+
     public BookingStatus getStatus() {
-        return status;
+        return status.get();
     }
 }
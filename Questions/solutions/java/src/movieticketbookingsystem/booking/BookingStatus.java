@@ -3,5 +3,6 @@ package movieticketbookingsystem.booking;
 public enum BookingStatus {
     PENDING,
     CONFIRMED,
-    CANCELLED
+    CANCELLED,
+    EXPIRED
 }
@@ -0,0 +1,105 @@
+package movieticketbookingsystem.booking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+// Hashed timer wheel for seat holds. Scheduling is a lock-free enqueue; the expiring thread
+// moves new holds into the wheel slot of the first tick at or after their deadline and, on
+// every tick, hands the holds in the current slot whose deadline has passed to the expiry
+// callback in one sweep. A hold is never expired before its deadline, and at most one tick after.
+// Holds that are confirmed or cancelled are not removed from the wheel; the callback simply
+// finds them no longer pending, which keeps confirm and cancel O(1).
+public class HoldExpirer {
+    private final long tickMillis;
+    private final List<List<Booking>> wheel;
+    private final int mask;
+    private final Queue<Booking> incoming = new ConcurrentLinkedQueue<>();
+    private final Consumer<Booking> onExpire;
+    private long processedTick = Long.MIN_VALUE;
+    private volatile boolean running;
+    private Thread thread;
+
+    public HoldExpirer(long tickMillis, int wheelSize, Consumer<Booking> onExpire) {
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.wheel = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            wheel.add(new ArrayList<>());
+        }
+        this.mask = size - 1;
+        this.onExpire = onExpire;
+    }
+
+    public void schedule(Booking booking) {
+        incoming.add(booking);
+    }
+
+    // Expires every hold whose deadline is at or before nowMillis. Returns how many holds were
+    // handed to the callback.
+    public synchronized int advanceTo(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        if (processedTick == Long.MIN_VALUE) {
+            processedTick = targetTick - 1;
+        }
+        Booking booking;
+        while ((booking = incoming.poll()) != null) {
+            long deadlineTick = Math.floorDiv(booking.getHoldExpiresAtMillis() + tickMillis - 1, tickMillis);
+            long tick = Math.max(deadlineTick, processedTick + 1);
+            wheel.get((int) (tick & mask)).add(booking);
+        }
+        if (targetTick <= processedTick) {
+            return 0;
+        }
+        // After a long pause every slot is due at most once; the deadline check below still
+        // keeps holds that belong to a later rotation or are not due yet.
+        long from = Math.max(processedTick + 1, targetTick - wheel.size() + 1);
+        int expired = 0;
+        for (long tick = from; tick <= targetTick; tick++) {
+            List<Booking> slot = wheel.get((int) (tick & mask));
+            for (int i = slot.size() - 1; i >= 0; i--) {
+                Booking held = slot.get(i);
+                if (held.getHoldExpiresAtMillis() <= nowMillis) {
+                    Booking last = slot.remove(slot.size() - 1);
+                    if (i < slot.size()) {
+                        slot.set(i, last);
+                    }
+                    onExpire.accept(held);
+                    expired++;
+                }
+            }
+        }
+        processedTick = targetTick;
+        return expired;
+    }
+
+    public synchronized void start(LongSupplier nowMillis) {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(() -> {
+            while (running) {
+                advanceTo(nowMillis.getAsLong());
+                try {
+                    Thread.sleep(tickMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }, "hold-expirer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+}
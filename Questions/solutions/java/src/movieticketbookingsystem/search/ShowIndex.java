@@ -0,0 +1,83 @@
+package movieticketbookingsystem.search;
+
+import movieticketbookingsystem.Movie;
+import movieticketbookingsystem.Show;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Secondary indexes over shows, each a start-time-ordered skip list per key (movie, theater,
+// city, and movie within a city), so every query is a hash lookup plus a range scan:
+// O(log n + k) for k results. Safe for concurrent adds and queries.
+public class ShowIndex {
+    private final NavigableMap<ShowTimeKey, Show> byStartTime = new ConcurrentSkipListMap<>();
+    private final Map<String, NavigableMap<ShowTimeKey, Show>> byMovie = new ConcurrentHashMap<>();
+    private final Map<String, NavigableMap<ShowTimeKey, Show>> byTheater = new ConcurrentHashMap<>();
+    private final Map<String, NavigableMap<ShowTimeKey, Show>> byCity = new ConcurrentHashMap<>();
+    private final Map<String, NavigableMap<ShowTimeKey, Show>> byMovieInCity = new ConcurrentHashMap<>();
+
+    public void add(Show show) {
+        ShowTimeKey key = new ShowTimeKey(show.getStartTime(), show.getId());
+        String movieId = show.getMovie().getId();
+        String city = show.getTheater().getCity();
+        byStartTime.put(key, show);
+        postingsFor(byMovie, movieId).put(key, show);
+        postingsFor(byTheater, show.getTheater().getId()).put(key, show);
+        postingsFor(byCity, city).put(key, show);
+        postingsFor(byMovieInCity, movieInCity(movieId, city)).put(key, show);
+    }
+
+    // All ranges below are [from, to) on start time, in start time order.
+    public List<Show> findShows(LocalDateTime from, LocalDateTime to) {
+        return range(byStartTime, from, to);
+    }
+
+    public List<Show> findShowsOfMovie(String movieId, LocalDateTime from, LocalDateTime to) {
+        return range(byMovie.get(movieId), from, to);
+    }
+
+    public List<Show> findShowsAtTheater(String theaterId, LocalDateTime from, LocalDateTime to) {
+        return range(byTheater.get(theaterId), from, to);
+    }
+
+    public List<Show> findShowsInCity(String city, LocalDateTime from, LocalDateTime to) {
+        return range(byCity.get(city), from, to);
+    }
+
+    public List<Show> findShowsOfMovieInCity(String movieId, String city, LocalDateTime from, LocalDateTime to) {
+        return range(byMovieInCity.get(movieInCity(movieId, city)), from, to);
+    }
+
+    // Distinct movies with at least one show in the city in the range, ordered by their first show.
+    public List<Movie> findMoviesPlayingInCity(String city, LocalDateTime from, LocalDateTime to) {
+        Map<String, Movie> movies = new LinkedHashMap<>();
+        for (Show show : findShowsInCity(city, from, to)) {
+            movies.putIfAbsent(show.getMovie().getId(), show.getMovie());
+        }
+        return new ArrayList<>(movies.values());
+    }
+
+    private static NavigableMap<ShowTimeKey, Show> postingsFor(Map<String, NavigableMap<ShowTimeKey, Show>> index,
+                                                               String key) {
+        return index.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>());
+    }
+
+    private static List<Show> range(NavigableMap<ShowTimeKey, Show> postings, LocalDateTime from, LocalDateTime to) {
+        if (postings == null || !from.isBefore(to)) {
+            return new ArrayList<>();
+        }
+        Collection<Show> shows = postings.subMap(ShowTimeKey.bound(from), true, ShowTimeKey.bound(to), false).values();
+        return new ArrayList<>(shows);
+    }
+
+    private static String movieInCity(String movieId, String city) {
+        return movieId + '\u0000' + city;
+    }
+}
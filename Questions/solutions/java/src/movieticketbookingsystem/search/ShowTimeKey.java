@@ -0,0 +1,41 @@
+package movieticketbookingsystem.search;
+
+import java.time.LocalDateTime;
+
+// Orders shows by start time, then id, so shows starting at the same time stay distinct.
+// A key with an empty id sorts before every real show at that time and is used as a range bound.
+class ShowTimeKey implements Comparable<ShowTimeKey> {
+    private final LocalDateTime startTime;
+    private final String showId;
+
+    ShowTimeKey(LocalDateTime startTime, String showId) {
+        this.startTime = startTime;
+        this.showId = showId;
+    }
+
+    static ShowTimeKey bound(LocalDateTime time) {
+        return new ShowTimeKey(time, "");
+    }
+
+    @Override
+    public int compareTo(ShowTimeKey other) {
+        int byTime = startTime.compareTo(other.startTime);
+        return byTime != 0 ? byTime : showId.compareTo(other.showId);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ShowTimeKey other)) {
+            return false;
+        }
+        return startTime.equals(other.startTime) && showId.equals(other.showId);
+    }
+
+    @Override
+    public int hashCode() {
+        return startTime.hashCode() * 31 + showId.hashCode();
+    }
+}
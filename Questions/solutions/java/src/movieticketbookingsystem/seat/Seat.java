@@ -6,7 +6,8 @@ public class Seat {
     private final int column;
     private final SeatType type;
     private final double price;
-    private SeatStatus status;
+    // Display copy of the seat's state; the show's SeatMap is the source of truth.
+    private volatile SeatStatus status;
 
     public Seat(String id, int row, int column, SeatType type, double price, SeatStatus status) {
         this.id = id;
@@ -0,0 +1,213 @@
+package movieticketbookingsystem.seat;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Availability of one show's seats as a bitmap, one bit per seat (1 = taken), with seats
+// numbered row by row. A multi-seat claim sets its bits word by word with compare-and-set and
+// undoes the words it already took if any seat turns out to be taken, so claims on the same
+// show never lock and claims on different shows never touch shared state.
+public class SeatMap {
+    // Largest block findBestBlock can search for; a block must fit one 64-bit window.
+    public static final int MAX_BLOCK_SIZE = 64;
+    private static final int MAX_CLAIM_ATTEMPTS = 8;
+
+    private final Seat[] seats;
+    private final Map<String, Integer> indexById;
+    private final AtomicLongArray taken;
+    // rowStarts[r] is the first seat index of the r-th row; the last entry is the seat count.
+    private final int[] rowStarts;
+    // Bit i is set when seat i + 1 sits directly next to seat i in the same row.
+    private final long[] adjacent;
+    // Prefix sums of seat quality, so any block's score is one subtraction.
+    private final double[] scorePrefix;
+
+    public SeatMap(Collection<Seat> showSeats) {
+        seats = showSeats.toArray(new Seat[0]);
+        Arrays.sort(seats, Comparator.comparingInt(Seat::getRow).thenComparingInt(Seat::getColumn));
+        indexById = new HashMap<>();
+        for (int i = 0; i < seats.length; i++) {
+            indexById.put(seats[i].getId(), i);
+        }
+        // Seats that come in booked or held start out taken, so they can never be claimed again.
+        long[] initiallyTaken = new long[(seats.length + 63) >>> 6];
+        for (int i = 0; i < seats.length; i++) {
+            if (seats[i].getStatus() != SeatStatus.AVAILABLE) {
+                initiallyTaken[i >>> 6] |= 1L << i;
+            }
+        }
+        taken = new AtomicLongArray(initiallyTaken);
+
+        int rows = 0;
+        for (int i = 0; i < seats.length; i++) {
+            if (i == 0 || seats[i].getRow() != seats[i - 1].getRow()) {
+                rows++;
+            }
+        }
+        rowStarts = new int[rows + 1];
+        adjacent = new long[taken.length()];
+        int row = 0;
+        for (int i = 0; i < seats.length; i++) {
+            if (i == 0 || seats[i].getRow() != seats[i - 1].getRow()) {
+                rowStarts[row++] = i;
+            } else if (seats[i].getColumn() == seats[i - 1].getColumn() + 1) {
+                adjacent[(i - 1) >>> 6] |= 1L << (i - 1);
+            }
+        }
+        rowStarts[rows] = seats.length;
+        scorePrefix = new double[seats.length + 1];
+        for (int r = 0; r < rows; r++) {
+            for (int i = rowStarts[r]; i < rowStarts[r + 1]; i++) {
+                scorePrefix[i + 1] = scorePrefix[i] + quality(r, rows, i - rowStarts[r], rowStarts[r + 1] - rowStarts[r]);
+            }
+        }
+    }
+
+    // Seats near the middle of their row, about two thirds of the way back, score highest.
+    private static double quality(int row, int rows, int position, int rowLength) {
+        double across = rowLength <= 1 ? 0 : (position - (rowLength - 1) / 2.0) / rowLength;
+        double depth = rows <= 1 ? 0 : (row - (rows - 1) * 2.0 / 3.0) / rows;
+        return 1.0 - across * across - 0.5 * depth * depth;
+    }
+
+    public int size() {
+        return seats.length;
+    }
+
+    public Seat seatAt(int index) {
+        return seats[index];
+    }
+
+    // Returns -1 for a seat that is not part of this show.
+    public int indexOf(String seatId) {
+        Integer index = indexById.get(seatId);
+        return index == null ? -1 : index;
+    }
+
+    public boolean isAvailable(int index) {
+        return (taken.get(index >>> 6) & (1L << index)) == 0;
+    }
+
+    public int getAvailableCount() {
+        int available = seats.length;
+        for (int word = 0; word < taken.length(); word++) {
+            available -= Long.bitCount(taken.get(word));
+        }
+        return available;
+    }
+
+    // Claims every seat or none. Indices must be sorted and distinct.
+    public boolean tryClaim(int[] indices) {
+        int i = 0;
+        while (i < indices.length) {
+            int word = indices[i] >>> 6;
+            long mask = 0;
+            int groupStart = i;
+            while (i < indices.length && indices[i] >>> 6 == word) {
+                mask |= 1L << indices[i];
+                i++;
+            }
+            while (true) {
+                long current = taken.get(word);
+                if ((current & mask) != 0) {
+                    releaseRange(indices, 0, groupStart);
+                    return false;
+                }
+                if (taken.compareAndSet(word, current, current | mask)) {
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Highest-scoring run of count adjacent free seats in one row, as sorted seat indices, or
+    // null if there is none. Each row is scanned 64 seats at a time with shift-and over the
+    // free and adjacency bitmaps, so a search costs a few word operations per row. The result
+    // is a snapshot: claim it with tryClaim, or use claimBestBlock to do both.
+    public int[] findBestBlock(int count) {
+        if (count <= 0 || count > MAX_BLOCK_SIZE) {
+            return null;
+        }
+        int bestStart = -1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int r = 0; r + 1 < rowStarts.length; r++) {
+            int rowEnd = rowStarts[r + 1];
+            for (int windowStart = rowStarts[r]; windowStart + count <= rowEnd;
+                 windowStart += MAX_BLOCK_SIZE - count + 1) {
+                int length = Math.min(MAX_BLOCK_SIZE, rowEnd - windowStart);
+                long lengthMask = length == 64 ? -1L : (1L << length) - 1;
+                long free = ~bitsAt(windowStart, true) & lengthMask;
+                long linked = bitsAt(windowStart, false) & lengthMask;
+                long starts = free;
+                for (int k = 1; k < count && starts != 0; k++) {
+                    starts &= (free >>> k) & (linked >>> (k - 1));
+                }
+                while (starts != 0) {
+                    int start = windowStart + Long.numberOfTrailingZeros(starts);
+                    starts &= starts - 1;
+                    double score = scorePrefix[start + count] - scorePrefix[start];
+                    if (score > bestScore) {
+                        bestScore = score;
+                        bestStart = start;
+                    }
+                }
+            }
+        }
+        if (bestStart < 0) {
+            return null;
+        }
+        int[] block = new int[count];
+        for (int i = 0; i < count; i++) {
+            block[i] = bestStart + i;
+        }
+        return block;
+    }
+
+    // Finds and claims the best block in one call, searching again if another claim takes part
+    // of the chosen block first. Returns the claimed indices, or null if no block is available.
+    public int[] claimBestBlock(int count) {
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            int[] block = findBestBlock(count);
+            if (block == null) {
+                return null;
+            }
+            if (tryClaim(block)) {
+                return block;
+            }
+        }
+        return null;
+    }
+
+    // 64 bits of the taken or adjacency bitmap starting at the given seat index.
+    private long bitsAt(int from, boolean ofTaken) {
+        int word = from >>> 6;
+        int offset = from & 63;
+        long bits = (ofTaken ? taken.get(word) : adjacent[word]) >>> offset;
+        if (offset != 0 && word + 1 < adjacent.length) {
+            bits |= (ofTaken ? taken.get(word + 1) : adjacent[word + 1]) << (64 - offset);
+        }
+        return bits;
+    }
+
+    public void release(int[] indices) {
+        releaseRange(indices, 0, indices.length);
+    }
+
+    private void releaseRange(int[] indices, int from, int to) {
+        int i = from;
+        while (i < to) {
+            int word = indices[i] >>> 6;
+            long mask = 0;
+            while (i < to && indices[i] >>> 6 == word) {
+                mask |= 1L << indices[i];
+                i++;
+            }
+            taken.getAndAccumulate(word, mask, (current, bits) -> current & ~bits);
+        }
+    }
+}
@@ -2,5 +2,6 @@ package movieticketbookingsystem.seat;
 
 public enum SeatStatus {
     AVAILABLE,
+    HELD,
     BOOKED
 }
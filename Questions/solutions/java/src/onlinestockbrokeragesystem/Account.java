@@ -1,28 +1,92 @@
 package onlinestockbrokeragesystem;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 public class Account {
     private final String accountId;
     private final User user;
-    private double balance;
+    // Total cash and the part of it not held for open buy orders, in minor units. Debits take
+    // from available first and credits add to balance first, so available never exceeds balance.
+    private final AtomicLong balance;
+    private final AtomicLong available;
     private final Portfolio portfolio;
+    private volatile StockBroker broker;
 
     public Account(String accountId, User user, double initialBalance) {
         this.accountId = accountId;
         this.user = user;
-        this.balance = initialBalance;
+        this.balance = new AtomicLong(Price.toMinorUnits(initialBalance));
+        this.available = new AtomicLong(balance.get());
         this.portfolio = new Portfolio(this);
     }
 
-    public synchronized void deposit(double amount) {
-        balance += amount;
+    public void deposit(double amount) {
+        depositMinorUnits(Price.toMinorUnits(amount));
+    }
+
+    public void withdraw(double amount) {
+        withdrawMinorUnits(Price.toMinorUnits(amount));
+    }
+
+    // On an account opened by a StockBroker, cash moves go through the broker so they are
+    // journaled before they change the balance.
+    public void depositMinorUnits(long amount) {
+        StockBroker owner = broker;
+        if (owner != null) {
+            owner.depositCashMinorUnits(this, amount);
+        } else {
+            credit(amount);
+        }
     }
 
-    public synchronized void withdraw(double amount) {
-        if (balance >= amount) {
-            balance -= amount;
+    public void withdrawMinorUnits(long amount) {
+        StockBroker owner = broker;
+        if (owner != null) {
+            owner.withdrawCashMinorUnits(this, amount);
         } else {
+            debit(amount);
+        }
+    }
+
+    void attachTo(StockBroker broker) {
+        this.broker = broker;
+    }
+
+    // Applies a cash move directly, for settlement, replay and the broker once it has journaled it.
+    void credit(long amount) {
+        balance.addAndGet(amount);
+        available.addAndGet(amount);
+    }
+
+    void debit(long amount) {
+        if (!tryReserve(amount)) {
             throw new InsufficientFundsException("Insufficient funds in the account.");
         }
+        balance.addAndGet(-amount);
+    }
+
+    // Holds cash for a buy order at entry; a single compare-and-set when uncontended.
+    boolean tryReserve(long amount) {
+        while (true) {
+            long current = available.get();
+            if (current < amount) {
+                return false;
+            }
+            if (available.compareAndSet(current, current - amount)) {
+                return true;
+            }
+        }
+    }
+
+    void release(long amount) {
+        available.addAndGet(amount);
+    }
+
+    // Pays for a fill out of cash reserved at the order's limit; any price improvement
+    // becomes available again.
+    void settleReserved(long reserved, long cost) {
+        balance.addAndGet(-cost);
+        available.addAndGet(reserved - cost);
     }
 
     public String getAccountId() {
@@ -33,8 +97,18 @@ public class Account {
         return user;
     }
 
+    // Cash balance in minor units.
+    public long getBalanceMinorUnits() {
+        return balance.get();
+    }
+
+    // Cash not held for open buy orders, in minor units.
+    public long getAvailableMinorUnits() {
+        return available.get();
+    }
+
     public double getBalance() {
-        return balance;
+        return Price.fromMinorUnits(getBalanceMinorUnits());
     }
 
     public Portfolio getPortfolio() {
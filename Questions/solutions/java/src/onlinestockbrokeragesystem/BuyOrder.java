@@ -6,15 +6,33 @@ public class BuyOrder extends Order {
     }
 
     @Override
-    public void execute() {
-        double totalCost = quantity * price;
-        if (account.getBalance() >= totalCost) {
-            account.withdraw(totalCost);
-            // Update portfolio and perform necessary actions
-            status = OrderStatus.EXECUTED;
-        } else {
-            status = OrderStatus.REJECTED;
-            throw new InsufficientFundsException("Insufficient funds to execute the buy order.");
+    public boolean isBuy() {
+        return true;
+    }
+
+    @Override
+    public void reserve(long maxPosition) {
+        int open = getRemainingQuantity();
+        if (!account.getPortfolio().tryReservePendingBuy(stock, open, maxPosition)) {
+            throw new RiskLimitExceededException("Buy order would exceed the position limit.");
         }
+        if (!account.tryReserve(Price.notional(price, open))) {
+            account.getPortfolio().releasePendingBuy(stock, open);
+            throw new InsufficientFundsException("Insufficient funds to place the buy order.");
+        }
+        reserved = true;
+    }
+
+    @Override
+    protected void releaseReservation(int openQuantity) {
+        account.release(Price.notional(price, openQuantity));
+        account.getPortfolio().releasePendingBuy(stock, openQuantity);
+    }
+
+    @Override
+    protected void settle(int fillQuantity, long fillPrice) {
+        account.settleReserved(Price.notional(price, fillQuantity), Price.notional(fillPrice, fillQuantity));
+        account.getPortfolio().addStock(stock, fillQuantity);
+        account.getPortfolio().releasePendingBuy(stock, fillQuantity);
     }
 }
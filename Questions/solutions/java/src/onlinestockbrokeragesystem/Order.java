@@ -5,17 +5,104 @@ public abstract class Order {
     protected final Account account;
     protected final Stock stock;
     protected final int quantity;
-    protected final double price;
-    protected OrderStatus status;
+    protected final long price;
+    protected volatile OrderStatus status;
+    protected int filledQuantity;
+    // Set once cash or shares for the open quantity are held; see reserve().
+    protected boolean reserved;
+    // Stage timestamps (System.nanoTime) written by StockBroker while latency recording is on.
+    long entryNanos;
+    long enqueueNanos;
+    long matchStartNanos;
 
     public Order(String orderId, Account account, Stock stock, int quantity, double price) {
         this.orderId = orderId;
         this.account = account;
         this.stock = stock;
         this.quantity = quantity;
-        this.price = price;
+        this.price = Price.toTicks(price);
         this.status = OrderStatus.PENDING;
     }
 
-    public abstract void execute();
+    public abstract boolean isBuy();
+
+    // Holds what the open quantity could consume (cash at the limit price for buys, shares for
+    // sells), so settlement can never fail. Throws if the account cannot cover the order or it
+    // would take the position over maxPosition.
+    public abstract void reserve(long maxPosition);
+
+    protected abstract void releaseReservation(int openQuantity);
+
+    // Settles one fill of this order against a counterparty at the given price in ticks.
+    // The fill only counts once settlement has gone through. Settlement draws on the reservation,
+    // so this must only be called on a reserved order (StockBroker refuses fills for any other).
+    public void fill(int fillQuantity, long fillPrice) {
+        settle(fillQuantity, fillPrice);
+        filledQuantity += fillQuantity;
+        status = filledQuantity == quantity ? OrderStatus.EXECUTED : OrderStatus.PARTIALLY_FILLED;
+    }
+
+    // Restores the progress of a partially filled order when it is reloaded from a snapshot.
+    public void restoreFilledQuantity(int filled) {
+        filledQuantity = filled;
+        status = filled == 0 ? OrderStatus.PENDING : OrderStatus.PARTIALLY_FILLED;
+    }
+
+    protected abstract void settle(int fillQuantity, long fillPrice);
+
+    public void cancel() {
+        if (reserved) {
+            releaseReservation(getRemainingQuantity());
+            reserved = false;
+        }
+        status = OrderStatus.CANCELLED;
+    }
+
+    public void reject() {
+        if (reserved) {
+            releaseReservation(getRemainingQuantity());
+            reserved = false;
+        }
+        status = OrderStatus.REJECTED;
+    }
+
+    public boolean isReserved() {
+        return reserved;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public Account getAccount() {
+        return account;
+    }
+
+    public Stock getStock() {
+        return stock;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public long getPriceTicks() {
+        return price;
+    }
+
+    public double getPrice() {
+        return Price.toDouble(price);
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public int getFilledQuantity() {
+        return filledQuantity;
+    }
+
+    public int getRemainingQuantity() {
+        return quantity - filledQuantity;
+    }
 }
@@ -2,6 +2,8 @@ package onlinestockbrokeragesystem;
 
 public enum OrderStatus {
     PENDING,
+    PARTIALLY_FILLED,
     EXECUTED,
+    CANCELLED,
     REJECTED
 }
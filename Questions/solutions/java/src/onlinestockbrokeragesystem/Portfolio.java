@@ -1,38 +1,127 @@
 package onlinestockbrokeragesystem;
 
+import java.util.Arrays;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+// Positions indexed by symbol id. Every update is a single atomic operation on one position,
+// so risk checks and settlement never lock the portfolio; only creating a position does.
 public class Portfolio {
     private final Account account;
-    private final Map<String, Integer> holdings;
+    private volatile Position[] positions;
 
     public Portfolio(Account account) {
         this.account = account;
-        this.holdings = new ConcurrentHashMap<>();
+        this.positions = new Position[16];
     }
 
-    public synchronized void addStock(Stock stock, int quantity) {
-        holdings.put(stock.getSymbol(), holdings.getOrDefault(stock.getSymbol(), 0) + quantity);
+    public void addStock(Stock stock, long quantity) {
+        Position position = position(stock);
+        position.quantity.addAndGet(quantity);
+        position.available.addAndGet(quantity);
     }
 
-    public synchronized void removeStock(Stock stock, int quantity) {
-        String symbol = stock.getSymbol();
-        if (holdings.containsKey(symbol)) {
-            int currentQuantity = holdings.get(symbol);
-            if (currentQuantity > quantity) {
-                holdings.put(symbol, currentQuantity - quantity);
-            } else if (currentQuantity == quantity) {
-                holdings.remove(symbol);
-            } else {
-                throw new InsufficientStockException("Insufficient stock quantity in the portfolio.");
-            }
-        } else {
+    public void removeStock(Stock stock, long quantity) {
+        Position position = position(stock);
+        if (position.quantity.get() == 0) {
             throw new InsufficientStockException("Stock not found in the portfolio.");
         }
+        if (!tryDecrement(position.available, quantity)) {
+            throw new InsufficientStockException("Insufficient stock quantity in the portfolio.");
+        }
+        position.quantity.addAndGet(-quantity);
+    }
+
+    public long getQuantity(Stock stock) {
+        Position position = existing(stock.getId());
+        return position == null ? 0 : position.quantity.get();
+    }
+
+    // Shares not held for open sell orders.
+    public long getAvailableQuantity(Stock stock) {
+        Position position = existing(stock.getId());
+        return position == null ? 0 : position.available.get();
+    }
+
+    // Holds shares for a sell order at entry.
+    boolean tryReserve(Stock stock, long quantity) {
+        return tryDecrement(position(stock).available, quantity);
+    }
+
+    void release(Stock stock, long quantity) {
+        position(stock).available.addAndGet(quantity);
+    }
+
+    // Delivers shares that were reserved when the sell order was placed.
+    void settleReserved(Stock stock, long quantity) {
+        position(stock).quantity.addAndGet(-quantity);
+    }
+
+    // Counts shares of an open buy order against the position limit.
+    boolean tryReservePendingBuy(Stock stock, long quantity, long maxPosition) {
+        Position position = position(stock);
+        while (true) {
+            long pending = position.pendingBuys.get();
+            if (position.quantity.get() + pending + quantity > maxPosition) {
+                return false;
+            }
+            if (position.pendingBuys.compareAndSet(pending, pending + quantity)) {
+                return true;
+            }
+        }
     }
 
-    public Map<String, Integer> getHoldings() {
-        return holdings;
+    void releasePendingBuy(Stock stock, long quantity) {
+        position(stock).pendingBuys.addAndGet(-quantity);
+    }
+
+    // Snapshot keyed by symbol, for display and reporting.
+    public Map<String, Long> getHoldings() {
+        Map<String, Long> view = new TreeMap<>();
+        Position[] current = positions;
+        for (int symbolId = 0; symbolId < current.length; symbolId++) {
+            Position position = current[symbolId];
+            if (position != null && position.quantity.get() != 0) {
+                view.put(SymbolRegistry.symbolOf(symbolId), position.quantity.get());
+            }
+        }
+        return view;
+    }
+
+    private static boolean tryDecrement(AtomicLong counter, long amount) {
+        while (true) {
+            long current = counter.get();
+            if (current < amount) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - amount)) {
+                return true;
+            }
+        }
+    }
+
+    private Position existing(int symbolId) {
+        Position[] current = positions;
+        return symbolId < current.length ? current[symbolId] : null;
+    }
+
+    private Position position(Stock stock) {
+        Position position = existing(stock.getId());
+        return position != null ? position : createPosition(stock.getId());
+    }
+
+    private synchronized Position createPosition(int symbolId) {
+        Position[] current = positions;
+        if (symbolId < current.length && current[symbolId] != null) {
+            return current[symbolId];
+        }
+        Position[] grown = symbolId < current.length
+                ? current.clone()
+                : Arrays.copyOf(current, Math.max(symbolId + 1, current.length * 2));
+        Position position = new Position();
+        grown[symbolId] = position;
+        positions = grown;
+        return position;
     }
 }
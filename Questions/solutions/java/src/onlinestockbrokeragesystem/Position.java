@@ -0,0 +1,11 @@
+package onlinestockbrokeragesystem;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Holding of one symbol. Shares held for open sell orders are not available; shares still to
+// arrive from open buy orders are counted as pending so position limits see them.
+class Position {
+    final AtomicLong quantity = new AtomicLong();
+    final AtomicLong available = new AtomicLong();
+    final AtomicLong pendingBuys = new AtomicLong();
+}
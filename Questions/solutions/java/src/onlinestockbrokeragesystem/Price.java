@@ -0,0 +1,33 @@
+package onlinestockbrokeragesystem;
+
+// Fixed-point representation used throughout the brokerage. Prices are whole ticks
+// and cash is whole minor units (cents); doubles only appear at API boundaries.
+public final class Price {
+    public static final long TICKS_PER_UNIT = 100;
+    public static final long MINOR_UNITS_PER_UNIT = 100;
+
+    private Price() {
+    }
+
+    public static long toTicks(double price) {
+        return Math.round(price * TICKS_PER_UNIT);
+    }
+
+    public static double toDouble(long ticks) {
+        return (double) ticks / TICKS_PER_UNIT;
+    }
+
+    public static long toMinorUnits(double amount) {
+        return Math.round(amount * MINOR_UNITS_PER_UNIT);
+    }
+
+    public static double fromMinorUnits(long minorUnits) {
+        return (double) minorUnits / MINOR_UNITS_PER_UNIT;
+    }
+
+    // Cash value in minor units of trading the quantity at the price; exact for any tick size
+    // that divides the minor unit, and overflow-checked.
+    public static long notional(long priceTicks, long quantity) {
+        return Math.multiplyExact(Math.multiplyExact(priceTicks, quantity), MINOR_UNITS_PER_UNIT) / TICKS_PER_UNIT;
+    }
+}
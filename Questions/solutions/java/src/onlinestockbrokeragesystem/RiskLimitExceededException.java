@@ -0,0 +1,9 @@
+package onlinestockbrokeragesystem;
+
+public class RiskLimitExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public RiskLimitExceededException(String message) {
+        super(message);
+    }
+}
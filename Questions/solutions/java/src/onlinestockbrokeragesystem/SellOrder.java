@@ -6,11 +6,26 @@ public class SellOrder extends Order {
     }
 
     @Override
-    public void execute() {
-        // Check if the user has sufficient quantity of the stock to sell
-        // Update portfolio and perform necessary actions
-        double totalProceeds = quantity * price;
-        account.deposit(totalProceeds);
-        status = OrderStatus.EXECUTED;
+    public boolean isBuy() {
+        return false;
+    }
+
+    @Override
+    public void reserve(long maxPosition) {
+        if (!account.getPortfolio().tryReserve(stock, getRemainingQuantity())) {
+            throw new InsufficientStockException("Insufficient stock quantity to place the sell order.");
+        }
+        reserved = true;
+    }
+
+    @Override
+    protected void releaseReservation(int openQuantity) {
+        account.getPortfolio().release(stock, openQuantity);
+    }
+
+    @Override
+    protected void settle(int fillQuantity, long fillPrice) {
+        account.getPortfolio().settleReserved(stock, fillQuantity);
+        account.credit(Price.notional(fillPrice, fillQuantity));
     }
 }
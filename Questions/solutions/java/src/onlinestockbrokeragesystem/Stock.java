@@ -1,18 +1,28 @@
 package onlinestockbrokeragesystem;
 
 public class Stock {
+    private final int id;
     private final String symbol;
     private final String name;
-    private double price;
+    private volatile long price;
 
     public Stock(String symbol, String name, double price) {
+        this.id = SymbolRegistry.idOf(symbol);
         this.symbol = symbol;
         this.name = name;
-        this.price = price;
+        this.price = Price.toTicks(price);
     }
 
-    public synchronized void updatePrice(double newPrice) {
-        price = newPrice;
+    public void updatePrice(double newPrice) {
+        updatePriceTicks(Price.toTicks(newPrice));
+    }
+
+    public void updatePriceTicks(long newPriceTicks) {
+        price = newPriceTicks;
+    }
+
+    public int getId() {
+        return id;
     }
 
     public String getSymbol() {
@@ -23,7 +33,11 @@ public class Stock {
         return name;
     }
 
-    public double getPrice() {
+    public long getPriceTicks() {
         return price;
     }
+
+    public double getPrice() {
+        return Price.toDouble(price);
+    }
 }
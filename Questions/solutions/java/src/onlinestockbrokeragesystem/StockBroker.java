@@ -1,23 +1,58 @@
 package onlinestockbrokeragesystem;
 
+import onlinestockbrokeragesystem.journal.Journal;
+import onlinestockbrokeragesystem.journal.RecoveryHandler;
+import onlinestockbrokeragesystem.journal.SnapshotLoader;
+import onlinestockbrokeragesystem.journal.SnapshotWriter;
+import onlinestockbrokeragesystem.latency.LatencyStage;
+import onlinestockbrokeragesystem.latency.OrderLatencyRecorder;
+import onlinestockbrokeragesystem.latency.TimedBookListener;
+import onlinestockbrokeragesystem.marketdata.MarketDataPublisher;
+import onlinestockbrokeragesystem.orderbook.MatchingEngine;
+import onlinestockbrokeragesystem.orderbook.OrderListener;
+import onlinestockbrokeragesystem.risk.PreTradeRiskChecker;
+import onlinestockbrokeragesystem.risk.RiskLimits;
+
+import java.nio.file.Path;
 import java.util.Map;
-import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class StockBroker {
+    private static final int JOURNAL_SEGMENT_BYTES = 64 * 1024 * 1024;
+    private static final long JOURNAL_FLUSH_INTERVAL_MILLIS = 5;
+    private static final int MARKET_DATA_BUFFER_BYTES = 1024 * 1024;
+    private static final long MARKET_DATA_SNAPSHOT_INTERVAL_MILLIS = 1000;
+
     private static StockBroker instance;
     private final Map<String, Account> accounts;
     private final Map<String, Stock> stocks;
-    private final Queue<Order> orderQueue;
     private final AtomicInteger accountIdCounter;
+    private final MatchingEngine matchingEngine;
+    private final MarketDataPublisher marketDataPublisher;
+    private volatile PreTradeRiskChecker riskChecker;
+    private final TimedBookListener timedBookListener;
+    private volatile OrderLatencyRecorder latencyRecorder;
+    // Serializes account and stock setup with snapshots, so a snapshot never sees half an update.
+    private final Object adminLock = new Object();
+    private volatile Journal journal;
+    private Path journalDirectory;
+    private ScheduledExecutorService snapshotScheduler;
 
     private StockBroker() {
         accounts = new ConcurrentHashMap<>();
         stocks = new ConcurrentHashMap<>();
-        orderQueue = new ConcurrentLinkedQueue<>();
         accountIdCounter = new AtomicInteger(1);
+        riskChecker = new PreTradeRiskChecker(new RiskLimits());
+        marketDataPublisher = new MarketDataPublisher(MARKET_DATA_BUFFER_BYTES);
+        marketDataPublisher.startSnapshots(MARKET_DATA_SNAPSHOT_INTERVAL_MILLIS);
+        timedBookListener = new TimedBookListener(marketDataPublisher);
+        matchingEngine = new MatchingEngine(this::settleFill, new JournalingOrderListener(), timedBookListener,
+                Runtime.getRuntime().availableProcessors());
     }
 
     public static synchronized StockBroker getInstance() {
@@ -27,10 +62,22 @@ public class StockBroker {
         return instance;
     }
 
+    // Creates a broker independent of the shared instance, e.g. for recovery and benchmarks.
+    public static StockBroker newInstance() {
+        return new StockBroker();
+    }
+
     public void createAccount(User user, double initialBalance) {
-        String accountId = generateAccountId();
-        Account account = new Account(accountId, user, initialBalance);
-        accounts.put(accountId, account);
+        synchronized (adminLock) {
+            String accountId = generateAccountId();
+            Account account = new Account(accountId, user, initialBalance);
+            account.attachTo(this);
+            accounts.put(accountId, account);
+            Journal current = journal;
+            if (current != null) {
+                current.appendCreateAccount(account, user.getUserId(), user.getName(), user.getEmail());
+            }
+        }
     }
 
     public Account getAccount(String accountId) {
@@ -38,32 +85,313 @@ public class StockBroker {
     }
 
     public void addStock(Stock stock) {
-        stocks.put(stock.getSymbol(), stock);
+        synchronized (adminLock) {
+            stocks.put(stock.getSymbol(), stock);
+            Journal current = journal;
+            if (current != null) {
+                current.appendAddStock(stock);
+            }
+        }
     }
 
     public Stock getStock(String symbol) {
         return stocks.get(symbol);
     }
 
-    public void placeOrder(Order order) {
-        orderQueue.offer(order);
-        processOrders();
+    // Credits shares transferred in from outside the broker.
+    public void depositShares(Account account, Stock stock, long quantity) {
+        synchronized (adminLock) {
+            account.getPortfolio().addStock(stock, quantity);
+            Journal current = journal;
+            if (current != null) {
+                current.appendDepositShares(account.getAccountId(), stock.getSymbol(), quantity);
+            }
+        }
     }
 
-    private void processOrders() {
-        while (!orderQueue.isEmpty()) {
-            Order order = orderQueue.poll();
-            try {
-                order.execute();
-            } catch (InsufficientFundsException | InsufficientStockException e) {
-                // Handle exception and notify user
-                System.out.println("Order failed: " + e.getMessage());
+    // Cash moves are journaled before they change the balance, so replay rebuilds the cash that
+    // later orders were reserved against. Account.deposit and withdraw on this broker's accounts
+    // land here too.
+    public void depositCash(Account account, double amount) {
+        depositCashMinorUnits(account, Price.toMinorUnits(amount));
+    }
+
+    public void withdrawCash(Account account, double amount) {
+        withdrawCashMinorUnits(account, Price.toMinorUnits(amount));
+    }
+
+    void depositCashMinorUnits(Account account, long amount) {
+        synchronized (adminLock) {
+            Journal current = journal;
+            if (current != null) {
+                current.appendDepositCash(account.getAccountId(), amount);
             }
+            account.credit(amount);
         }
     }
 
+    // The cash is held first, so a withdrawal that cannot be covered never reaches the journal,
+    // and handed back if the journal refuses the record.
+    void withdrawCashMinorUnits(Account account, long amount) {
+        synchronized (adminLock) {
+            if (!account.tryReserve(amount)) {
+                throw new InsufficientFundsException("Insufficient funds in the account.");
+            }
+            Journal current = journal;
+            if (current != null) {
+                try {
+                    current.appendWithdrawCash(account.getAccountId(), amount);
+                } catch (RuntimeException e) {
+                    account.release(amount);
+                    throw e;
+                }
+            }
+            account.settleReserved(amount, amount);
+        }
+    }
+
+    public void setRiskLimits(RiskLimits limits) {
+        riskChecker = new PreTradeRiskChecker(limits);
+    }
+
+    // Records per-stage order latencies into the given recorder; null turns recording off.
+    public void setLatencyRecorder(OrderLatencyRecorder recorder) {
+        latencyRecorder = recorder;
+        timedBookListener.setRecorder(recorder);
+    }
+
+    public OrderLatencyRecorder getLatencyRecorder() {
+        return latencyRecorder;
+    }
+
+    // Pre-trade checks and reservations run on the calling thread; matching happens on the shard
+    // that owns the symbol.
+    public CompletableFuture<Order> placeOrder(Order order) {
+        OrderLatencyRecorder recorder = latencyRecorder;
+        long entry = System.nanoTime();
+        try {
+            riskChecker.check(order, entry);
+        } catch (InsufficientFundsException | InsufficientStockException | RiskLimitExceededException e) {
+            order.reject();
+            // Handle exception and notify user
+            System.out.println("Order failed: " + e.getMessage());
+            return CompletableFuture.completedFuture(order);
+        }
+        if (recorder == null) {
+            return matchingEngine.submit(order);
+        }
+        long checked = System.nanoTime();
+        recorder.record(LatencyStage.RISK_CHECK, checked - entry);
+        order.entryNanos = entry;
+        order.enqueueNanos = checked;
+        CompletableFuture<Order> future = matchingEngine.submit(order);
+        recorder.record(LatencyStage.ENQUEUE, System.nanoTime() - checked);
+        return future;
+    }
+
+    public CompletableFuture<Order> cancelOrder(Order order) {
+        return matchingEngine.cancel(order.getStock().getSymbol(), order.getOrderId());
+    }
+
+    public MatchingEngine getMatchingEngine() {
+        return matchingEngine;
+    }
+
+    public MarketDataPublisher getMarketDataPublisher() {
+        return marketDataPublisher;
+    }
+
+    // Rebuilds state from the latest snapshot and the journal after it, then journals every
+    // change from here on. Must be called before the broker takes any traffic. If recovery
+    // throws, the broker is left partly rebuilt and must be discarded.
+    public void enableJournal(Path directory, long snapshotIntervalMillis) {
+        synchronized (adminLock) {
+            if (journal != null) {
+                throw new IllegalStateException("Journal already enabled");
+            }
+            RecoveryHandler recovery = new Recovery();
+            long snapshotSequence = SnapshotLoader.loadLatest(directory, recovery);
+            long lastSequence = Journal.replay(directory, snapshotSequence, recovery);
+            journalDirectory = directory;
+            journal = Journal.open(directory, lastSequence + 1, JOURNAL_SEGMENT_BYTES, JOURNAL_FLUSH_INTERVAL_MILLIS);
+        }
+        if (snapshotIntervalMillis > 0) {
+            snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "broker-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshotScheduler.scheduleWithFixedDelay(this::takeSnapshot, snapshotIntervalMillis,
+                    snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Writes accounts, holdings and resting orders as of the current journal position, then
+    // drops the journal segments and snapshots it makes redundant.
+    public void takeSnapshot() {
+        synchronized (adminLock) {
+            Journal current = journal;
+            if (current == null) {
+                throw new IllegalStateException("Journal not enabled");
+            }
+            long[] sequence = new long[1];
+            matchingEngine.runWhilePaused(() -> {
+                sequence[0] = current.getLastSequence();
+                try (SnapshotWriter writer = new SnapshotWriter(journalDirectory, sequence[0])) {
+                    stocks.values().forEach(writer::writeStock);
+                    for (Account account : accounts.values()) {
+                        User user = account.getUser();
+                        writer.writeAccount(account, user.getUserId(), user.getName(), user.getEmail());
+                    }
+                    matchingEngine.forEachRestingOrder(writer::writeOrder);
+                    writer.finish();
+                }
+            });
+            current.deleteSegmentsThrough(sequence[0]);
+        }
+    }
+
+    public void shutdown() {
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdown();
+        }
+        matchingEngine.shutdown();
+        marketDataPublisher.stop();
+        Journal current = journal;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    // Both sides settle at the resting (maker) order's price. Every order reaches the book with
+    // its reservation held, so settling cannot run short; an order without one is refused before
+    // either side or the journal is touched, and the book leaves the fill unapplied. The fill is
+    // journaled before either order changes, so a journal that refuses the append leaves both
+    // orders and the book as they were.
+    private void settleFill(Order taker, Order maker, long priceTicks, int quantity) {
+        if (!taker.isReserved() || !maker.isReserved()) {
+            throw new IllegalStateException("Cannot settle a fill for an order without a reservation");
+        }
+        Journal current = journal;
+        if (current != null) {
+            current.appendFill(taker, maker, priceTicks, quantity);
+        }
+        taker.fill(quantity, priceTicks);
+        maker.fill(quantity, priceTicks);
+        taker.getStock().updatePriceTicks(priceTicks);
+    }
+
     private String generateAccountId() {
         int accountId = accountIdCounter.getAndIncrement();
         return "A" + String.format("%03d", accountId);
     }
+
+    // Orders and cancels are journaled on the shard thread right before they touch the book,
+    // so the journal holds each symbol's commands in exactly the order they were applied.
+    private class JournalingOrderListener implements OrderListener {
+        @Override
+        public void onSubmit(Order order) {
+            OrderLatencyRecorder recorder = latencyRecorder;
+            Journal current = journal;
+            if (recorder == null || order.entryNanos == 0) {
+                if (current != null) {
+                    current.appendOrder(order);
+                }
+                return;
+            }
+            long dequeued = System.nanoTime();
+            recorder.record(LatencyStage.QUEUE_WAIT, dequeued - order.enqueueNanos);
+            order.matchStartNanos = dequeued;
+            if (current != null) {
+                current.appendOrder(order);
+                order.matchStartNanos = System.nanoTime();
+                recorder.record(LatencyStage.JOURNAL, order.matchStartNanos - dequeued);
+            }
+        }
+
+        @Override
+        public void onProcessed(Order order) {
+            OrderLatencyRecorder recorder = latencyRecorder;
+            if (recorder != null && order.matchStartNanos != 0) {
+                long processed = System.nanoTime();
+                recorder.record(LatencyStage.MATCH, processed - order.matchStartNanos);
+                recorder.record(LatencyStage.END_TO_END, processed - order.entryNanos);
+            }
+        }
+
+        @Override
+        public void onCancel(String symbol, String orderId) {
+            Journal current = journal;
+            if (current != null) {
+                current.appendCancel(symbol, orderId);
+            }
+        }
+    }
+
+    // Applies snapshot and journal records with journaling still off. Orders are resubmitted one
+    // at a time in journal order, so matching reproduces the original fills.
+    private class Recovery implements RecoveryHandler {
+        @Override
+        public void onAddStock(String symbol, String name, long priceTicks) {
+            stocks.put(symbol, new Stock(symbol, name, Price.toDouble(priceTicks)));
+        }
+
+        @Override
+        public void onCreateAccount(String accountId, String userId, String name, String email,
+                                    long balanceMinorUnits) {
+            Account account = new Account(accountId, new User(userId, name, email), 0.0);
+            account.credit(balanceMinorUnits);
+            account.attachTo(StockBroker.this);
+            accounts.put(accountId, account);
+            int number = Integer.parseInt(accountId.substring(1));
+            accountIdCounter.accumulateAndGet(number + 1, Math::max);
+        }
+
+        @Override
+        public void onDepositShares(String accountId, String symbol, long quantity) {
+            accounts.get(accountId).getPortfolio().addStock(stocks.get(symbol), quantity);
+        }
+
+        @Override
+        public void onDepositCash(String accountId, long amountMinorUnits) {
+            accounts.get(accountId).credit(amountMinorUnits);
+        }
+
+        @Override
+        public void onWithdrawCash(String accountId, long amountMinorUnits) {
+            try {
+                accounts.get(accountId).debit(amountMinorUnits);
+            } catch (InsufficientFundsException e) {
+                throw new IllegalStateException("Recovery failed: withdrawal from account " + accountId
+                        + " could not be applied again (" + e.getMessage() + ")", e);
+            }
+        }
+
+        @Override
+        public void onOrder(String orderId, String accountId, String symbol, boolean buy, int quantity,
+                            int filledQuantity, long priceTicks) {
+            Account account = accounts.get(accountId);
+            Stock stock = stocks.get(symbol);
+            double price = Price.toDouble(priceTicks);
+            Order order = buy
+                    ? new BuyOrder(orderId, account, stock, quantity, price)
+                    : new SellOrder(orderId, account, stock, quantity, price);
+            order.restoreFilledQuantity(filledQuantity);
+            // Limits applied when the order was first accepted; only its reservation is rebuilt.
+            // Replay reproduces the state the order was accepted in, so a shortfall means the
+            // snapshot or journal does not match what was written.
+            try {
+                order.reserve(Long.MAX_VALUE);
+            } catch (InsufficientFundsException | InsufficientStockException e) {
+                throw new IllegalStateException("Recovery failed: order " + orderId + " of account " + accountId
+                        + " could not be reserved again (" + e.getMessage() + ")", e);
+            }
+            matchingEngine.submit(order).join();
+        }
+
+        @Override
+        public void onCancel(String symbol, String orderId) {
+            matchingEngine.cancel(symbol, orderId).join();
+        }
+    }
 }
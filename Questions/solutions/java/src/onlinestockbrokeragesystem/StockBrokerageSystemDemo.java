@@ -1,32 +1,108 @@
 package onlinestockbrokeragesystem;
 
+import onlinestockbrokeragesystem.marketdata.MarketDataHandler;
+import onlinestockbrokeragesystem.marketdata.MarketDataSubscription;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 public class StockBrokerageSystemDemo {
     public static void run() {
         StockBroker stockBroker = StockBroker.getInstance();
+        Path journalDirectory;
+        try {
+            journalDirectory = Files.createTempDirectory("brokerage-journal");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        stockBroker.enableJournal(journalDirectory, 0);
+        MarketDataSubscription topOfBook = stockBroker.getMarketDataPublisher().subscribe(false);
 
-        // Create user and account
+        // Create users and accounts
         User user = new User("U001", "John Doe", "john@example.com");
         stockBroker.createAccount(user, 10000.0);
         Account account = stockBroker.getAccount("A001");
 
+        User seller = new User("U002", "Jane Smith", "jane@example.com");
+        stockBroker.createAccount(seller, 0.0);
+        Account sellerAccount = stockBroker.getAccount("A002");
+        // Cash deposited after opening is journaled like everything else
+        sellerAccount.deposit(1000.0);
+
         // Add stocks to the stock broker
         Stock stock1 = new Stock("AAPL", "Apple Inc.", 150.0);
         Stock stock2 = new Stock("GOOGL", "Alphabet Inc.", 2000.0);
         stockBroker.addStock(stock1);
         stockBroker.addStock(stock2);
+        stockBroker.depositShares(sellerAccount, stock1, 20);
+        stockBroker.depositShares(sellerAccount, stock2, 5);
+
+        // Seller posts asks that rest in the order books
+        stockBroker.placeOrder(new SellOrder("O001", sellerAccount, stock1, 10, 150.0)).join();
+        stockBroker.placeOrder(new SellOrder("O002", sellerAccount, stock2, 2, 2000.0)).join();
+
+        // Place buy orders that cross the resting asks; each call completes once the symbol's shard has matched it
+        Order buyOrder1 = new BuyOrder("O003", account, stock1, 10, 150.0);
+        Order buyOrder2 = new BuyOrder("O004", account, stock2, 2, 2000.0);
+        stockBroker.placeOrder(buyOrder1).join();
+        stockBroker.placeOrder(buyOrder2).join();
 
-        // Place buy orders
-        Order buyOrder1 = new BuyOrder("O001", account, stock1, 10, 150.0);
-        Order buyOrder2 = new BuyOrder("O002", account, stock2, 5, 2000.0);
-        stockBroker.placeOrder(buyOrder1);
-        stockBroker.placeOrder(buyOrder2);
+        // Place a sell order that rests until a buyer crosses it
+        Order sellOrder1 = new SellOrder("O005", account, stock1, 5, 160.0);
+        stockBroker.placeOrder(sellOrder1).join();
+        System.out.println("Sell order status: " + sellOrder1.getStatus());
+        stockBroker.placeOrder(new BuyOrder("O006", sellerAccount, stock1, 5, 160.0)).join();
+        System.out.println("Sell order status: " + sellOrder1.getStatus());
 
-        // Place sell orders
-        Order sellOrder1 = new SellOrder("O003", account, stock1, 5, 160.0);
-        stockBroker.placeOrder(sellOrder1);
+        // Drain the market data the trades above produced
+        topOfBook.poll(new MarketDataHandler() {
+            @Override
+            public void onLevel(int symbolId, long sequence, boolean bid, long priceTicks, long quantity,
+                                int orderCount) {
+            }
+
+            @Override
+            public void onTrade(int symbolId, long sequence, long priceTicks, int quantity) {
+                System.out.println("Trade " + SymbolRegistry.symbolOf(symbolId) + " " + quantity + " @ "
+                        + Price.toDouble(priceTicks));
+            }
+
+            @Override
+            public void onTopOfBook(int symbolId, long sequence, long bidTicks, long bidQuantity, long askTicks,
+                                    long askQuantity) {
+                System.out.println("Top of book " + SymbolRegistry.symbolOf(symbolId) + ": " + bidQuantity + " @ "
+                        + Price.toDouble(bidTicks) + " / " + askQuantity + " @ " + Price.toDouble(askTicks));
+            }
+
+            @Override
+            public void onSnapshot(int symbolId, long sequence, long[] bidTicks, long[] bidQuantities,
+                                   int bidLevels, long[] askTicks, long[] askQuantities, int askLevels) {
+            }
+        });
+        topOfBook.close();
 
         // Print account balance and portfolio
         System.out.println("Account Balance: $" + account.getBalance());
         System.out.println("Portfolio: " + account.getPortfolio().getHoldings());
+        System.out.println("Seller Balance: $" + sellerAccount.getBalance());
+        System.out.println("Seller Portfolio: " + sellerAccount.getPortfolio().getHoldings());
+
+        // Snapshot, keep trading, then rebuild a second broker from the snapshot plus the journal tail
+        stockBroker.takeSnapshot();
+        stockBroker.placeOrder(new SellOrder("O007", account, stock2, 1, 2100.0)).join();
+        stockBroker.placeOrder(new BuyOrder("O008", sellerAccount, stock2, 1, 2100.0)).join();
+        stockBroker.placeOrder(new SellOrder("O009", sellerAccount, stock1, 5, 170.0)).join();
+
+        StockBroker recovered = StockBroker.newInstance();
+        recovered.enableJournal(journalDirectory, 0);
+        System.out.println("Recovered Balance: $" + recovered.getAccount("A001").getBalance()
+                + " vs $" + account.getBalance());
+        System.out.println("Recovered Seller Balance: $" + recovered.getAccount("A002").getBalance()
+                + " vs $" + sellerAccount.getBalance());
+        System.out.println("Recovered Seller Portfolio: " + recovered.getAccount("A002").getPortfolio().getHoldings()
+                + " vs " + sellerAccount.getPortfolio().getHoldings());
+        recovered.shutdown();
     }
 }
@@ -0,0 +1,32 @@
+package onlinestockbrokeragesystem;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Dense integer ids for symbols, so per-symbol state can live in primitive structures.
+public final class SymbolRegistry {
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private static final List<String> symbols = new CopyOnWriteArrayList<>();
+
+    private SymbolRegistry() {
+    }
+
+    public static int idOf(String symbol) {
+        Integer id = ids.get(symbol);
+        if (id != null) {
+            return id;
+        }
+        synchronized (SymbolRegistry.class) {
+            return ids.computeIfAbsent(symbol, s -> {
+                symbols.add(s);
+                return symbols.size() - 1;
+            });
+        }
+    }
+
+    public static String symbolOf(int id) {
+        return symbols.get(id);
+    }
+}
@@ -0,0 +1,281 @@
+package onlinestockbrokeragesystem.journal;
+
+import onlinestockbrokeragesystem.Account;
+import onlinestockbrokeragesystem.Order;
+import onlinestockbrokeragesystem.Stock;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Append-only journal over memory-mapped segment files. An append is a copy into the mapped
+// region under a short lock; durability comes from a background thread that forces dirty
+// pages to disk every flush interval, so a power loss can drop at most that window of records
+// while a process crash loses nothing that was appended. Once a background flush fails the
+// journal can no longer promise that window, so every later append throws.
+public class Journal implements AutoCloseable {
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final Queue<MappedByteBuffer> sealedSegments = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService flusher;
+    private volatile MappedByteBuffer segment;
+    private volatile RuntimeException flushFailure;
+    private long nextSequence;
+    private int recordStart;
+
+    // Opens a journal whose first record gets nextSequence and starts forcing it to disk
+    // every flush interval.
+    public static Journal open(Path directory, long nextSequence, int segmentBytes, long flushIntervalMillis) {
+        Journal journal = new Journal(directory, nextSequence, segmentBytes);
+        journal.flusher.scheduleWithFixedDelay(journal::backgroundFlush, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        return journal;
+    }
+
+    private Journal(Path directory, long nextSequence, int segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.nextSequence = nextSequence;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.segment = openSegment(nextSequence);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public synchronized long appendAddStock(Stock stock) {
+        byte[] symbol = RecordCodec.utf8(stock.getSymbol());
+        byte[] name = RecordCodec.utf8(stock.getName());
+        ByteBuffer buffer = begin(RecordType.ADD_STOCK, RecordCodec.sizeOf(symbol) + RecordCodec.sizeOf(name) + 8);
+        RecordCodec.putString(buffer, symbol);
+        RecordCodec.putString(buffer, name);
+        buffer.putLong(stock.getPriceTicks());
+        return end(buffer);
+    }
+
+    public synchronized long appendCreateAccount(Account account, String userId, String name, String email) {
+        byte[] accountIdBytes = RecordCodec.utf8(account.getAccountId());
+        byte[] userIdBytes = RecordCodec.utf8(userId);
+        byte[] nameBytes = RecordCodec.utf8(name);
+        byte[] emailBytes = RecordCodec.utf8(email);
+        ByteBuffer buffer = begin(RecordType.CREATE_ACCOUNT, RecordCodec.sizeOf(accountIdBytes)
+                + RecordCodec.sizeOf(userIdBytes) + RecordCodec.sizeOf(nameBytes) + RecordCodec.sizeOf(emailBytes) + 8);
+        RecordCodec.putString(buffer, accountIdBytes);
+        RecordCodec.putString(buffer, userIdBytes);
+        RecordCodec.putString(buffer, nameBytes);
+        RecordCodec.putString(buffer, emailBytes);
+        buffer.putLong(account.getBalanceMinorUnits());
+        return end(buffer);
+    }
+
+    public synchronized long appendDepositShares(String accountId, String symbol, long quantity) {
+        byte[] accountIdBytes = RecordCodec.utf8(accountId);
+        byte[] symbolBytes = RecordCodec.utf8(symbol);
+        ByteBuffer buffer = begin(RecordType.DEPOSIT_SHARES,
+                RecordCodec.sizeOf(accountIdBytes) + RecordCodec.sizeOf(symbolBytes) + 8);
+        RecordCodec.putString(buffer, accountIdBytes);
+        RecordCodec.putString(buffer, symbolBytes);
+        buffer.putLong(quantity);
+        return end(buffer);
+    }
+
+    public synchronized long appendDepositCash(String accountId, long amountMinorUnits) {
+        return appendCash(RecordType.DEPOSIT_CASH, accountId, amountMinorUnits);
+    }
+
+    public synchronized long appendWithdrawCash(String accountId, long amountMinorUnits) {
+        return appendCash(RecordType.WITHDRAW_CASH, accountId, amountMinorUnits);
+    }
+
+    private long appendCash(byte type, String accountId, long amountMinorUnits) {
+        byte[] accountIdBytes = RecordCodec.utf8(accountId);
+        ByteBuffer buffer = begin(type, RecordCodec.sizeOf(accountIdBytes) + 8);
+        RecordCodec.putString(buffer, accountIdBytes);
+        buffer.putLong(amountMinorUnits);
+        return end(buffer);
+    }
+
+    public synchronized long appendOrder(Order order) {
+        byte[] orderId = RecordCodec.utf8(order.getOrderId());
+        byte[] accountId = RecordCodec.utf8(order.getAccount().getAccountId());
+        byte[] symbol = RecordCodec.utf8(order.getStock().getSymbol());
+        ByteBuffer buffer = begin(RecordType.ORDER, RecordCodec.sizeOf(orderId) + RecordCodec.sizeOf(accountId)
+                + RecordCodec.sizeOf(symbol) + 1 + 4 + 4 + 8);
+        RecordCodec.putString(buffer, orderId);
+        RecordCodec.putString(buffer, accountId);
+        RecordCodec.putString(buffer, symbol);
+        buffer.put((byte) (order.isBuy() ? 1 : 0));
+        buffer.putInt(order.getQuantity());
+        buffer.putInt(order.getFilledQuantity());
+        buffer.putLong(order.getPriceTicks());
+        return end(buffer);
+    }
+
+    public synchronized long appendCancel(String symbol, String orderId) {
+        byte[] symbolBytes = RecordCodec.utf8(symbol);
+        byte[] orderIdBytes = RecordCodec.utf8(orderId);
+        ByteBuffer buffer = begin(RecordType.CANCEL, RecordCodec.sizeOf(symbolBytes) + RecordCodec.sizeOf(orderIdBytes));
+        RecordCodec.putString(buffer, symbolBytes);
+        RecordCodec.putString(buffer, orderIdBytes);
+        return end(buffer);
+    }
+
+    public synchronized long appendFill(Order taker, Order maker, long priceTicks, int quantity) {
+        byte[] takerId = RecordCodec.utf8(taker.getOrderId());
+        byte[] makerId = RecordCodec.utf8(maker.getOrderId());
+        ByteBuffer buffer = begin(RecordType.FILL, RecordCodec.sizeOf(takerId) + RecordCodec.sizeOf(makerId) + 8 + 4);
+        RecordCodec.putString(buffer, takerId);
+        RecordCodec.putString(buffer, makerId);
+        buffer.putLong(priceTicks);
+        buffer.putInt(quantity);
+        return end(buffer);
+    }
+
+    // Sequence of the last appended record, 0 if nothing has ever been written.
+    public synchronized long getLastSequence() {
+        return nextSequence - 1;
+    }
+
+    // The first error a background flush ran into, or null while the journal is healthy.
+    public RuntimeException getFlushFailure() {
+        return flushFailure;
+    }
+
+    private ByteBuffer begin(byte type, int payloadBytes) {
+        RuntimeException failure = flushFailure;
+        if (failure != null) {
+            throw new IllegalStateException("Journal flush failed; refusing further appends", failure);
+        }
+        int recordBytes = RecordCodec.HEADER_BYTES + payloadBytes;
+        if (recordBytes + RecordCodec.LENGTH_BYTES > segmentBytes) {
+            throw new IllegalArgumentException("Journal record of " + recordBytes + " bytes exceeds segment size");
+        }
+        // Keep room for the zero length that terminates the segment.
+        if (segment.remaining() < recordBytes + RecordCodec.LENGTH_BYTES) {
+            sealedSegments.add(segment);
+            segment = openSegment(nextSequence);
+        }
+        recordStart = segment.position();
+        RecordCodec.putHeader(segment, recordStart, type, nextSequence);
+        return segment;
+    }
+
+    private long end(ByteBuffer buffer) {
+        RecordCodec.putLength(buffer, recordStart);
+        return nextSequence++;
+    }
+
+    // Forcing happens outside the append lock so appenders never wait on the disk.
+    public void flush() {
+        MappedByteBuffer sealed;
+        while ((sealed = sealedSegments.poll()) != null) {
+            sealed.force();
+        }
+        segment.force();
+    }
+
+    // An exception escaping a scheduled task would silently cancel every later run, so the
+    // failure is kept for appenders to see instead.
+    private void backgroundFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            if (flushFailure == null) {
+                flushFailure = e;
+            }
+        }
+    }
+
+    // Deletes segments whose records are all covered by a snapshot taken at the given sequence.
+    public void deleteSegmentsThrough(long snapshotSequence) {
+        List<Path> segments = listSegments(directory);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstSequenceOf(segments.get(i + 1)) <= snapshotSequence + 1) {
+                try {
+                    Files.deleteIfExists(segments.get(i));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        flush();
+    }
+
+    private MappedByteBuffer openSegment(long firstSequence) {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        try {
+            // A segment with this name can only exist if it never received a record.
+            Files.deleteIfExists(path);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Feeds every record after the given sequence to the handler, in order, and returns the
+    // sequence of the last record found (or afterSequence if there were none).
+    public static long replay(Path directory, long afterSequence, RecoveryHandler handler) {
+        long lastSequence = afterSequence;
+        for (Path path : listSegments(directory)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                long sequence;
+                while ((sequence = RecordCodec.read(buffer, afterSequence, handler)) >= 0) {
+                    lastSequence = Math.max(lastSequence, sequence);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return lastSequence;
+    }
+
+    private static List<Path> listSegments(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long firstSequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
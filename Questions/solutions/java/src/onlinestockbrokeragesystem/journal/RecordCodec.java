@@ -0,0 +1,87 @@
+package onlinestockbrokeragesystem.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Binary layout shared by journal segments and snapshots:
+//   [int length][byte type][long sequence][payload]
+// where length covers type, sequence and payload, strings are a short byte count followed by
+// UTF-8 bytes, and a zero length marks the end of the written region.
+final class RecordCodec {
+    static final int LENGTH_BYTES = 4;
+    static final int HEADER_BYTES = LENGTH_BYTES + 1 + 8;
+
+    private RecordCodec() {
+    }
+
+    static byte[] utf8(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("String too long for journal: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+
+    static int sizeOf(byte[] string) {
+        return 2 + string.length;
+    }
+
+    static void putString(ByteBuffer buffer, byte[] string) {
+        buffer.putShort((short) string.length);
+        buffer.put(string);
+    }
+
+    static void putHeader(ByteBuffer buffer, int start, byte type, long sequence) {
+        buffer.put(start + LENGTH_BYTES, type);
+        buffer.putLong(start + LENGTH_BYTES + 1, sequence);
+        buffer.position(start + HEADER_BYTES);
+    }
+
+    // The length goes in last, so a record torn by a crash reads as the end of the segment.
+    static void putLength(ByteBuffer buffer, int start) {
+        buffer.putInt(start, buffer.position() - start - LENGTH_BYTES);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Decodes the record at the buffer's position and dispatches it if its sequence is after
+    // afterSequence. Returns the record's sequence, or -1 at the end of the written region.
+    static long read(ByteBuffer buffer, long afterSequence, RecoveryHandler handler) {
+        if (buffer.remaining() < HEADER_BYTES) {
+            return -1;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt();
+        if (length <= 0 || length > buffer.remaining()) {
+            buffer.position(start);
+            return -1;
+        }
+        byte type = buffer.get();
+        long sequence = buffer.getLong();
+        if (sequence <= afterSequence) {
+            buffer.position(start + LENGTH_BYTES + length);
+            return sequence;
+        }
+        switch (type) {
+            case RecordType.ADD_STOCK -> handler.onAddStock(getString(buffer), getString(buffer), buffer.getLong());
+            case RecordType.CREATE_ACCOUNT -> handler.onCreateAccount(getString(buffer), getString(buffer),
+                    getString(buffer), getString(buffer), buffer.getLong());
+            case RecordType.DEPOSIT_SHARES -> handler.onDepositShares(getString(buffer), getString(buffer),
+                    buffer.getLong());
+            case RecordType.DEPOSIT_CASH -> handler.onDepositCash(getString(buffer), buffer.getLong());
+            case RecordType.WITHDRAW_CASH -> handler.onWithdrawCash(getString(buffer), buffer.getLong());
+            case RecordType.ORDER -> handler.onOrder(getString(buffer), getString(buffer), getString(buffer),
+                    buffer.get() != 0, buffer.getInt(), buffer.getInt(), buffer.getLong());
+            case RecordType.CANCEL -> handler.onCancel(getString(buffer), getString(buffer));
+            case RecordType.FILL -> handler.onFill(getString(buffer), getString(buffer), buffer.getLong(),
+                    buffer.getInt());
+            default -> throw new IllegalStateException("Unknown journal record type " + type + " at sequence " + sequence);
+        }
+        buffer.position(start + LENGTH_BYTES + length);
+        return sequence;
+    }
+}
@@ -0,0 +1,18 @@
+package onlinestockbrokeragesystem.journal;
+
+// Record tags shared by journal segments and snapshot files. The byte values are
+// part of the on-disk format and must never be reused.
+public final class RecordType {
+    public static final byte END = 0;
+    public static final byte ADD_STOCK = 1;
+    public static final byte CREATE_ACCOUNT = 2;
+    public static final byte DEPOSIT_SHARES = 3;
+    public static final byte ORDER = 4;
+    public static final byte CANCEL = 5;
+    public static final byte FILL = 6;
+    public static final byte DEPOSIT_CASH = 7;
+    public static final byte WITHDRAW_CASH = 8;
+
+    private RecordType() {
+    }
+}
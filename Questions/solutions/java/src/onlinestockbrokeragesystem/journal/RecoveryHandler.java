@@ -0,0 +1,24 @@
+package onlinestockbrokeragesystem.journal;
+
+// Receives records in their original order while a snapshot is loaded or a journal is replayed.
+public interface RecoveryHandler {
+    void onAddStock(String symbol, String name, long priceTicks);
+
+    void onCreateAccount(String accountId, String userId, String name, String email, long balanceMinorUnits);
+
+    void onDepositShares(String accountId, String symbol, long quantity);
+
+    void onDepositCash(String accountId, long amountMinorUnits);
+
+    void onWithdrawCash(String accountId, long amountMinorUnits);
+
+    void onOrder(String orderId, String accountId, String symbol, boolean buy, int quantity, int filledQuantity,
+                 long priceTicks);
+
+    void onCancel(String symbol, String orderId);
+
+    // Fills are derived from the orders that produced them, so they are kept for audit and
+    // normally ignored during replay.
+    default void onFill(String takerOrderId, String makerOrderId, long priceTicks, int quantity) {
+    }
+}
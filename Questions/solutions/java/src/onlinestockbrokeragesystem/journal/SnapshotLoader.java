@@ -0,0 +1,73 @@
+package onlinestockbrokeragesystem.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+public final class SnapshotLoader {
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+
+    private SnapshotLoader() {
+    }
+
+    static String fileName(long sequence) {
+        return String.format("%s%020d%s", PREFIX, sequence, SUFFIX);
+    }
+
+    // Feeds the newest complete snapshot to the handler and returns the journal sequence it
+    // covers, or 0 when there is no snapshot and the journal must be replayed from the start.
+    public static long loadLatest(Path directory, RecoveryHandler handler) {
+        List<Path> snapshots = listSnapshots(directory);
+        if (snapshots.isEmpty()) {
+            return 0;
+        }
+        Path latest = snapshots.getLast();
+        try (FileChannel channel = FileChannel.open(latest, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            while (RecordCodec.read(buffer, Long.MIN_VALUE, handler) >= 0) {
+                // records are dispatched by read()
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sequenceOf(latest);
+    }
+
+    static void deleteSnapshotsBefore(Path directory, long sequence) {
+        for (Path snapshot : listSnapshots(directory)) {
+            if (sequenceOf(snapshot) < sequence) {
+                try {
+                    Files.deleteIfExists(snapshot);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    private static List<Path> listSnapshots(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long sequenceOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,139 @@
+package onlinestockbrokeragesystem.journal;
+
+import onlinestockbrokeragesystem.Account;
+import onlinestockbrokeragesystem.Order;
+import onlinestockbrokeragesystem.Stock;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+// Writes the full broker state as of one journal sequence, using the journal's record layout.
+// The file only appears under its final name once it is complete and on disk.
+public class SnapshotWriter implements AutoCloseable {
+    private final Path directory;
+    private final long sequence;
+    private final Path temporaryPath;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    private boolean finished;
+
+    public SnapshotWriter(Path directory, long sequence) {
+        this.directory = directory;
+        this.sequence = sequence;
+        this.temporaryPath = directory.resolve(SnapshotLoader.fileName(sequence) + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            this.channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void writeStock(Stock stock) {
+        byte[] symbol = RecordCodec.utf8(stock.getSymbol());
+        byte[] name = RecordCodec.utf8(stock.getName());
+        int start = begin(RecordType.ADD_STOCK, RecordCodec.sizeOf(symbol) + RecordCodec.sizeOf(name) + 8);
+        RecordCodec.putString(buffer, symbol);
+        RecordCodec.putString(buffer, name);
+        buffer.putLong(stock.getPriceTicks());
+        RecordCodec.putLength(buffer, start);
+    }
+
+    public void writeAccount(Account account, String userId, String name, String email) {
+        byte[] accountId = RecordCodec.utf8(account.getAccountId());
+        byte[] userIdBytes = RecordCodec.utf8(userId);
+        byte[] nameBytes = RecordCodec.utf8(name);
+        byte[] emailBytes = RecordCodec.utf8(email);
+        int start = begin(RecordType.CREATE_ACCOUNT, RecordCodec.sizeOf(accountId) + RecordCodec.sizeOf(userIdBytes)
+                + RecordCodec.sizeOf(nameBytes) + RecordCodec.sizeOf(emailBytes) + 8);
+        RecordCodec.putString(buffer, accountId);
+        RecordCodec.putString(buffer, userIdBytes);
+        RecordCodec.putString(buffer, nameBytes);
+        RecordCodec.putString(buffer, emailBytes);
+        buffer.putLong(account.getBalanceMinorUnits());
+        RecordCodec.putLength(buffer, start);
+
+        for (Map.Entry<String, Long> holding : account.getPortfolio().getHoldings().entrySet()) {
+            byte[] symbol = RecordCodec.utf8(holding.getKey());
+            start = begin(RecordType.DEPOSIT_SHARES, RecordCodec.sizeOf(accountId) + RecordCodec.sizeOf(symbol) + 8);
+            RecordCodec.putString(buffer, accountId);
+            RecordCodec.putString(buffer, symbol);
+            buffer.putLong(holding.getValue());
+            RecordCodec.putLength(buffer, start);
+        }
+    }
+
+    // Resting orders must be written in book priority order so reloading them rebuilds the same queues.
+    public void writeOrder(Order order) {
+        byte[] orderId = RecordCodec.utf8(order.getOrderId());
+        byte[] accountId = RecordCodec.utf8(order.getAccount().getAccountId());
+        byte[] symbol = RecordCodec.utf8(order.getStock().getSymbol());
+        int start = begin(RecordType.ORDER, RecordCodec.sizeOf(orderId) + RecordCodec.sizeOf(accountId)
+                + RecordCodec.sizeOf(symbol) + 1 + 4 + 4 + 8);
+        RecordCodec.putString(buffer, orderId);
+        RecordCodec.putString(buffer, accountId);
+        RecordCodec.putString(buffer, symbol);
+        buffer.put((byte) (order.isBuy() ? 1 : 0));
+        buffer.putInt(order.getQuantity());
+        buffer.putInt(order.getFilledQuantity());
+        buffer.putLong(order.getPriceTicks());
+        RecordCodec.putLength(buffer, start);
+    }
+
+    private int begin(byte type, int payloadBytes) {
+        if (buffer.remaining() < RecordCodec.HEADER_BYTES + payloadBytes + RecordCodec.LENGTH_BYTES) {
+            drain();
+        }
+        int start = buffer.position();
+        RecordCodec.putHeader(buffer, start, type, sequence);
+        return start;
+    }
+
+    private void drain() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    // Seals the snapshot and removes the snapshots it supersedes.
+    public void finish() {
+        buffer.putInt(0);
+        drain();
+        try {
+            channel.force(true);
+            channel.close();
+            Files.move(temporaryPath, directory.resolve(SnapshotLoader.fileName(sequence)),
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        finished = true;
+        SnapshotLoader.deleteSnapshotsBefore(directory, sequence);
+    }
+
+    @Override
+    public void close() {
+        if (!finished) {
+            try {
+                channel.close();
+                Files.deleteIfExists(temporaryPath);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
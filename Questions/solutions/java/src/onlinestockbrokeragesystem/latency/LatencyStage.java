@@ -0,0 +1,18 @@
+package onlinestockbrokeragesystem.latency;
+
+public enum LatencyStage {
+    // placeOrder entry until the risk checks and reservations are done
+    RISK_CHECK,
+    // handing the order to its shard's queue
+    ENQUEUE,
+    // waiting in the shard queue until the shard thread picks the order up
+    QUEUE_WAIT,
+    // journal append on the shard thread
+    JOURNAL,
+    // matching, settlement and market data publication for the order
+    MATCH,
+    // one market data callback (encode and copy to subscribers), sampled per callback
+    PUBLISH,
+    // placeOrder entry until the shard has finished with the order
+    END_TO_END
+}
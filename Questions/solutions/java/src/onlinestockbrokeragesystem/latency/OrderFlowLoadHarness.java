@@ -0,0 +1,116 @@
+package onlinestockbrokeragesystem.latency;
+
+import onlinestockbrokeragesystem.Account;
+import onlinestockbrokeragesystem.BuyOrder;
+import onlinestockbrokeragesystem.Order;
+import onlinestockbrokeragesystem.SellOrder;
+import onlinestockbrokeragesystem.Stock;
+import onlinestockbrokeragesystem.StockBroker;
+import onlinestockbrokeragesystem.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+
+// Replays synthetic order flow through the full StockBroker path (risk, shard queue, journal,
+// matching, market data) at a fixed offered rate and prints per-stage latency percentiles.
+// Producers send on a fixed schedule rather than waiting for each order, so a stall in the
+// engine shows up as queueing latency instead of silently lowering the load.
+public class OrderFlowLoadHarness {
+    private static final int SYMBOLS = 16;
+    private static final int ACCOUNTS = 8;
+    private static final int ORDERS_PER_SECOND = 100_000;
+    private static final int WARMUP_SECONDS = 2;
+    private static final int MEASURE_SECONDS = 3;
+
+    public static void run() {
+        StockBroker broker = StockBroker.newInstance();
+        Path journalDirectory;
+        try {
+            journalDirectory = Files.createTempDirectory("order-flow-journal");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        broker.enableJournal(journalDirectory, 0);
+
+        Stock[] stocks = new Stock[SYMBOLS];
+        for (int i = 0; i < SYMBOLS; i++) {
+            stocks[i] = new Stock("LOAD" + i, "Load " + i, 100.0);
+            broker.addStock(stocks[i]);
+        }
+        Account[] accounts = new Account[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            broker.createAccount(new User("L" + i, "Load " + i, ""), 1e12);
+            accounts[i] = broker.getAccount(String.format("A%03d", i + 1));
+            for (Stock stock : stocks) {
+                broker.depositShares(accounts[i], stock, 1_000_000_000L);
+            }
+        }
+
+        OrderLatencyRecorder recorder = new OrderLatencyRecorder();
+        broker.setLatencyRecorder(recorder);
+        int producers = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        replay(broker, accounts, stocks, producers, WARMUP_SECONDS, "W");
+        recorder.reset();
+        replay(broker, accounts, stocks, producers, MEASURE_SECONDS, "M");
+
+        System.out.printf("%d producers, %,d orders/sec offered for %ds%n", producers, ORDERS_PER_SECOND,
+                MEASURE_SECONDS);
+        System.out.print(recorder.report());
+        broker.shutdown();
+    }
+
+    private static void replay(StockBroker broker, Account[] accounts, Stock[] stocks, int producers, int seconds,
+                               String prefix) {
+        int ordersPerProducer = ORDERS_PER_SECOND / producers * seconds;
+        long intervalNanos = 1_000_000_000L * producers / ORDERS_PER_SECOND;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            Order[] flow = generate(accounts, stocks, prefix + p, ordersPerProducer, p);
+            threads[p] = new Thread(() -> {
+                CompletableFuture<Order> last = null;
+                long next = System.nanoTime();
+                for (Order order : flow) {
+                    while (System.nanoTime() < next) {
+                        LockSupport.parkNanos(1_000);
+                    }
+                    last = broker.placeOrder(order);
+                    next += intervalNanos;
+                }
+                if (last != null) {
+                    last.join();
+                }
+            }, "order-flow-" + p);
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Limit orders a few ticks either side of a fixed mid, so books stay shallow and most
+    // orders trade or rest near the top.
+    private static Order[] generate(Account[] accounts, Stock[] stocks, String prefix, int count, int seed) {
+        SplittableRandom random = new SplittableRandom(seed * 31L + prefix.hashCode());
+        Order[] orders = new Order[count];
+        for (int i = 0; i < count; i++) {
+            Account account = accounts[random.nextInt(accounts.length)];
+            Stock stock = stocks[random.nextInt(stocks.length)];
+            double price = 100.0 + (random.nextInt(11) - 5) / 100.0;
+            int quantity = 1 + random.nextInt(10);
+            String orderId = prefix + "-" + i;
+            orders[i] = random.nextBoolean()
+                    ? new BuyOrder(orderId, account, stock, quantity, price)
+                    : new SellOrder(orderId, account, stock, quantity, price);
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,42 @@
+package onlinestockbrokeragesystem.latency;
+
+// One histogram per order path stage, all in nanoseconds.
+public class OrderLatencyRecorder {
+    private static final long HIGHEST_TRACKABLE_NANOS = 60_000_000_000L;
+
+    private final LatencyHistogram[] histograms;
+
+    public OrderLatencyRecorder() {
+        LatencyStage[] stages = LatencyStage.values();
+        histograms = new LatencyHistogram[stages.length];
+        for (int i = 0; i < stages.length; i++) {
+            histograms[i] = new LatencyHistogram(HIGHEST_TRACKABLE_NANOS);
+        }
+    }
+
+    public void record(LatencyStage stage, long nanos) {
+        histograms[stage.ordinal()].record(nanos);
+    }
+
+    public LatencyHistogram getHistogram(LatencyStage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    public String report() {
+        StringBuilder report = new StringBuilder(String.format("%-11s %12s %9s %9s %9s %9s %11s%n",
+                "stage", "count", "p50", "p99", "p99.9", "mean", "max"));
+        for (LatencyStage stage : LatencyStage.values()) {
+            LatencyHistogram histogram = getHistogram(stage);
+            report.append(String.format("%-11s %,12d %7dns %7dns %7dns %7.0fns %9dns%n", stage,
+                    histogram.getCount(), histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99),
+                    histogram.getValueAtPercentile(99.9), histogram.getMean(), histogram.getMax()));
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,53 @@
+package onlinestockbrokeragesystem.latency;
+
+import onlinestockbrokeragesystem.orderbook.BookListener;
+
+// Times every callback into the wrapped listener as a PUBLISH sample while a recorder is set.
+public class TimedBookListener implements BookListener {
+    private final BookListener delegate;
+    private volatile OrderLatencyRecorder recorder;
+
+    public TimedBookListener(BookListener delegate) {
+        this.delegate = delegate;
+    }
+
+    public void setRecorder(OrderLatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void onLevelChange(String symbol, boolean bid, long priceTicks, long quantity, int orderCount) {
+        OrderLatencyRecorder current = recorder;
+        if (current == null) {
+            delegate.onLevelChange(symbol, bid, priceTicks, quantity, orderCount);
+            return;
+        }
+        long start = System.nanoTime();
+        delegate.onLevelChange(symbol, bid, priceTicks, quantity, orderCount);
+        current.record(LatencyStage.PUBLISH, System.nanoTime() - start);
+    }
+
+    @Override
+    public void onTrade(String symbol, long priceTicks, int quantity) {
+        OrderLatencyRecorder current = recorder;
+        if (current == null) {
+            delegate.onTrade(symbol, priceTicks, quantity);
+            return;
+        }
+        long start = System.nanoTime();
+        delegate.onTrade(symbol, priceTicks, quantity);
+        current.record(LatencyStage.PUBLISH, System.nanoTime() - start);
+    }
+
+    @Override
+    public void onBookUpdated(String symbol) {
+        OrderLatencyRecorder current = recorder;
+        if (current == null) {
+            delegate.onBookUpdated(symbol);
+            return;
+        }
+        long start = System.nanoTime();
+        delegate.onBookUpdated(symbol);
+        current.record(LatencyStage.PUBLISH, System.nanoTime() - start);
+    }
+}
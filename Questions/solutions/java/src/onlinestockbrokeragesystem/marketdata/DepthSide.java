@@ -0,0 +1,68 @@
+package onlinestockbrokeragesystem.marketdata;
+
+import java.util.Arrays;
+
+// Published image of one side of a book: aggregate quantity and order count per price,
+// sorted with the best price at the end (asks keyed by negated price), like BookSide.
+class DepthSide {
+    private final boolean bid;
+    private long[] keys = new long[32];
+    private long[] quantities = new long[32];
+    private int[] orderCounts = new int[32];
+    private int size;
+
+    DepthSide(boolean bid) {
+        this.bid = bid;
+    }
+
+    void set(long priceTicks, long quantity, int orderCount) {
+        long key = bid ? priceTicks : -priceTicks;
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            if (quantity == 0) {
+                System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+                System.arraycopy(quantities, index + 1, quantities, index, size - index - 1);
+                System.arraycopy(orderCounts, index + 1, orderCounts, index, size - index - 1);
+                size--;
+            } else {
+                quantities[index] = quantity;
+                orderCounts[index] = orderCount;
+            }
+            return;
+        }
+        if (quantity == 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            quantities = Arrays.copyOf(quantities, size * 2);
+            orderCounts = Arrays.copyOf(orderCounts, size * 2);
+        }
+        System.arraycopy(keys, insertAt, keys, insertAt + 1, size - insertAt);
+        System.arraycopy(quantities, insertAt, quantities, insertAt + 1, size - insertAt);
+        System.arraycopy(orderCounts, insertAt, orderCounts, insertAt + 1, size - insertAt);
+        keys[insertAt] = key;
+        quantities[insertAt] = quantity;
+        orderCounts[insertAt] = orderCount;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Depth 0 is the best price.
+    long priceAt(int depth) {
+        long key = keys[size - 1 - depth];
+        return bid ? key : -key;
+    }
+
+    long quantityAt(int depth) {
+        return quantities[size - 1 - depth];
+    }
+
+    int orderCountAt(int depth) {
+        return orderCounts[size - 1 - depth];
+    }
+}
@@ -0,0 +1,69 @@
+package onlinestockbrokeragesystem.marketdata;
+
+import java.nio.ByteBuffer;
+
+// Wire format, one message after another:
+//   [int length][byte type][int symbolId][long sequence][body]
+// with length covering the whole message. Symbols travel as their SymbolRegistry id.
+public final class MarketDataCodec {
+    public static final byte LEVEL = 1;
+    public static final byte TRADE = 2;
+    public static final byte TOP_OF_BOOK = 3;
+    public static final byte SNAPSHOT = 4;
+
+    static final int HEADER_BYTES = 4 + 1 + 4 + 8;
+    static final int LEVEL_BYTES = HEADER_BYTES + 1 + 8 + 8 + 4;
+    static final int TRADE_BYTES = HEADER_BYTES + 8 + 4;
+    static final int TOP_OF_BOOK_BYTES = HEADER_BYTES + 8 + 8 + 8 + 8;
+    static final int SNAPSHOT_LEVEL_BYTES = 8 + 8 + 4;
+
+    private MarketDataCodec() {
+    }
+
+    public static void encodeLevel(ByteBuffer buffer, int symbolId, long sequence, boolean bid, long priceTicks,
+                                   long quantity, int orderCount) {
+        putHeader(buffer, LEVEL_BYTES, LEVEL, symbolId, sequence);
+        buffer.put((byte) (bid ? 1 : 0));
+        buffer.putLong(priceTicks);
+        buffer.putLong(quantity);
+        buffer.putInt(orderCount);
+    }
+
+    public static void encodeTrade(ByteBuffer buffer, int symbolId, long sequence, long priceTicks, int quantity) {
+        putHeader(buffer, TRADE_BYTES, TRADE, symbolId, sequence);
+        buffer.putLong(priceTicks);
+        buffer.putInt(quantity);
+    }
+
+    public static void encodeTopOfBook(ByteBuffer buffer, int symbolId, long sequence, long bidTicks,
+                                       long bidQuantity, long askTicks, long askQuantity) {
+        putHeader(buffer, TOP_OF_BOOK_BYTES, TOP_OF_BOOK, symbolId, sequence);
+        buffer.putLong(bidTicks);
+        buffer.putLong(bidQuantity);
+        buffer.putLong(askTicks);
+        buffer.putLong(askQuantity);
+    }
+
+    static int snapshotBytes(int bidLevels, int askLevels) {
+        return HEADER_BYTES + 4 + 4 + (bidLevels + askLevels) * SNAPSHOT_LEVEL_BYTES;
+    }
+
+    private static void putHeader(ByteBuffer buffer, int length, byte type, int symbolId, long sequence) {
+        buffer.putInt(length);
+        buffer.put(type);
+        buffer.putInt(symbolId);
+        buffer.putLong(sequence);
+    }
+
+    static void putSnapshotHeader(ByteBuffer buffer, int symbolId, long sequence, int bidLevels, int askLevels) {
+        putHeader(buffer, snapshotBytes(bidLevels, askLevels), SNAPSHOT, symbolId, sequence);
+        buffer.putInt(bidLevels);
+        buffer.putInt(askLevels);
+    }
+
+    static void putSnapshotLevel(ByteBuffer buffer, long priceTicks, long quantity, int orderCount) {
+        buffer.putLong(priceTicks);
+        buffer.putLong(quantity);
+        buffer.putInt(orderCount);
+    }
+}
@@ -0,0 +1,68 @@
+package onlinestockbrokeragesystem.marketdata;
+
+import java.nio.ByteBuffer;
+
+// Decodes messages written by MarketDataCodec. Holds reusable snapshot arrays, so one decoder
+// must not be shared between threads.
+public class MarketDataDecoder {
+    private long[] bidTicks = new long[64];
+    private long[] bidQuantities = new long[64];
+    private long[] askTicks = new long[64];
+    private long[] askQuantities = new long[64];
+
+    // Decodes every complete message between the buffer's position and limit.
+    public int decodeAll(ByteBuffer buffer, MarketDataHandler handler) {
+        int messages = 0;
+        while (buffer.remaining() >= MarketDataCodec.HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt(start);
+            if (length > buffer.remaining()) {
+                break;
+            }
+            decode(buffer, handler);
+            buffer.position(start + length);
+            messages++;
+        }
+        return messages;
+    }
+
+    private void decode(ByteBuffer buffer, MarketDataHandler handler) {
+        buffer.getInt();
+        byte type = buffer.get();
+        int symbolId = buffer.getInt();
+        long sequence = buffer.getLong();
+        switch (type) {
+            case MarketDataCodec.LEVEL -> handler.onLevel(symbolId, sequence, buffer.get() != 0, buffer.getLong(),
+                    buffer.getLong(), buffer.getInt());
+            case MarketDataCodec.TRADE -> handler.onTrade(symbolId, sequence, buffer.getLong(), buffer.getInt());
+            case MarketDataCodec.TOP_OF_BOOK -> handler.onTopOfBook(symbolId, sequence, buffer.getLong(),
+                    buffer.getLong(), buffer.getLong(), buffer.getLong());
+            case MarketDataCodec.SNAPSHOT -> decodeSnapshot(buffer, handler, symbolId, sequence);
+            default -> throw new IllegalStateException("Unknown market data message type " + type);
+        }
+    }
+
+    private void decodeSnapshot(ByteBuffer buffer, MarketDataHandler handler, int symbolId, long sequence) {
+        int bidLevels = buffer.getInt();
+        int askLevels = buffer.getInt();
+        if (bidTicks.length < bidLevels) {
+            bidTicks = new long[bidLevels];
+            bidQuantities = new long[bidLevels];
+        }
+        if (askTicks.length < askLevels) {
+            askTicks = new long[askLevels];
+            askQuantities = new long[askLevels];
+        }
+        for (int i = 0; i < bidLevels; i++) {
+            bidTicks[i] = buffer.getLong();
+            bidQuantities[i] = buffer.getLong();
+            buffer.getInt();
+        }
+        for (int i = 0; i < askLevels; i++) {
+            askTicks[i] = buffer.getLong();
+            askQuantities[i] = buffer.getLong();
+            buffer.getInt();
+        }
+        handler.onSnapshot(symbolId, sequence, bidTicks, bidQuantities, bidLevels, askTicks, askQuantities, askLevels);
+    }
+}
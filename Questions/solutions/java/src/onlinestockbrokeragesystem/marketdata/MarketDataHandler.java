@@ -0,0 +1,16 @@
+package onlinestockbrokeragesystem.marketdata;
+
+// Receives decoded market data. Sequence numbers are per symbol and increase by one for every
+// book change or trade, so a consumer can tell which incremental updates a snapshot already covers.
+public interface MarketDataHandler {
+    void onLevel(int symbolId, long sequence, boolean bid, long priceTicks, long quantity, int orderCount);
+
+    void onTrade(int symbolId, long sequence, long priceTicks, int quantity);
+
+    // Prices are 0 when that side of the book is empty.
+    void onTopOfBook(int symbolId, long sequence, long bidTicks, long bidQuantity, long askTicks, long askQuantity);
+
+    // Full depth, best price first. The arrays are reused by the decoder; copy what must be kept.
+    void onSnapshot(int symbolId, long sequence, long[] bidTicks, long[] bidQuantities, int bidLevels,
+                    long[] askTicks, long[] askQuantities, int askLevels);
+}
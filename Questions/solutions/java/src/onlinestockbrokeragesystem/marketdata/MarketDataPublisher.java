@@ -0,0 +1,100 @@
+package onlinestockbrokeragesystem.marketdata;
+
+import onlinestockbrokeragesystem.SymbolRegistry;
+import onlinestockbrokeragesystem.orderbook.BookListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Turns book changes into per-symbol sequenced market data: depth-of-book level updates, top of
+// book, trades and periodic full snapshots. Encoding happens once per message on the shard thread
+// into a reusable buffer and is copied into each subscriber's buffer.
+public class MarketDataPublisher implements BookListener {
+    private final Map<String, SymbolFeed> feedsBySymbol = new ConcurrentHashMap<>();
+    private final Map<Integer, SymbolFeed> feedsById = new ConcurrentHashMap<>();
+    private final List<MarketDataSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final int subscriptionBufferBytes;
+    private ScheduledExecutorService snapshotScheduler;
+
+    public MarketDataPublisher(int subscriptionBufferBytes) {
+        this.subscriptionBufferBytes = subscriptionBufferBytes;
+    }
+
+    // A late joiner starts with every known symbol stale, so its first poll delivers their state.
+    public MarketDataSubscription subscribe(boolean depth) {
+        MarketDataSubscription subscription = new MarketDataSubscription(this, depth, subscriptionBufferBytes);
+        subscriptions.add(subscription);
+        for (SymbolFeed feed : feedsById.values()) {
+            subscription.markStale(feed.getSymbolId());
+        }
+        return subscription;
+    }
+
+    void unsubscribe(MarketDataSubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    SymbolFeed feedFor(int symbolId) {
+        return feedsById.get(symbolId);
+    }
+
+    // Sends a full snapshot of every symbol to depth subscribers, so consumers that missed
+    // messages resynchronize even if they never overflowed.
+    public void publishSnapshots() {
+        for (SymbolFeed feed : feedsById.values()) {
+            feed.publishSnapshot(subscriptions);
+        }
+    }
+
+    public synchronized void startSnapshots(long intervalMillis) {
+        if (snapshotScheduler != null) {
+            return;
+        }
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "market-data-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(this::publishSnapshots, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdown();
+            snapshotScheduler = null;
+        }
+    }
+
+    @Override
+    public void onLevelChange(String symbol, boolean bid, long priceTicks, long quantity, int orderCount) {
+        feed(symbol).onLevelChange(bid, priceTicks, quantity, orderCount, subscriptions);
+    }
+
+    @Override
+    public void onTrade(String symbol, long priceTicks, int quantity) {
+        feed(symbol).onTrade(priceTicks, quantity, subscriptions);
+    }
+
+    @Override
+    public void onBookUpdated(String symbol) {
+        feed(symbol).onBookUpdated(subscriptions);
+    }
+
+    private SymbolFeed feed(String symbol) {
+        SymbolFeed feed = feedsBySymbol.get(symbol);
+        if (feed == null) {
+            feed = feedsBySymbol.computeIfAbsent(symbol, key -> {
+                SymbolFeed created = new SymbolFeed(SymbolRegistry.idOf(key));
+                feedsById.put(created.getSymbolId(), created);
+                return created;
+            });
+        }
+        return feed;
+    }
+}
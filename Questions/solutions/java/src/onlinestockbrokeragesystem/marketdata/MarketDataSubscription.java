@@ -0,0 +1,113 @@
+package onlinestockbrokeragesystem.marketdata;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// One consumer's view of the feed. Publishers append encoded messages to a bounded buffer; the
+// consumer swaps it out on poll. A consumer that falls behind far enough to fill the buffer is
+// not allowed to slow the shard threads: further messages for the affected symbols are dropped
+// and, on the next poll, replaced by a single snapshot (or top of book) of their current state.
+public class MarketDataSubscription implements AutoCloseable {
+    private final MarketDataPublisher publisher;
+    private final boolean depth;
+    private final MarketDataDecoder decoder = new MarketDataDecoder();
+    private ByteBuffer writeBuffer;
+    private ByteBuffer readBuffer;
+    private ByteBuffer recoveryBuffer = ByteBuffer.allocate(4096);
+    private boolean[] stale = new boolean[64];
+    private long conflations;
+
+    MarketDataSubscription(MarketDataPublisher publisher, boolean depth, int bufferBytes) {
+        this.publisher = publisher;
+        this.depth = depth;
+        this.writeBuffer = ByteBuffer.allocate(bufferBytes);
+        this.readBuffer = ByteBuffer.allocate(bufferBytes);
+    }
+
+    // Depth subscriptions receive level updates and snapshots; the others receive top of book.
+    // Both receive trades.
+    public boolean isDepth() {
+        return depth;
+    }
+
+    synchronized void offer(int symbolId, ByteBuffer message) {
+        if (isStale(symbolId)) {
+            return;
+        }
+        int length = message.remaining();
+        if (writeBuffer.remaining() < length) {
+            markStale(symbolId);
+            conflations++;
+            return;
+        }
+        writeBuffer.put(writeBuffer.position(), message, message.position(), length);
+        writeBuffer.position(writeBuffer.position() + length);
+    }
+
+    synchronized void markStale(int symbolId) {
+        if (symbolId >= stale.length) {
+            stale = Arrays.copyOf(stale, Math.max(symbolId + 1, stale.length * 2));
+        }
+        stale[symbolId] = true;
+    }
+
+    private synchronized boolean isStale(int symbolId) {
+        return symbolId < stale.length && stale[symbolId];
+    }
+
+    private synchronized int staleLength() {
+        return stale.length;
+    }
+
+    // Called by the symbol's feed, under its monitor, from the polling thread.
+    void recovered(int symbolId, ByteBuffer state) {
+        if (recoveryBuffer.capacity() < state.remaining()) {
+            recoveryBuffer = ByteBuffer.allocate(state.remaining());
+        }
+        recoveryBuffer.clear();
+        recoveryBuffer.put(0, state, state.position(), state.remaining());
+        recoveryBuffer.limit(state.remaining());
+        synchronized (this) {
+            stale[symbolId] = false;
+        }
+    }
+
+    // Delivers everything published since the last poll, then brings any stale symbols up to date.
+    // Must always be called from the same consumer thread. Returns the number of messages delivered.
+    public int poll(MarketDataHandler handler) {
+        synchronized (this) {
+            ByteBuffer filled = writeBuffer;
+            writeBuffer = readBuffer;
+            readBuffer = filled;
+        }
+        readBuffer.flip();
+        int messages = decoder.decodeAll(readBuffer, handler);
+        readBuffer.clear();
+
+        int length = staleLength();
+        for (int symbolId = 0; symbolId < length; symbolId++) {
+            if (isStale(symbolId)) {
+                SymbolFeed feed = publisher.feedFor(symbolId);
+                if (feed == null) {
+                    synchronized (this) {
+                        stale[symbolId] = false;
+                    }
+                    continue;
+                }
+                feed.recover(this);
+                messages += decoder.decodeAll(recoveryBuffer, handler);
+            }
+        }
+        return messages;
+    }
+
+    // Number of times a full buffer forced a symbol onto the snapshot path.
+    public synchronized long getConflations() {
+        return conflations;
+    }
+
+    @Override
+    public void close() {
+        publisher.unsubscribe(this);
+    }
+}
@@ -0,0 +1,120 @@
+package onlinestockbrokeragesystem.marketdata;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+// Per-symbol sequence and depth image. Updates come from the shard thread that owns the symbol;
+// snapshots and recoveries come from other threads, so everything runs under the feed's monitor,
+// which also orders every message for the symbol against the snapshots taken from it.
+class SymbolFeed {
+    private final int symbolId;
+    private final DepthSide bids = new DepthSide(true);
+    private final DepthSide asks = new DepthSide(false);
+    private final ByteBuffer scratch = ByteBuffer.allocate(64);
+    private ByteBuffer snapshotScratch = ByteBuffer.allocate(4096);
+    private long sequence;
+    private long publishedBidTicks;
+    private long publishedBidQuantity;
+    private long publishedAskTicks;
+    private long publishedAskQuantity;
+
+    SymbolFeed(int symbolId) {
+        this.symbolId = symbolId;
+    }
+
+    int getSymbolId() {
+        return symbolId;
+    }
+
+    synchronized void onLevelChange(boolean bid, long priceTicks, long quantity, int orderCount,
+                                    List<MarketDataSubscription> subscriptions) {
+        (bid ? bids : asks).set(priceTicks, quantity, orderCount);
+        sequence++;
+        scratch.clear();
+        MarketDataCodec.encodeLevel(scratch, symbolId, sequence, bid, priceTicks, quantity, orderCount);
+        scratch.flip();
+        for (MarketDataSubscription subscription : subscriptions) {
+            if (subscription.isDepth()) {
+                subscription.offer(symbolId, scratch);
+            }
+        }
+    }
+
+    synchronized void onTrade(long priceTicks, int quantity, List<MarketDataSubscription> subscriptions) {
+        sequence++;
+        scratch.clear();
+        MarketDataCodec.encodeTrade(scratch, symbolId, sequence, priceTicks, quantity);
+        scratch.flip();
+        for (MarketDataSubscription subscription : subscriptions) {
+            subscription.offer(symbolId, scratch);
+        }
+    }
+
+    // Emits top of book only when it actually moved, which conflates the level changes of one command.
+    synchronized void onBookUpdated(List<MarketDataSubscription> subscriptions) {
+        long bidTicks = bids.size() == 0 ? 0 : bids.priceAt(0);
+        long bidQuantity = bids.size() == 0 ? 0 : bids.quantityAt(0);
+        long askTicks = asks.size() == 0 ? 0 : asks.priceAt(0);
+        long askQuantity = asks.size() == 0 ? 0 : asks.quantityAt(0);
+        if (bidTicks == publishedBidTicks && bidQuantity == publishedBidQuantity
+                && askTicks == publishedAskTicks && askQuantity == publishedAskQuantity) {
+            return;
+        }
+        publishedBidTicks = bidTicks;
+        publishedBidQuantity = bidQuantity;
+        publishedAskTicks = askTicks;
+        publishedAskQuantity = askQuantity;
+        scratch.clear();
+        MarketDataCodec.encodeTopOfBook(scratch, symbolId, sequence, bidTicks, bidQuantity, askTicks, askQuantity);
+        scratch.flip();
+        for (MarketDataSubscription subscription : subscriptions) {
+            if (!subscription.isDepth()) {
+                subscription.offer(symbolId, scratch);
+            }
+        }
+    }
+
+    synchronized void publishSnapshot(List<MarketDataSubscription> subscriptions) {
+        ByteBuffer snapshot = encodeSnapshot();
+        for (MarketDataSubscription subscription : subscriptions) {
+            if (subscription.isDepth()) {
+                subscription.offer(symbolId, snapshot);
+            }
+        }
+    }
+
+    // Copies the current state into the subscription's recovery buffer and clears its stale flag
+    // in one step, so every later incremental for the symbol is newer than what was copied.
+    synchronized void recover(MarketDataSubscription subscription) {
+        ByteBuffer state;
+        if (subscription.isDepth()) {
+            state = encodeSnapshot();
+        } else {
+            scratch.clear();
+            MarketDataCodec.encodeTopOfBook(scratch, symbolId, sequence, publishedBidTicks, publishedBidQuantity,
+                    publishedAskTicks, publishedAskQuantity);
+            scratch.flip();
+            state = scratch;
+        }
+        subscription.recovered(symbolId, state);
+    }
+
+    private ByteBuffer encodeSnapshot() {
+        int bytes = MarketDataCodec.snapshotBytes(bids.size(), asks.size());
+        if (snapshotScratch.capacity() < bytes) {
+            snapshotScratch = ByteBuffer.allocate(Math.max(bytes, snapshotScratch.capacity() * 2));
+        }
+        snapshotScratch.clear();
+        MarketDataCodec.putSnapshotHeader(snapshotScratch, symbolId, sequence, bids.size(), asks.size());
+        for (int depth = 0; depth < bids.size(); depth++) {
+            MarketDataCodec.putSnapshotLevel(snapshotScratch, bids.priceAt(depth), bids.quantityAt(depth),
+                    bids.orderCountAt(depth));
+        }
+        for (int depth = 0; depth < asks.size(); depth++) {
+            MarketDataCodec.putSnapshotLevel(snapshotScratch, asks.priceAt(depth), asks.quantityAt(depth),
+                    asks.orderCountAt(depth));
+        }
+        snapshotScratch.flip();
+        return snapshotScratch;
+    }
+}
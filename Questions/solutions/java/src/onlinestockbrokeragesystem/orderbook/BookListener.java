@@ -0,0 +1,26 @@
+package onlinestockbrokeragesystem.orderbook;
+
+// Observes changes to a book's visible state. Called on the thread that owns the book.
+public interface BookListener {
+    BookListener NONE = new BookListener() {
+        @Override
+        public void onLevelChange(String symbol, boolean bid, long priceTicks, long quantity, int orderCount) {
+        }
+
+        @Override
+        public void onTrade(String symbol, long priceTicks, int quantity) {
+        }
+
+        @Override
+        public void onBookUpdated(String symbol) {
+        }
+    };
+
+    // New aggregate for one price level; a quantity of 0 means the level is gone.
+    void onLevelChange(String symbol, boolean bid, long priceTicks, long quantity, int orderCount);
+
+    void onTrade(String symbol, long priceTicks, int quantity);
+
+    // Called once after each submit or cancel that changed the book, after its level changes.
+    void onBookUpdated(String symbol);
+}
@@ -0,0 +1,83 @@
+package onlinestockbrokeragesystem.orderbook;
+
+import java.util.Arrays;
+
+// Price levels of one side kept in a sorted array with the best price at the end,
+// so that consuming the top of book never shifts elements. Ask prices are stored
+// negated so both sides sort ascending.
+class BookSide {
+    private final boolean bid;
+    private long[] keys;
+    private PriceLevel[] levels;
+    private int size;
+
+    BookSide(boolean bid, int initialLevels) {
+        this.bid = bid;
+        this.keys = new long[initialLevels];
+        this.levels = new PriceLevel[initialLevels];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    PriceLevel best() {
+        return size == 0 ? null : levels[size - 1];
+    }
+
+    // Level at the given depth, 0 being the best price.
+    PriceLevel levelAt(int depth) {
+        return levels[size - 1 - depth];
+    }
+
+    // True if a resting price on this side trades against an incoming limit price.
+    boolean crosses(long restingPrice, long limitPrice) {
+        return bid ? restingPrice >= limitPrice : restingPrice <= limitPrice;
+    }
+
+    PriceLevel find(long price) {
+        int index = Arrays.binarySearch(keys, 0, size, key(price));
+        return index >= 0 ? levels[index] : null;
+    }
+
+    PriceLevel getOrCreate(long price, PriceLevel spare) {
+        long key = key(price);
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            return levels[index];
+        }
+        int insertAt = -index - 1;
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            levels = Arrays.copyOf(levels, size * 2);
+        }
+        System.arraycopy(keys, insertAt, keys, insertAt + 1, size - insertAt);
+        System.arraycopy(levels, insertAt, levels, insertAt + 1, size - insertAt);
+        spare.reset(price);
+        keys[insertAt] = key;
+        levels[insertAt] = spare;
+        size++;
+        return spare;
+    }
+
+    void remove(PriceLevel level) {
+        if (size > 0 && levels[size - 1] == level) {
+            levels[--size] = null;
+            return;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, key(level.price));
+        if (index >= 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(levels, index + 1, levels, index, size - index - 1);
+            levels[--size] = null;
+        }
+    }
+
+    private long key(long price) {
+        return bid ? price : -price;
+    }
+}
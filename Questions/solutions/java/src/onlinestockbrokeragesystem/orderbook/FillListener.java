@@ -0,0 +1,8 @@
+package onlinestockbrokeragesystem.orderbook;
+
+import onlinestockbrokeragesystem.Order;
+
+public interface FillListener {
+    // Called once per fill, in match order, on the shard thread that owns the symbol.
+    void onFill(Order taker, Order maker, long priceTicks, int quantity);
+}
@@ -0,0 +1,99 @@
+package onlinestockbrokeragesystem.orderbook;
+
+import onlinestockbrokeragesystem.Order;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+// Routes every symbol to exactly one single-writer shard. Orders for the same
+// symbol are processed in arrival order; unrelated symbols never contend.
+public class MatchingEngine {
+    private final OrderShard[] shards;
+
+    private static final OrderListener NO_OP_LISTENER = new OrderListener() {
+        @Override
+        public void onSubmit(Order order) {
+        }
+
+        @Override
+        public void onCancel(String symbol, String orderId) {
+        }
+    };
+
+    public MatchingEngine(FillListener fillListener, int shardCount) {
+        this(fillListener, NO_OP_LISTENER, shardCount);
+    }
+
+    public MatchingEngine(FillListener fillListener, OrderListener orderListener, int shardCount) {
+        this(fillListener, orderListener, BookListener.NONE, shardCount);
+    }
+
+    public MatchingEngine(FillListener fillListener, OrderListener orderListener, BookListener bookListener,
+                          int shardCount) {
+        shards = new OrderShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new OrderShard(i, fillListener, orderListener, bookListener);
+            shards[i].start();
+        }
+    }
+
+    // Completes with the order once it has been matched and any remainder rested.
+    public CompletableFuture<Order> submit(Order order) {
+        return shardFor(order.getStock().getSymbol()).submit(order);
+    }
+
+    // Completes with the cancelled order, or null if it was no longer resting.
+    public CompletableFuture<Order> cancel(String symbol, String orderId) {
+        return shardFor(symbol).cancel(symbol, orderId);
+    }
+
+    // Stops every shard at a common point, runs the task on the calling thread while no
+    // book can change, then lets the shards continue.
+    public void runWhilePaused(Runnable task) {
+        CountDownLatch arrived = new CountDownLatch(shards.length);
+        CountDownLatch release = new CountDownLatch(1);
+        for (OrderShard shard : shards) {
+            shard.execute(() -> {
+                arrived.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        try {
+            arrived.await();
+            task.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    // Resting orders of every book, best price first and oldest first within a level.
+    // Must only be called from a task passed to runWhilePaused().
+    public void forEachRestingOrder(Consumer<Order> consumer) {
+        for (OrderShard shard : shards) {
+            shard.forEachBook(book -> book.forEachRestingOrder(consumer));
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public void shutdown() {
+        for (OrderShard shard : shards) {
+            shard.stop();
+        }
+    }
+
+    private OrderShard shardFor(String symbol) {
+        int hash = symbol.hashCode();
+        hash ^= hash >>> 16;
+        return shards[(hash & 0x7fffffff) % shards.length];
+    }
+}
@@ -0,0 +1,176 @@
+package onlinestockbrokeragesystem.orderbook;
+
+import onlinestockbrokeragesystem.Order;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Price-time priority limit order book for a single symbol. Not thread-safe:
+// every call for a symbol must come from the same thread (or be externally serialized).
+public class OrderBook {
+    private static final int INITIAL_LEVELS = 64;
+
+    private final String symbol;
+    private final FillListener fillListener;
+    private final BookListener bookListener;
+    private final BookSide bids;
+    private final BookSide asks;
+    private final Map<String, OrderBookEntry> restingOrders;
+    private final ArrayDeque<OrderBookEntry> freeEntries;
+    private final ArrayDeque<PriceLevel> freeLevels;
+
+    public OrderBook(String symbol, FillListener fillListener) {
+        this(symbol, fillListener, BookListener.NONE);
+    }
+
+    public OrderBook(String symbol, FillListener fillListener, BookListener bookListener) {
+        this.symbol = symbol;
+        this.fillListener = fillListener;
+        this.bookListener = bookListener;
+        this.bids = new BookSide(true, INITIAL_LEVELS);
+        this.asks = new BookSide(false, INITIAL_LEVELS);
+        this.restingOrders = new HashMap<>();
+        this.freeEntries = new ArrayDeque<>();
+        this.freeLevels = new ArrayDeque<>();
+    }
+
+    // Matches the order against the opposite side and rests any remainder.
+    // Returns the quantity filled immediately.
+    public int submit(Order order) {
+        if (restingOrders.containsKey(order.getOrderId())) {
+            throw new IllegalArgumentException("Duplicate order id: " + order.getOrderId());
+        }
+        long limit = order.getPriceTicks();
+        BookSide opposite = order.isBuy() ? asks : bids;
+        int initial = order.getRemainingQuantity();
+        int remaining = initial;
+
+        while (remaining > 0 && !opposite.isEmpty()) {
+            PriceLevel level = opposite.best();
+            if (!opposite.crosses(level.price, limit)) {
+                break;
+            }
+            while (remaining > 0 && level.head != null) {
+                OrderBookEntry maker = level.head;
+                int quantity = Math.min(remaining, maker.remaining);
+                // The book only moves once the fill has been settled
+                fillListener.onFill(order, maker.order, level.price, quantity);
+                remaining -= quantity;
+                maker.remaining -= quantity;
+                level.totalQuantity -= quantity;
+                bookListener.onTrade(symbol, level.price, quantity);
+                if (maker.remaining == 0) {
+                    level.unlink(maker);
+                    restingOrders.remove(maker.order.getOrderId());
+                    recycle(maker);
+                }
+            }
+            bookListener.onLevelChange(symbol, !order.isBuy(), level.price, level.totalQuantity, level.orderCount);
+            if (level.isEmpty()) {
+                opposite.remove(level);
+                freeLevels.push(level);
+            }
+        }
+
+        int filled = initial - remaining;
+        if (remaining > 0) {
+            rest(order, limit, remaining);
+        }
+        bookListener.onBookUpdated(symbol);
+        return filled;
+    }
+
+    public boolean cancel(String orderId) {
+        OrderBookEntry entry = restingOrders.remove(orderId);
+        if (entry == null) {
+            return false;
+        }
+        PriceLevel level = entry.level;
+        BookSide side = entry.order.isBuy() ? bids : asks;
+        level.unlink(entry);
+        bookListener.onLevelChange(symbol, entry.order.isBuy(), level.price, level.totalQuantity, level.orderCount);
+        if (level.isEmpty()) {
+            side.remove(level);
+            freeLevels.push(level);
+        }
+        entry.order.cancel();
+        recycle(entry);
+        bookListener.onBookUpdated(symbol);
+        return true;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    OrderBookEntry lookup(String orderId) {
+        return restingOrders.get(orderId);
+    }
+
+    public boolean isResting(String orderId) {
+        return restingOrders.containsKey(orderId);
+    }
+
+    public void forEachRestingOrder(Consumer<Order> consumer) {
+        forEachRestingOrder(bids, consumer);
+        forEachRestingOrder(asks, consumer);
+    }
+
+    private static void forEachRestingOrder(BookSide side, Consumer<Order> consumer) {
+        for (int depth = 0; depth < side.size(); depth++) {
+            for (OrderBookEntry entry = side.levelAt(depth).head; entry != null; entry = entry.next) {
+                consumer.accept(entry.order);
+            }
+        }
+    }
+
+    public long getBestBid() {
+        PriceLevel best = bids.best();
+        return best == null ? 0 : best.price;
+    }
+
+    public long getBestAsk() {
+        PriceLevel best = asks.best();
+        return best == null ? 0 : best.price;
+    }
+
+    public int getBidDepth() {
+        return bids.size();
+    }
+
+    public int getAskDepth() {
+        return asks.size();
+    }
+
+    public long getBidQuantity(long price) {
+        PriceLevel level = bids.find(price);
+        return level == null ? 0 : level.totalQuantity;
+    }
+
+    public long getAskQuantity(long price) {
+        PriceLevel level = asks.find(price);
+        return level == null ? 0 : level.totalQuantity;
+    }
+
+    private void rest(Order order, long price, int remaining) {
+        BookSide side = order.isBuy() ? bids : asks;
+        PriceLevel level = side.find(price);
+        if (level == null) {
+            // Only a new price needs a level, so resting at an existing price allocates nothing
+            level = side.getOrCreate(price, freeLevels.isEmpty() ? new PriceLevel() : freeLevels.pop());
+        }
+        OrderBookEntry entry = freeEntries.isEmpty() ? new OrderBookEntry() : freeEntries.pop();
+        entry.order = order;
+        entry.remaining = remaining;
+        level.append(entry);
+        restingOrders.put(order.getOrderId(), entry);
+        bookListener.onLevelChange(symbol, order.isBuy(), price, level.totalQuantity, level.orderCount);
+    }
+
+    private void recycle(OrderBookEntry entry) {
+        entry.clear();
+        freeEntries.push(entry);
+    }
+}
@@ -0,0 +1,62 @@
+package onlinestockbrokeragesystem.orderbook;
+
+import onlinestockbrokeragesystem.Account;
+import onlinestockbrokeragesystem.BuyOrder;
+import onlinestockbrokeragesystem.Order;
+import onlinestockbrokeragesystem.SellOrder;
+import onlinestockbrokeragesystem.Stock;
+import onlinestockbrokeragesystem.User;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Single-core match latency of OrderBook on synthetic flow around a fixed mid price.
+// Orders are created up front so that only book work is timed.
+public class OrderBookBenchmark {
+    private static final int ORDERS = 1_000_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final double MID_PRICE = 100.0;
+
+    public static void run() {
+        Stock stock = new Stock("BENCH", "Benchmark Corp.", MID_PRICE);
+        Account account = new Account("BENCH", new User("B", "Bench", ""), Double.MAX_VALUE);
+
+        long[] latencies = new long[ORDERS];
+        long fills = 0;
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            Order[] orders = generate(account, stock, round);
+            long[] fillCount = new long[1];
+            OrderBook book = new OrderBook("BENCH", (taker, maker, price, quantity) -> fillCount[0]++);
+            for (int i = 0; i < ORDERS; i++) {
+                Order order = orders[i];
+                long start = System.nanoTime();
+                book.submit(order);
+                if ((i & 7) == 0 && i >= 64) {
+                    book.cancel(orders[i - 64].getOrderId());
+                }
+                latencies[i] = System.nanoTime() - start;
+            }
+            fills = fillCount[0];
+        }
+
+        Arrays.sort(latencies);
+        System.out.printf("Orders: %,d, fills: %,d%n", ORDERS, fills);
+        System.out.printf("Submit latency: p50=%dns p90=%dns p99=%dns p99.9=%dns max=%dns%n",
+                latencies[ORDERS / 2], latencies[(int) (ORDERS * 0.9)], latencies[(int) (ORDERS * 0.99)],
+                latencies[(int) (ORDERS * 0.999)], latencies[ORDERS - 1]);
+    }
+
+    private static Order[] generate(Account account, Stock stock, int round) {
+        SplittableRandom random = new SplittableRandom(round);
+        Order[] orders = new Order[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            double price = MID_PRICE + (random.nextInt(21) - 10) / 100.0;
+            int quantity = 1 + random.nextInt(10);
+            String orderId = "R" + round + "-" + i;
+            orders[i] = random.nextBoolean()
+                    ? new BuyOrder(orderId, account, stock, quantity, price)
+                    : new SellOrder(orderId, account, stock, quantity, price);
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,20 @@
+package onlinestockbrokeragesystem.orderbook;
+
+import onlinestockbrokeragesystem.Order;
+
+// Intrusive FIFO node for a resting order; recycled by the owning book.
+class OrderBookEntry {
+    Order order;
+    int remaining;
+    PriceLevel level;
+    OrderBookEntry prev;
+    OrderBookEntry next;
+
+    void clear() {
+        order = null;
+        level = null;
+        prev = null;
+        next = null;
+        remaining = 0;
+    }
+}
@@ -0,0 +1,15 @@
+package onlinestockbrokeragesystem.orderbook;
+
+import onlinestockbrokeragesystem.Order;
+
+public interface OrderListener {
+    // Called on the owning shard thread just before the command is applied to the book,
+    // so per-symbol call order is exactly the order in which books change.
+    void onSubmit(Order order);
+
+    void onCancel(String symbol, String orderId);
+
+    // Called on the shard thread once the order has been matched and any remainder rested.
+    default void onProcessed(Order order) {
+    }
+}
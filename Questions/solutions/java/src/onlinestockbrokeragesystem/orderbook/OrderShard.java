@@ -0,0 +1,178 @@
+package onlinestockbrokeragesystem.orderbook;
+
+import onlinestockbrokeragesystem.Order;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// Owns the order books of a subset of symbols. Only the shard thread ever touches
+// those books, so they are mutated without locks; other threads talk to the shard
+// through its inbound queue.
+class OrderShard implements Runnable {
+    private static final int SPINS_BEFORE_PARK = 1_000;
+
+    private final int index;
+    private final FillListener fillListener;
+    private final OrderListener orderListener;
+    private final BookListener bookListener;
+    private final Map<String, OrderBook> books;
+    private final Queue<Command> inbound;
+    private volatile boolean running;
+    private volatile boolean parked;
+    private Thread thread;
+
+    OrderShard(int index, FillListener fillListener, OrderListener orderListener, BookListener bookListener) {
+        this.index = index;
+        this.fillListener = fillListener;
+        this.orderListener = orderListener;
+        this.bookListener = bookListener;
+        this.books = new HashMap<>();
+        this.inbound = new ConcurrentLinkedQueue<>();
+    }
+
+    void start() {
+        running = true;
+        thread = new Thread(this, "order-shard-" + index);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    CompletableFuture<Order> submit(Order order) {
+        Command command = new Command(order, null, null, null);
+        enqueue(command);
+        return command.future;
+    }
+
+    CompletableFuture<Order> cancel(String symbol, String orderId) {
+        Command command = new Command(null, symbol, orderId, null);
+        enqueue(command);
+        return command.future;
+    }
+
+    // Runs the task on the shard thread, in order with the orders queued before it.
+    CompletableFuture<Order> execute(Runnable task) {
+        Command command = new Command(null, null, null, task);
+        enqueue(command);
+        return command.future;
+    }
+
+    // Only safe while the shard thread is known to be blocked, e.g. inside a task passed to execute().
+    void forEachBook(Consumer<OrderBook> consumer) {
+        books.values().forEach(consumer);
+    }
+
+    private void enqueue(Command command) {
+        inbound.offer(command);
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public void run() {
+        int idle = 0;
+        while (running) {
+            Command command = inbound.poll();
+            if (command == null) {
+                if (++idle < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    parked = true;
+                    if (inbound.isEmpty() && running) {
+                        LockSupport.park(this);
+                    }
+                    parked = false;
+                    idle = 0;
+                }
+                continue;
+            }
+            idle = 0;
+            process(command);
+        }
+    }
+
+    private void process(Command command) {
+        try {
+            if (command.task != null) {
+                command.task.run();
+                command.future.complete(null);
+            } else if (command.order != null) {
+                OrderBook book = bookFor(command.order.getStock().getSymbol());
+                // A reused id would overwrite the resting order's entry, so turn it away before it is journaled
+                if (book.isResting(command.order.getOrderId())) {
+                    command.order.reject();
+                    command.future.complete(command.order);
+                    return;
+                }
+                try {
+                    orderListener.onSubmit(command.order);
+                    book.submit(command.order);
+                } catch (RuntimeException e) {
+                    releaseUnrested(book, command.order);
+                    throw e;
+                }
+                orderListener.onProcessed(command.order);
+                command.future.complete(command.order);
+            } else {
+                orderListener.onCancel(command.symbol, command.orderId);
+                OrderBook book = books.get(command.symbol);
+                OrderBookEntry entry = book == null ? null : book.lookup(command.orderId);
+                Order order = entry == null ? null : entry.order;
+                if (order != null) {
+                    book.cancel(command.orderId);
+                }
+                command.future.complete(order);
+            }
+        } catch (RuntimeException e) {
+            command.future.completeExceptionally(e);
+        }
+    }
+
+    // A submit that failed part way must not leave the order holding a reservation nobody can
+    // cancel: an order that never traded is rejected, and the open part of a partly filled one is
+    // released. An order that already rested stays in the book and can be cancelled as usual.
+    private static void releaseUnrested(OrderBook book, Order order) {
+        if (book.isResting(order.getOrderId()) || order.getRemainingQuantity() == 0) {
+            return;
+        }
+        if (order.getFilledQuantity() == 0) {
+            order.reject();
+        } else {
+            order.cancel();
+        }
+    }
+
+    private OrderBook bookFor(String symbol) {
+        OrderBook book = books.get(symbol);
+        if (book == null) {
+            book = new OrderBook(symbol, fillListener, bookListener);
+            books.put(symbol, book);
+        }
+        return book;
+    }
+
+    private static final class Command {
+        private final Order order;
+        private final String symbol;
+        private final String orderId;
+        private final Runnable task;
+        private final CompletableFuture<Order> future = new CompletableFuture<>();
+
+        private Command(Order order, String symbol, String orderId, Runnable task) {
+            this.order = order;
+            this.symbol = symbol;
+            this.orderId = orderId;
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package onlinestockbrokeragesystem.orderbook;
+
+// Resting orders at one price, oldest first.
+class PriceLevel {
+    long price;
+    long totalQuantity;
+    int orderCount;
+    OrderBookEntry head;
+    OrderBookEntry tail;
+
+    void append(OrderBookEntry entry) {
+        entry.level = this;
+        entry.prev = tail;
+        entry.next = null;
+        if (tail == null) {
+            head = entry;
+        } else {
+            tail.next = entry;
+        }
+        tail = entry;
+        totalQuantity += entry.remaining;
+        orderCount++;
+    }
+
+    void unlink(OrderBookEntry entry) {
+        if (entry.prev == null) {
+            head = entry.next;
+        } else {
+            entry.prev.next = entry.next;
+        }
+        if (entry.next == null) {
+            tail = entry.prev;
+        } else {
+            entry.next.prev = entry.prev;
+        }
+        totalQuantity -= entry.remaining;
+        orderCount--;
+    }
+
+    boolean isEmpty() {
+        return head == null;
+    }
+
+    void reset(long price) {
+        this.price = price;
+        totalQuantity = 0;
+        orderCount = 0;
+        head = null;
+        tail = null;
+    }
+}
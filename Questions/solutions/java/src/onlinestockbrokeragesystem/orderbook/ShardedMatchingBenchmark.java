@@ -0,0 +1,88 @@
+package onlinestockbrokeragesystem.orderbook;
+
+import onlinestockbrokeragesystem.Account;
+import onlinestockbrokeragesystem.BuyOrder;
+import onlinestockbrokeragesystem.Order;
+import onlinestockbrokeragesystem.SellOrder;
+import onlinestockbrokeragesystem.Stock;
+import onlinestockbrokeragesystem.User;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Throughput of MatchingEngine as the number of shards grows, with producers
+// spread over many symbols.
+public class ShardedMatchingBenchmark {
+    private static final int SYMBOLS = 64;
+    private static final int ORDERS_PER_PRODUCER = 250_000;
+
+    public static void run() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int shards = 1; shards <= Math.max(1, cores); shards *= 2) {
+            measure(shards, Math.max(1, cores));
+        }
+    }
+
+    private static void measure(int shardCount, int producers) {
+        Stock[] stocks = new Stock[SYMBOLS];
+        for (int i = 0; i < SYMBOLS; i++) {
+            stocks[i] = new Stock("SYM" + i, "Symbol " + i, 100.0);
+        }
+        Account account = new Account("BENCH", new User("B", "Bench", ""), Double.MAX_VALUE);
+        Order[][] flows = new Order[producers][];
+        for (int p = 0; p < producers; p++) {
+            flows[p] = generate(account, stocks, p);
+        }
+
+        AtomicLong fills = new AtomicLong();
+        MatchingEngine engine = new MatchingEngine((taker, maker, price, quantity) -> fills.incrementAndGet(), shardCount);
+        Thread[] threads = new Thread[producers];
+        long start = System.nanoTime();
+        for (int p = 0; p < producers; p++) {
+            Order[] flow = flows[p];
+            threads[p] = new Thread(() -> {
+                CompletableFuture<?> last = null;
+                for (Order order : flow) {
+                    last = engine.submit(order);
+                }
+                if (last != null) {
+                    last.join();
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Drain every shard so all submitted orders are accounted for.
+        for (Stock stock : stocks) {
+            engine.cancel(stock.getSymbol(), "").join();
+        }
+        long elapsed = System.nanoTime() - start;
+        engine.shutdown();
+
+        long orders = (long) producers * ORDERS_PER_PRODUCER;
+        System.out.printf("shards=%d producers=%d: %,.0f orders/sec (%,d fills)%n",
+                shardCount, producers, orders / (elapsed / 1e9), fills.get());
+    }
+
+    private static Order[] generate(Account account, Stock[] stocks, int producer) {
+        SplittableRandom random = new SplittableRandom(producer);
+        Order[] orders = new Order[ORDERS_PER_PRODUCER];
+        for (int i = 0; i < ORDERS_PER_PRODUCER; i++) {
+            Stock stock = stocks[random.nextInt(stocks.length)];
+            double price = 100.0 + (random.nextInt(21) - 10) / 100.0;
+            int quantity = 1 + random.nextInt(10);
+            String orderId = "P" + producer + "-" + i;
+            orders[i] = random.nextBoolean()
+                    ? new BuyOrder(orderId, account, stock, quantity, price)
+                    : new SellOrder(orderId, account, stock, quantity, price);
+        }
+        return orders;
+    }
+}
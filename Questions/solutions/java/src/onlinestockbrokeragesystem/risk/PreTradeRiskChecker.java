@@ -0,0 +1,89 @@
+package onlinestockbrokeragesystem.risk;
+
+import onlinestockbrokeragesystem.Order;
+import onlinestockbrokeragesystem.Price;
+import onlinestockbrokeragesystem.RiskLimitExceededException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs on the order entry thread before an order reaches its shard. Every check is O(1) and
+// lock-free: static limits are plain comparisons, the rate limit is one compare-and-set and the
+// position, cash and share reservations are compare-and-set loops on the account's counters.
+//
+// The rate limit gives every account an order clock. Each accepted order books the next
+// order interval on it, and the clock may run at most burst - 1 intervals ahead of now, so
+// an idle account can send a burst and a busy one settles at the configured rate.
+public class PreTradeRiskChecker {
+    private final RiskLimits limits;
+    private final long orderIntervalNanos;
+    private final long maxBookedAheadNanos;
+    private final Map<String, AtomicLong> orderClocks = new ConcurrentHashMap<>();
+
+    public PreTradeRiskChecker(RiskLimits limits) {
+        this.limits = limits;
+        this.orderIntervalNanos = limits.getMaxOrdersPerSecond() == Integer.MAX_VALUE
+                ? 0 : 1_000_000_000L / limits.getMaxOrdersPerSecond();
+        this.maxBookedAheadNanos = orderIntervalNanos * (limits.getOrderBurst() - 1);
+    }
+
+    // Throws RiskLimitExceededException, InsufficientFundsException or InsufficientStockException
+    // when the order must be rejected; on return the order's cash or shares are reserved.
+    public void check(Order order, long nowNanos) {
+        if (order.getQuantity() <= 0) {
+            throw new RiskLimitExceededException("Order quantity must be positive.");
+        }
+        if (order.getQuantity() > limits.getMaxOrderQuantity()) {
+            throw new RiskLimitExceededException("Order quantity exceeds the maximum order size.");
+        }
+        if (Price.notional(order.getPriceTicks(), order.getQuantity()) > limits.getMaxOrderNotionalMinorUnits()) {
+            throw new RiskLimitExceededException("Order value exceeds the maximum order notional.");
+        }
+        AtomicLong orderClock = null;
+        if (orderIntervalNanos > 0) {
+            orderClock = orderClockOf(order.getAccount().getAccountId());
+            if (!tryBookOrderInterval(orderClock, nowNanos)) {
+                throw new RiskLimitExceededException("Order rate limit exceeded.");
+            }
+        }
+        try {
+            order.reserve(limits.getMaxPosition());
+        } catch (RuntimeException e) {
+            // A rejected order does not count against the rate
+            if (orderClock != null) {
+                orderClock.addAndGet(-orderIntervalNanos);
+            }
+            throw e;
+        }
+    }
+
+    public RiskLimits getLimits() {
+        return limits;
+    }
+
+    private AtomicLong orderClockOf(String accountId) {
+        AtomicLong orderClock = orderClocks.get(accountId);
+        if (orderClock == null) {
+            orderClock = orderClocks.computeIfAbsent(accountId, id -> new AtomicLong(Long.MIN_VALUE));
+        }
+        return orderClock;
+    }
+
+    // An idle clock has fallen behind now, so the new interval starts at now rather than
+    // where the clock stands.
+    private boolean tryBookOrderInterval(AtomicLong orderClock, long now) {
+        long bookedUntil = orderClock.get();
+        while (true) {
+            long intervalStart = Math.max(bookedUntil, now);
+            if (intervalStart - now > maxBookedAheadNanos) {
+                return false;
+            }
+            long witness = orderClock.compareAndExchange(bookedUntil, intervalStart + orderIntervalNanos);
+            if (witness == bookedUntil) {
+                return true;
+            }
+            bookedUntil = witness;
+        }
+    }
+}
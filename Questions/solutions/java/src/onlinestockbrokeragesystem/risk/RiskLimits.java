@@ -0,0 +1,54 @@
+package onlinestockbrokeragesystem.risk;
+
+// Pre-trade limits applied broker-wide: one set covers every account, and each account is
+// checked against it on its own (its own position and its own order rate). Every limit
+// defaults to unlimited.
+public class RiskLimits {
+    private int maxOrderQuantity = Integer.MAX_VALUE;
+    private long maxOrderNotionalMinorUnits = Long.MAX_VALUE;
+    private long maxPosition = Long.MAX_VALUE;
+    private int maxOrdersPerSecond = Integer.MAX_VALUE;
+    private int orderBurst = 1;
+
+    public RiskLimits setMaxOrderQuantity(int maxOrderQuantity) {
+        this.maxOrderQuantity = maxOrderQuantity;
+        return this;
+    }
+
+    public RiskLimits setMaxOrderNotionalMinorUnits(long maxOrderNotionalMinorUnits) {
+        this.maxOrderNotionalMinorUnits = maxOrderNotionalMinorUnits;
+        return this;
+    }
+
+    // Largest number of shares of one symbol an account may hold, counting open buy orders.
+    public RiskLimits setMaxPosition(long maxPosition) {
+        this.maxPosition = maxPosition;
+        return this;
+    }
+
+    public RiskLimits setOrderRate(int maxOrdersPerSecond, int orderBurst) {
+        this.maxOrdersPerSecond = maxOrdersPerSecond;
+        this.orderBurst = orderBurst;
+        return this;
+    }
+
+    public int getMaxOrderQuantity() {
+        return maxOrderQuantity;
+    }
+
+    public long getMaxOrderNotionalMinorUnits() {
+        return maxOrderNotionalMinorUnits;
+    }
+
+    public long getMaxPosition() {
+        return maxPosition;
+    }
+
+    public int getMaxOrdersPerSecond() {
+        return maxOrdersPerSecond;
+    }
+
+    public int getOrderBurst() {
+        return orderBurst;
+    }
+}
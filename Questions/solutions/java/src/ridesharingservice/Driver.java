@@ -1,20 +1,29 @@
 package ridesharingservice;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
 public class Driver {
     private int id;
     private String name;
     private String contact;
     private String licensePlate;
-    private Location location;
-    private DriverStatus status;
+    // Set by setLocation. setPosition only writes the raw coordinates and clears it, so the
+    // ingestion path allocates nothing; getLocation then builds a Location on demand.
+    private volatile Location location;
+    private volatile double latitude;
+    private volatile double longitude;
+    private final AtomicReference<DriverStatus> status;
+    // Cell and bucket the surge engine last counted this driver in; see SurgePricingEngine.recordSupply.
+    private final AtomicLong supplyMarker = new AtomicLong(Long.MIN_VALUE);
 
     public Driver(int id, String name, String contact, String licensePlate, Location location, DriverStatus status) {
         this.id = id;
         this.name = name;
         this.contact = contact;
         this.licensePlate = licensePlate;
-        this.location = location;
-        this.status = status;
+        setLocation(location);
+        this.status = new AtomicReference<>(status);
     }
 
     public void setId(int id) {
@@ -34,11 +43,23 @@ public class Driver {
     }
 
     public void setLocation(Location location) {
+        latitude = location == null ? Double.NaN : location.getLatitude();
+        longitude = location == null ? Double.NaN : location.getLongitude();
         this.location = location;
     }
 
+    public void setPosition(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.location = null;
+    }
+
     public void setStatus(DriverStatus status) {
-        this.status = status;
+        this.status.set(status);
+    }
+
+    public boolean compareAndSetStatus(DriverStatus expected, DriverStatus status) {
+        return this.status.compareAndSet(expected, status);
     }
 
     public int getId() {
@@ -58,10 +79,27 @@ public class Driver {
     }
 
     public Location getLocation() {
-        return location;
+        Location current = location;
+        if (current != null || Double.isNaN(latitude)) {
+            return current;
+        }
+        return new Location(latitude, longitude);
+    }
+
+    // NaN while the driver has no position.
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public AtomicLong getSupplyMarker() {
+        return supplyMarker;
     }
 
     public DriverStatus getStatus() {
-        return status;
+        return status.get();
     }
 }
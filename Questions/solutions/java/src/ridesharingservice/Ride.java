@@ -1,36 +1,53 @@
 package ridesharingservice;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 public class Ride {
     private final int id;
     private final Passenger passenger;
-    private Driver driver;
     private final Location source;
     private final Location destination;
-    private RideStatus status;
-    private double fare;
+    private final AtomicReference<State> state;
+    private volatile double fare;
+    private volatile double surgeMultiplier = 1.0;
 
     public Ride(int id, Passenger passenger, Driver driver, Location source, Location destination, RideStatus status, double fare) {
         this.id = id;
         this.passenger = passenger;
-        this.driver = driver;
         this.source = source;
         this.destination = destination;
-        this.status = status;
+        this.state = new AtomicReference<>(new State(status, driver));
         this.fare = fare;
     }
 
-    public void setDriver(Driver driver) {
-        this.driver = driver;
+    // Moves the ride to the target status if the transition table allows it from the
+    // current status. Status and driver change together in a single compare-and-set,
+    // so concurrent callers racing for the same transition produce exactly one winner.
+    public boolean transitionTo(RideStatus target, Driver driver) {
+        while (true) {
+            State current = state.get();
+            if (!current.status.canTransitionTo(target)) {
+                return false;
+            }
+            Driver nextDriver = driver != null ? driver : current.driver;
+            if (state.compareAndSet(current, new State(target, nextDriver))) {
+                return true;
+            }
+        }
     }
 
-    public void setStatus(RideStatus status) {
-        this.status = status;
+    public boolean transitionTo(RideStatus target) {
+        return transitionTo(target, null);
     }
 
     public void setFare(double fare) {
         this.fare = fare;
     }
 
+    public void setSurgeMultiplier(double surgeMultiplier) {
+        this.surgeMultiplier = surgeMultiplier;
+    }
+
     public int getId() {
         return id;
     }
@@ -40,7 +57,7 @@ public class Ride {
     }
 
     public Driver getDriver() {
-        return driver;
+        return state.get().driver;
     }
 
     public Location getSource() {
@@ -52,10 +69,24 @@ public class Ride {
     }
 
     public RideStatus getStatus() {
-        return status;
+        return state.get().status;
     }
 
     public double getFare() {
         return fare;
     }
+
+    public double getSurgeMultiplier() {
+        return surgeMultiplier;
+    }
+
+    private static final class State {
+        private final RideStatus status;
+        private final Driver driver;
+
+        private State(RideStatus status, Driver driver) {
+            this.status = status;
+            this.driver = driver;
+        }
+    }
 }
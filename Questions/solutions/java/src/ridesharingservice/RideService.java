@@ -1,22 +1,59 @@
 package ridesharingservice;
 
+import ridesharingservice.geo.DriverLocationIndex;
+import ridesharingservice.geo.GeoUtils;
+import ridesharingservice.geo.NearbyDriver;
+import ridesharingservice.ingest.DriverLocationIngestor;
+import ridesharingservice.ingest.LocationSnapshot;
+import ridesharingservice.ingest.LocationSnapshotListener;
+import ridesharingservice.pricing.SurgePricingEngine;
+import ridesharingservice.routing.CachingRouteEstimator;
+import ridesharingservice.routing.RouteEstimate;
+import ridesharingservice.routing.RouteEstimator;
+import ridesharingservice.routing.StraightLineRouteEstimator;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class RideService {
+    private static final double DRIVER_CELL_SIZE_KM = 1.0;
+    private static final double NOTIFY_RADIUS_KM = 5.0;
+    private static final double ROUTE_CELL_SIZE_KM = 0.25;
+    private static final long ROUTE_TIME_BUCKET_MILLIS = 15 * 60 * 1000;
+    private static final int ROUTE_CACHE_CAPACITY = 100_000;
+
     private static RideService instance;
     private final Map<Integer, Passenger> passengers;
     private final Map<Integer, Driver> drivers;
     private final Map<Integer, Ride> rides;
     private final Queue<Ride> requestedRides;
+    private final DriverLocationIndex driverIndex;
+    private final AtomicInteger nextRideId;
+    // Bumped whenever a driver is added, so ingestion listeners re-resolve their slot caches.
+    private final AtomicInteger driverGeneration;
+    private volatile SurgePricingEngine surgePricingEngine;
+    private volatile RouteEstimator routeEstimator;
+    private volatile Clock clock;
+    private volatile boolean notificationsEnabled;
 
     private RideService() {
         passengers = new ConcurrentHashMap<>();
         drivers = new ConcurrentHashMap<>();
         rides = new ConcurrentHashMap<>();
         requestedRides = new ConcurrentLinkedQueue<>();
+        driverIndex = new DriverLocationIndex(DRIVER_CELL_SIZE_KM);
+        nextRideId = new AtomicInteger();
+        driverGeneration = new AtomicInteger();
+        clock = Clock.systemUTC();
+        notificationsEnabled = true;
+        routeEstimator = new CachingRouteEstimator(new StraightLineRouteEstimator(1.3, 30.0),
+                ROUTE_CELL_SIZE_KM, ROUTE_TIME_BUCKET_MILLIS, ROUTE_CACHE_CAPACITY);
     }
 
     public static synchronized RideService getInstance() {
@@ -30,68 +67,141 @@ public class RideService {
         passengers.put(passenger.getId(), passenger);
     }
 
+    // Creates a service independent of the shared instance, e.g. for simulations and benchmarks.
+    public static RideService newInstance() {
+        return new RideService();
+    }
+
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    public void setNotificationsEnabled(boolean notificationsEnabled) {
+        this.notificationsEnabled = notificationsEnabled;
+    }
+
+    public void setSurgePricingEngine(SurgePricingEngine surgePricingEngine) {
+        this.surgePricingEngine = surgePricingEngine;
+    }
+
+    public void setRouteEstimator(RouteEstimator routeEstimator) {
+        this.routeEstimator = routeEstimator;
+    }
+
+    public RouteEstimator getRouteEstimator() {
+        return routeEstimator;
+    }
+
     public void addDriver(Driver driver) {
         drivers.put(driver.getId(), driver);
+        driverGeneration.incrementAndGet();
+        driverIndex.update(driver);
+        if (driver.getStatus() == DriverStatus.AVAILABLE) {
+            recordSupply(driver);
+        }
+    }
+
+    // Location pings double as a heartbeat, so idle drivers keep counting as supply in the
+    // cell they are actually in for as long as they stay available. The surge engine counts
+    // each driver once per cell and bucket, so the ping rate does not inflate supply.
+    public void updateDriverLocation(Driver driver, Location location) {
+        driver.setLocation(location);
+        driverIndex.update(driver);
+        if (driver.getStatus() == DriverStatus.AVAILABLE) {
+            recordSupply(driver);
+        }
+    }
+
+    // Routes every snapshot the ingestor publishes into the driver index, so matching and
+    // nearby-driver queries see ingested GPS positions.
+    public void connectLocationIngestor(DriverLocationIngestor ingestor) {
+        ingestor.addListener(new IngestedLocationApplier());
     }
 
-    public void requestRide(Passenger passenger, Location source, Location destination) {
+    public List<NearbyDriver> findNearestDrivers(Location location, int count, double maxRadiusKm) {
+        return driverIndex.findNearestAvailable(location, count, maxRadiusKm);
+    }
+
+    public Ride requestRide(Passenger passenger, Location source, Location destination) {
         Ride ride = new Ride(generateRideId(), passenger, null, source, destination, RideStatus.REQUESTED, 0.0);
+        SurgePricingEngine surge = surgePricingEngine;
+        if (surge != null) {
+            surge.recordDemand(source, clock.millis());
+            ride.setSurgeMultiplier(surge.getMultiplier(source));
+        }
+        rides.put(ride.getId(), ride);
         requestedRides.offer(ride);
         notifyDrivers(ride);
+        return ride;
     }
 
-    public void acceptRide(Driver driver, Ride ride) {
-        if (ride.getStatus() == RideStatus.REQUESTED) {
-            ride.setDriver(driver);
-            ride.setStatus(RideStatus.ACCEPTED);
-            driver.setStatus(DriverStatus.BUSY);
-            notifyPassenger(ride);
+    // The driver is claimed first so that a driver can never hold two rides; if the ride
+    // was taken by someone else in the meantime the claim is rolled back.
+    public boolean acceptRide(Driver driver, Ride ride) {
+        if (!driver.compareAndSetStatus(DriverStatus.AVAILABLE, DriverStatus.BUSY)) {
+            return false;
         }
+        if (!ride.transitionTo(RideStatus.ACCEPTED, driver)) {
+            driver.compareAndSetStatus(DriverStatus.BUSY, DriverStatus.AVAILABLE);
+            return false;
+        }
+        notifyPassenger(ride);
+        return true;
     }
 
-    public void startRide(Ride ride) {
-        if (ride.getStatus() == RideStatus.ACCEPTED) {
-            ride.setStatus(RideStatus.IN_PROGRESS);
-            notifyPassenger(ride);
+    public boolean startRide(Ride ride) {
+        if (!ride.transitionTo(RideStatus.IN_PROGRESS)) {
+            return false;
         }
+        notifyPassenger(ride);
+        return true;
     }
 
-    public void completeRide(Ride ride) {
-        if (ride.getStatus() == RideStatus.IN_PROGRESS) {
-            ride.setStatus(RideStatus.COMPLETED);
-            ride.getDriver().setStatus(DriverStatus.AVAILABLE);
-            double fare = calculateFare(ride);
-            ride.setFare(fare);
-            processPayment(ride, fare);
-            notifyPassenger(ride);
-            notifyDriver(ride);
+    public boolean completeRide(Ride ride) {
+        if (!ride.transitionTo(RideStatus.COMPLETED)) {
+            return false;
+        }
+        if (ride.getDriver().compareAndSetStatus(DriverStatus.BUSY, DriverStatus.AVAILABLE)) {
+            recordSupply(ride.getDriver());
         }
+        double fare = calculateFare(ride);
+        ride.setFare(fare);
+        processPayment(ride, fare);
+        notifyPassenger(ride);
+        notifyDriver(ride);
+        return true;
     }
 
-    public void cancelRide(Ride ride) {
-        if (ride.getStatus() == RideStatus.REQUESTED || ride.getStatus() == RideStatus.ACCEPTED) {
-            ride.setStatus(RideStatus.CANCELLED);
-            if (ride.getDriver() != null) {
-                ride.getDriver().setStatus(DriverStatus.AVAILABLE);
-            }
-            notifyPassenger(ride);
-            notifyDriver(ride);
+    public boolean cancelRide(Ride ride) {
+        if (!ride.transitionTo(RideStatus.CANCELLED)) {
+            return false;
         }
+        if (ride.getDriver() != null && ride.getDriver().compareAndSetStatus(DriverStatus.BUSY, DriverStatus.AVAILABLE)) {
+            recordSupply(ride.getDriver());
+        }
+        notifyPassenger(ride);
+        notifyDriver(ride);
+        return true;
     }
 
     private void notifyDrivers(Ride ride) {
-        for (Driver driver : drivers.values()) {
-            if (driver.getStatus() == DriverStatus.AVAILABLE) {
-                double distance = calculateDistance(driver.getLocation(), ride.getSource());
-                if (distance <= 5.0) { // Notify drivers within 5 km radius
-                    // Send notification to the driver
-                    System.out.println("Notifying driver: " + driver.getName() + " about ride request: " + ride.getId());
-                }
-            }
+        if (!notificationsEnabled) {
+            return;
+        }
+        for (NearbyDriver nearby : driverIndex.findAvailableWithin(ride.getSource(), NOTIFY_RADIUS_KM)) {
+            // Send notification to the driver
+            System.out.println("Notifying driver: " + nearby.getDriver().getName() + " about ride request: " + ride.getId());
         }
     }
 
     private void notifyPassenger(Ride ride) {
+        if (!notificationsEnabled) {
+            return;
+        }
         // Notify the passenger about ride status updates
         // ...
         Passenger passenger = ride.getPassenger();
@@ -115,6 +225,9 @@ public class RideService {
     }
 
     private void notifyDriver(Ride ride) {
+        if (!notificationsEnabled) {
+            return;
+        }
         Driver driver = ride.getDriver();
         if (driver != null) {
             String message = "";
@@ -136,24 +249,32 @@ public class RideService {
         double perKmFare = 1.5;
         double perMinuteFare = 0.25;
 
-        double distance = calculateDistance(ride.getSource(), ride.getDestination());
-        double duration = calculateDuration(ride.getSource(), ride.getDestination());
+        RouteEstimate route = routeEstimator.estimate(ride.getSource(), ride.getDestination(), clock.millis());
+        double distance = route.getDistanceKm();
+        double duration = route.getDurationMinutes();
 
-        double fare = baseFare + (distance * perKmFare) + (duration * perMinuteFare);
+        double fare = (baseFare + (distance * perKmFare) + (duration * perMinuteFare)) * ride.getSurgeMultiplier();
         return Math.round(fare * 100.0) / 100.0; // Round to 2 decimal places
     }
 
-    public double calculateDistance(Location source, Location Destination) {
-        // Calculate the distance between two locations using a distance formula (e.g., Haversine formula)
-        // For simplicity, let's assume a random distance between 1 and 20 km
-        return Math.random() * 20 + 1;
+    public double calculateDistance(Location source, Location destination) {
+        return GeoUtils.haversineKm(source, destination);
+    }
+
+    public RouteEstimate estimateRoute(Location source, Location destination) {
+        return routeEstimator.estimate(source, destination, clock.millis());
     }
 
-    private double calculateDuration(Location source, Location destination) {
-        // Calculate the estimated duration between two locations based on distance and average speed
-        // For simplicity, let's assume an average speed of 30 km/h
-        double distance = calculateDistance(source, destination);
-        return (distance / 30) * 60; // Convert hours to minutes
+    public List<RouteEstimate> estimatePickups(List<Location> driverLocations, Location pickup) {
+        return routeEstimator.estimateToPickup(driverLocations, pickup, clock.millis());
+    }
+
+    private void recordSupply(Driver driver) {
+        SurgePricingEngine surge = surgePricingEngine;
+        double latitude = driver.getLatitude();
+        if (surge != null && !Double.isNaN(latitude)) {
+            surge.recordSupply(driver.getSupplyMarker(), latitude, driver.getLongitude(), clock.millis());
+        }
     }
 
     private void processPayment(Ride ride, double amount) {
@@ -162,7 +283,7 @@ public class RideService {
     }
 
     private int generateRideId() {
-        return (int) (System.currentTimeMillis() / 1000);
+        return nextRideId.incrementAndGet();
     }
 
     public Map<Integer, Ride> getRides() {
@@ -172,4 +293,42 @@ public class RideService {
     public Queue<Ride> getRequestedRides() {
         return requestedRides;
     }
+
+    // Runs on the ingestion thread. Only drivers that moved since the previous snapshot are
+    // touched, and each ingestor slot is resolved to its Driver once and cached. Positions are
+    // written as raw coordinates and the index is only restructured when a driver changes cell.
+    private class IngestedLocationApplier implements LocationSnapshotListener {
+        private Driver[] driversBySlot = new Driver[0];
+        private boolean[] resolved = new boolean[0];
+        private int generation = -1;
+
+        @Override
+        public void onSnapshot(LocationSnapshot snapshot, int[] changedSlots, int changedCount) {
+            int currentGeneration = driverGeneration.get();
+            if (snapshot.size() > driversBySlot.length) {
+                int capacity = Math.max(snapshot.size(), driversBySlot.length * 2);
+                driversBySlot = Arrays.copyOf(driversBySlot, capacity);
+                resolved = Arrays.copyOf(resolved, capacity);
+            }
+            if (currentGeneration != generation) {
+                Arrays.fill(resolved, false);
+                generation = currentGeneration;
+            }
+            for (int i = 0; i < changedCount; i++) {
+                int slot = changedSlots[i];
+                if (!resolved[slot]) {
+                    driversBySlot[slot] = drivers.get(snapshot.getDriverId(slot));
+                    resolved[slot] = true;
+                }
+                Driver driver = driversBySlot[slot];
+                if (driver != null) {
+                    driver.setPosition(snapshot.getLatitude(slot), snapshot.getLongitude(slot));
+                    driverIndex.update(driver);
+                    if (driver.getStatus() == DriverStatus.AVAILABLE) {
+                        recordSupply(driver);
+                    }
+                }
+            }
+        }
+    }
 }
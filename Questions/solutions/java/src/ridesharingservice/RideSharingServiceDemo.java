@@ -1,5 +1,11 @@
 package ridesharingservice;
 
+import ridesharingservice.geo.NearbyDriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class RideSharingServiceDemo {
     public static void run() {
         RideService rideService = RideService.getInstance();
@@ -16,6 +22,12 @@ public class RideSharingServiceDemo {
         rideService.addDriver(driver1);
         rideService.addDriver(driver2);
 
+        // Driver 2 moves closer to the city center
+        rideService.updateDriverLocation(driver2, new Location(37.7800, -122.4120));
+        for (NearbyDriver nearby : rideService.findNearestDrivers(passenger1.getLocation(), 2, 10.0)) {
+            System.out.printf("Nearby driver: %s (%.2f km)%n", nearby.getDriver().getName(), nearby.getDistanceKm());
+        }
+
         // Passenger 1 requests a ride
         rideService.requestRide(passenger1, passenger1.getLocation(), new Location(37.7887, -122.4098));
 
@@ -38,5 +50,29 @@ public class RideSharingServiceDemo {
 
         // Passenger 2 cancels the ride
         rideService.cancelRide(ride2);
+
+        // Several drivers race to accept the same ride; exactly one wins
+        Ride contested = rideService.requestRide(passenger1, passenger1.getLocation(), new Location(37.7887, -122.4098));
+        rideService.getRequestedRides().remove(contested);
+        AtomicInteger winners = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Driver racer = new Driver(10 + i, "Racer " + i, "", "", new Location(37.7750, -122.4190), DriverStatus.AVAILABLE);
+            rideService.addDriver(racer);
+            threads.add(new Thread(() -> {
+                if (rideService.acceptRide(racer, contested)) {
+                    winners.incrementAndGet();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        System.out.println("Drivers that won the contested ride: " + winners.get());
     }
 }
@@ -5,5 +5,15 @@ public enum RideStatus {
     ACCEPTED,
     IN_PROGRESS,
     COMPLETED,
-    CANCELLED
+    CANCELLED;
+
+    // Transition table shared by every ride lifecycle operation.
+    public boolean canTransitionTo(RideStatus target) {
+        return switch (this) {
+            case REQUESTED -> target == ACCEPTED || target == CANCELLED;
+            case ACCEPTED -> target == IN_PROGRESS || target == CANCELLED;
+            case IN_PROGRESS -> target == COMPLETED;
+            case COMPLETED, CANCELLED -> false;
+        };
+    }
 }
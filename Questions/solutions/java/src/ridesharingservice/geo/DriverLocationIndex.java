@@ -0,0 +1,135 @@
+package ridesharingservice.geo;
+
+import ridesharingservice.Driver;
+import ridesharingservice.DriverStatus;
+import ridesharingservice.Location;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Uniform lat/lon grid of driver buckets. Queries only visit the cells that
+// overlap the search radius, so cost depends on local density rather than
+// on the total number of drivers.
+public class DriverLocationIndex {
+    private final double cellSizeKm;
+    private final double cellSizeDegrees;
+    private final Map<Long, Set<Driver>> cells;
+    // Keyed by the Driver itself, so looking up a driver's cell boxes nothing.
+    private final Map<Driver, Long> driverCells;
+
+    public DriverLocationIndex(double cellSizeKm) {
+        if (cellSizeKm <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.cellSizeKm = cellSizeKm;
+        this.cellSizeDegrees = cellSizeKm / GeoUtils.KM_PER_DEGREE;
+        this.cells = new ConcurrentHashMap<>();
+        this.driverCells = new ConcurrentHashMap<>();
+    }
+
+    // Reads the driver's raw coordinates and only touches the cell maps when the driver crossed
+    // into another cell, so a ping that stays in its cell costs one lookup and allocates nothing.
+    public void update(Driver driver) {
+        double latitude = driver.getLatitude();
+        double longitude = driver.getLongitude();
+        if (Double.isNaN(latitude)) {
+            remove(driver);
+            return;
+        }
+        long newCell = cellKey(latIndex(latitude), lonIndex(longitude));
+        Long currentCell = driverCells.get(driver);
+        if (currentCell != null && currentCell == newCell) {
+            return;
+        }
+        driverCells.compute(driver, (key, oldCell) -> {
+            if (oldCell == null || oldCell != newCell) {
+                if (oldCell != null) {
+                    removeFromCell(oldCell, driver);
+                }
+                cells.compute(newCell, (cellKey, cell) -> {
+                    Set<Driver> drivers = cell != null ? cell : ConcurrentHashMap.newKeySet();
+                    drivers.add(driver);
+                    return drivers;
+                });
+            }
+            return newCell;
+        });
+    }
+
+    public void remove(Driver driver) {
+        driverCells.computeIfPresent(driver, (key, oldCell) -> {
+            removeFromCell(oldCell, driver);
+            return null;
+        });
+    }
+
+    public List<NearbyDriver> findAvailableWithin(Location center, double radiusKm) {
+        List<NearbyDriver> result = new ArrayList<>();
+        double lat = center.getLatitude();
+        double lon = center.getLongitude();
+        int centerLat = latIndex(lat);
+        int centerLon = lonIndex(lon);
+        int latRange = (int) Math.ceil(radiusKm / cellSizeKm);
+        double cosLat = Math.max(Math.cos(Math.toRadians(Math.min(90.0, Math.abs(lat) + latRange * cellSizeDegrees))), 1e-6);
+        int lonRange = (int) Math.min(Math.ceil(radiusKm / (cellSizeKm * cosLat)), 360.0 / cellSizeDegrees);
+
+        for (int i = centerLat - latRange; i <= centerLat + latRange; i++) {
+            for (int j = centerLon - lonRange; j <= centerLon + lonRange; j++) {
+                Set<Driver> cell = cells.get(cellKey(i, j));
+                if (cell == null) {
+                    continue;
+                }
+                for (Driver driver : cell) {
+                    if (driver.getStatus() != DriverStatus.AVAILABLE) {
+                        continue;
+                    }
+                    double distance = GeoUtils.haversineKm(lat, lon, driver.getLatitude(), driver.getLongitude());
+                    if (distance <= radiusKm) {
+                        result.add(new NearbyDriver(driver, distance));
+                    }
+                }
+            }
+        }
+        result.sort(Comparator.comparingDouble(NearbyDriver::getDistanceKm));
+        return result;
+    }
+
+    public List<NearbyDriver> findNearestAvailable(Location center, int k, double maxRadiusKm) {
+        double radiusKm = Math.min(cellSizeKm, maxRadiusKm);
+        while (true) {
+            List<NearbyDriver> candidates = findAvailableWithin(center, radiusKm);
+            // Every driver closer than the k-th candidate lies inside the searched radius.
+            if (candidates.size() >= k || radiusKm >= maxRadiusKm) {
+                return candidates.size() > k ? new ArrayList<>(candidates.subList(0, k)) : candidates;
+            }
+            radiusKm = Math.min(radiusKm * 2, maxRadiusKm);
+        }
+    }
+
+    public int size() {
+        return driverCells.size();
+    }
+
+    private void removeFromCell(long cellKey, Driver driver) {
+        cells.computeIfPresent(cellKey, (key, cell) -> {
+            cell.remove(driver);
+            return cell.isEmpty() ? null : cell;
+        });
+    }
+
+    private int latIndex(double latitude) {
+        return (int) Math.floor(latitude / cellSizeDegrees);
+    }
+
+    private int lonIndex(double longitude) {
+        return (int) Math.floor(longitude / cellSizeDegrees);
+    }
+
+    private static long cellKey(int latIndex, int lonIndex) {
+        return ((long) latIndex << 32) | (lonIndex & 0xffffffffL);
+    }
+}
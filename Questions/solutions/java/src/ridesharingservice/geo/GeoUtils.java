@@ -0,0 +1,26 @@
+package ridesharingservice.geo;
+
+import ridesharingservice.Location;
+
+public final class GeoUtils {
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+    public static final double KM_PER_DEGREE = Math.toRadians(1) * EARTH_RADIUS_KM;
+
+    private GeoUtils() {
+    }
+
+    public static double haversineKm(Location source, Location destination) {
+        return haversineKm(source.getLatitude(), source.getLongitude(),
+                destination.getLatitude(), destination.getLongitude());
+    }
+
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double sinLat = Math.sin(dLat / 2);
+        double sinLon = Math.sin(dLon / 2);
+        double a = sinLat * sinLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
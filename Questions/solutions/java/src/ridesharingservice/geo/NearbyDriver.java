@@ -0,0 +1,21 @@
+package ridesharingservice.geo;
+
+import ridesharingservice.Driver;
+
+public class NearbyDriver {
+    private final Driver driver;
+    private final double distanceKm;
+
+    public NearbyDriver(Driver driver, double distanceKm) {
+        this.driver = driver;
+        this.distanceKm = distanceKm;
+    }
+
+    public Driver getDriver() {
+        return driver;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+}
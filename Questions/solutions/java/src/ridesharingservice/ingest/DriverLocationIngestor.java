@@ -0,0 +1,153 @@
+package ridesharingservice.ingest;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Single-writer ingestion of driver GPS pings. ingest() and publish() must be
+// called from one ingestion thread; any number of threads may read snapshots.
+//
+// Pings are coalesced into the latest position per driver in primitive columns.
+// publish() copies only the drivers that moved into the idle snapshot buffer
+// and swaps it in, so readers never observe a half-applied batch.
+public class DriverLocationIngestor {
+    private final int capacity;
+    private final DriverSlotMap slots;
+    private final int[] driverIds;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final long[] timestamps;
+    private final long[] dirtyEpochs;
+    private final LocationSnapshot[] buffers;
+    private final List<LocationSnapshotListener> listeners;
+    private int[] currentDirty;
+    private int[] previousDirty;
+    private int currentDirtyCount;
+    private int previousDirtyCount;
+    private int slotCount;
+    private long epoch;
+    private volatile LocationSnapshot published;
+
+    private long pingsAccepted;
+    private long pingsCoalesced;
+    private long pingsStale;
+    private long pingsRejected;
+
+    public DriverLocationIngestor(int maxDrivers) {
+        capacity = maxDrivers;
+        slots = new DriverSlotMap(maxDrivers);
+        driverIds = new int[maxDrivers];
+        latitudes = new double[maxDrivers];
+        longitudes = new double[maxDrivers];
+        timestamps = new long[maxDrivers];
+        dirtyEpochs = new long[maxDrivers];
+        currentDirty = new int[maxDrivers];
+        previousDirty = new int[maxDrivers];
+        buffers = new LocationSnapshot[]{new LocationSnapshot(maxDrivers), new LocationSnapshot(maxDrivers)};
+        listeners = new CopyOnWriteArrayList<>();
+        epoch = 1;
+        published = buffers[0];
+    }
+
+    public void addListener(LocationSnapshotListener listener) {
+        listeners.add(listener);
+    }
+
+    public void ingest(LocationUpdateBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            int driverId = batch.getDriverId(i);
+            int slot = slots.get(driverId);
+            if (slot < 0) {
+                if (slotCount == capacity) {
+                    pingsRejected++;
+                    continue;
+                }
+                slot = slotCount++;
+                slots.put(driverId, slot);
+                driverIds[slot] = driverId;
+                timestamps[slot] = Long.MIN_VALUE;
+            }
+
+            long timestamp = batch.getTimestamp(i);
+            if (timestamp <= timestamps[slot]) {
+                pingsStale++;
+                continue;
+            }
+            if (dirtyEpochs[slot] == epoch) {
+                pingsCoalesced++;
+            } else {
+                dirtyEpochs[slot] = epoch;
+                currentDirty[currentDirtyCount++] = slot;
+            }
+            latitudes[slot] = batch.getLatitude(i);
+            longitudes[slot] = batch.getLongitude(i);
+            timestamps[slot] = timestamp;
+            pingsAccepted++;
+        }
+    }
+
+    public LocationSnapshot publish() {
+        LocationSnapshot front = published;
+        LocationSnapshot back = front == buffers[0] ? buffers[1] : buffers[0];
+        while (back.getReaders().get() != 0) {
+            Thread.onSpinWait();
+        }
+
+        // The back buffer missed the previous round as well as this one.
+        copyInto(back, previousDirty, previousDirtyCount);
+        copyInto(back, currentDirty, currentDirtyCount);
+        back.setSize(slotCount);
+        back.setVersion(epoch);
+        published = back;
+
+        for (LocationSnapshotListener listener : listeners) {
+            listener.onSnapshot(back, currentDirty, currentDirtyCount);
+        }
+
+        int[] recycled = previousDirty;
+        previousDirty = currentDirty;
+        previousDirtyCount = currentDirtyCount;
+        currentDirty = recycled;
+        currentDirtyCount = 0;
+        epoch++;
+        return back;
+    }
+
+    // The returned snapshot stays unchanged until release() is called on it.
+    public LocationSnapshot acquireSnapshot() {
+        while (true) {
+            LocationSnapshot snapshot = published;
+            snapshot.getReaders().incrementAndGet();
+            if (snapshot == published) {
+                return snapshot;
+            }
+            snapshot.release();
+        }
+    }
+
+    private void copyInto(LocationSnapshot snapshot, int[] dirtySlots, int count) {
+        for (int i = 0; i < count; i++) {
+            int slot = dirtySlots[i];
+            snapshot.write(slot, driverIds[slot], latitudes[slot], longitudes[slot], timestamps[slot]);
+        }
+    }
+
+    public int getDriverCount() {
+        return slotCount;
+    }
+
+    public long getPingsAccepted() {
+        return pingsAccepted;
+    }
+
+    public long getPingsCoalesced() {
+        return pingsCoalesced;
+    }
+
+    public long getPingsStale() {
+        return pingsStale;
+    }
+
+    public long getPingsRejected() {
+        return pingsRejected;
+    }
+}
@@ -0,0 +1,52 @@
+package ridesharingservice.ingest;
+
+import java.util.Arrays;
+
+// Open-addressing int -> int map from driver id to its dense column slot,
+// avoiding boxed keys on the ingestion path.
+class DriverSlotMap {
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private final int[] keys;
+    private final int[] values;
+    private final int mask;
+
+    DriverSlotMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    int get(int key) {
+        int index = mix(key) & mask;
+        while (true) {
+            int existing = keys[index];
+            if (existing == key) {
+                return values[index];
+            }
+            if (existing == EMPTY) {
+                return -1;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    void put(int key, int value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Unsupported driver id: " + key);
+        }
+        int index = mix(key) & mask;
+        while (keys[index] != EMPTY && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,138 @@
+package ridesharingservice.ingest;
+
+import ridesharingservice.Driver;
+import ridesharingservice.DriverStatus;
+import ridesharingservice.Location;
+import ridesharingservice.RideService;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LocationIngestionBenchmark {
+    private static final int DRIVERS = 500_000;
+    private static final int BATCH_SIZE = 8_192;
+    private static final int ROUNDS = 20;
+    private static final long PING_INTERVAL_MILLIS = 2_000;
+    // Drivers also registered with a RideService, to show ingested positions reaching matching.
+    private static final int SERVICE_DRIVERS = 1_000;
+    private static final Location START = new Location(37.76, -122.43);
+
+    public static void run() {
+        DriverLocationIngestor ingestor = new DriverLocationIngestor(DRIVERS);
+        LocationPingGenerator generator = new LocationPingGenerator(DRIVERS, 37.70, -122.52, 37.82, -122.35,
+                0.2, 0.05, 42L);
+        LocationUpdateBatch batch = new LocationUpdateBatch(BATCH_SIZE);
+
+        RideService rideService = RideService.newInstance();
+        rideService.setNotificationsEnabled(false);
+        Driver[] serviceDrivers = new Driver[SERVICE_DRIVERS];
+        for (int i = 0; i < SERVICE_DRIVERS; i++) {
+            serviceDrivers[i] = new Driver(i + 1, "Driver " + (i + 1), "", "", START, DriverStatus.AVAILABLE);
+            rideService.addDriver(serviceDrivers[i]);
+        }
+        rideService.connectLocationIngestor(ingestor);
+
+        // Warm up so the measured rounds run compiled code.
+        ingestRound(ingestor, generator, batch, 0);
+        ingestor.publish();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong snapshotsRead = new AtomicLong();
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                LocationSnapshot snapshot = ingestor.acquireSnapshot();
+                try {
+                    double sum = 0;
+                    for (int slot = 0; slot < snapshot.size(); slot += 1_000) {
+                        sum += snapshot.getLatitude(slot);
+                    }
+                    if (sum < 0) {
+                        System.out.println(sum);
+                    }
+                } finally {
+                    snapshot.release();
+                }
+                snapshotsRead.incrementAndGet();
+            }
+        }, "snapshot-reader");
+        reader.start();
+
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTimeMillis();
+        long allocatedBefore = allocatedBytes();
+        long acceptedBefore = ingestor.getPingsAccepted();
+        long pings = 0;
+        long start = System.nanoTime();
+        for (int round = 1; round <= ROUNDS; round++) {
+            pings += ingestRound(ingestor, generator, batch, round * PING_INTERVAL_MILLIS);
+            ingestor.publish();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = allocatedBefore < 0 ? -1 : allocatedBytes() - allocatedBefore;
+        running.set(false);
+        try {
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        System.out.printf("Ingested %,d pings for %,d drivers in %d rounds (%.1f ms)%n",
+                pings, ingestor.getDriverCount(), ROUNDS, elapsedNanos / 1e6);
+        System.out.printf("Throughput: %,.0f pings/sec%n", pings / (elapsedNanos / 1e9));
+        System.out.printf("Accepted: %,d, coalesced: %,d, stale: %,d, rejected: %,d%n",
+                ingestor.getPingsAccepted() - acceptedBefore, ingestor.getPingsCoalesced(),
+                ingestor.getPingsStale(), ingestor.getPingsRejected());
+        System.out.printf("Ingestion thread allocated: %,d bytes (%.3f bytes/ping)%n",
+                allocated, allocated < 0 ? Double.NaN : (double) allocated / pings);
+        System.out.printf("GC collections: %d, GC time: %d ms, snapshots read concurrently: %,d%n",
+                gcCount() - gcCountBefore, gcTimeMillis() - gcTimeBefore, snapshotsRead.get());
+
+        int moved = 0;
+        for (Driver driver : serviceDrivers) {
+            if (driver.getLocation() != START) {
+                moved++;
+            }
+        }
+        System.out.printf("RideService drivers positioned by ingestion: %,d of %,d; nearest to the start point: %d%n",
+                moved, SERVICE_DRIVERS, rideService.findNearestDrivers(START, 1, 50.0).get(0).getDriver().getId());
+    }
+
+    private static long ingestRound(DriverLocationIngestor ingestor, LocationPingGenerator generator,
+                                    LocationUpdateBatch batch, long timestamp) {
+        long pings = 0;
+        int next = 0;
+        while (next < generator.getDriverCount()) {
+            batch.clear();
+            next = generator.fill(batch, next, timestamp);
+            ingestor.ingest(batch);
+            pings += batch.size();
+        }
+        return pings;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTimeMillis() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,60 @@
+package ridesharingservice.ingest;
+
+import java.util.SplittableRandom;
+
+// Seedable source of synthetic GPS pings: drivers random-walk inside a
+// bounding box. Some drivers send a burst of several successive fixes in one
+// round (as a phone flushing buffered positions would), which the ingestor
+// coalesces, and a fraction of pings are retransmitted duplicates, which it
+// drops as stale.
+public class LocationPingGenerator {
+    private static final double STEP_DEGREES = 0.0002;
+    private static final long FIX_SPACING_MILLIS = 250;
+    private static final int MAX_FIXES_PER_BURST = 4;
+
+    private final SplittableRandom random;
+    private final int driverCount;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double burstRate;
+    private final double duplicateRate;
+
+    public LocationPingGenerator(int driverCount, double minLat, double minLon, double maxLat, double maxLon,
+                                 double burstRate, double duplicateRate, long seed) {
+        this.random = new SplittableRandom(seed);
+        this.driverCount = driverCount;
+        this.latitudes = new double[driverCount];
+        this.longitudes = new double[driverCount];
+        this.burstRate = burstRate;
+        this.duplicateRate = duplicateRate;
+        for (int i = 0; i < driverCount; i++) {
+            latitudes[i] = minLat + random.nextDouble() * (maxLat - minLat);
+            longitudes[i] = minLon + random.nextDouble() * (maxLon - minLon);
+        }
+    }
+
+    // Fills the batch until it is full and returns the next unused driver index,
+    // so a round of pings for all drivers can be produced across several batches.
+    public int fill(LocationUpdateBatch batch, int fromDriver, long timestamp) {
+        int driver = fromDriver;
+        while (driver < driverCount && !batch.isFull()) {
+            int fixes = random.nextDouble() < burstRate ? 2 + random.nextInt(MAX_FIXES_PER_BURST - 1) : 1;
+            long fixTime = timestamp;
+            for (int fix = 0; fix < fixes && !batch.isFull(); fix++) {
+                fixTime = timestamp + fix * FIX_SPACING_MILLIS;
+                latitudes[driver] += (random.nextDouble() - 0.5) * STEP_DEGREES;
+                longitudes[driver] += (random.nextDouble() - 0.5) * STEP_DEGREES;
+                batch.add(driver + 1, latitudes[driver], longitudes[driver], fixTime);
+            }
+            if (random.nextDouble() < duplicateRate && !batch.isFull()) {
+                batch.add(driver + 1, latitudes[driver], longitudes[driver], fixTime);
+            }
+            driver++;
+        }
+        return driver;
+    }
+
+    public int getDriverCount() {
+        return driverCount;
+    }
+}
@@ -0,0 +1,70 @@
+package ridesharingservice.ingest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// One of the two column buffers the ingestor alternates between. Readers pin a
+// snapshot with acquire/release; the ingestor never writes to a snapshot that
+// is still pinned, so a reader always sees a consistent set of positions.
+public class LocationSnapshot {
+    private final int[] driverIds;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final long[] timestamps;
+    private final AtomicInteger readers = new AtomicInteger();
+    private int size;
+    private long version;
+
+    LocationSnapshot(int capacity) {
+        driverIds = new int[capacity];
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        timestamps = new long[capacity];
+    }
+
+    void write(int slot, int driverId, double latitude, double longitude, long timestamp) {
+        driverIds[slot] = driverId;
+        latitudes[slot] = latitude;
+        longitudes[slot] = longitude;
+        timestamps[slot] = timestamp;
+    }
+
+    void setSize(int size) {
+        this.size = size;
+    }
+
+    void setVersion(long version) {
+        this.version = version;
+    }
+
+    AtomicInteger getReaders() {
+        return readers;
+    }
+
+    public void release() {
+        readers.decrementAndGet();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getDriverId(int slot) {
+        return driverIds[slot];
+    }
+
+    public double getLatitude(int slot) {
+        return latitudes[slot];
+    }
+
+    public double getLongitude(int slot) {
+        return longitudes[slot];
+    }
+
+    public long getTimestamp(int slot) {
+        return timestamps[slot];
+    }
+}
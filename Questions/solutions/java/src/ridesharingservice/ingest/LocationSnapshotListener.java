@@ -0,0 +1,7 @@
+package ridesharingservice.ingest;
+
+public interface LocationSnapshotListener {
+    // Called on the ingestion thread right after a snapshot is published.
+    // changedSlots[0..changedCount) are the slots whose position moved since the previous publish.
+    void onSnapshot(LocationSnapshot snapshot, int[] changedSlots, int changedCount);
+}
@@ -0,0 +1,62 @@
+package ridesharingservice.ingest;
+
+// Reusable columnar buffer of raw GPS pings. Callers fill it, hand it to the
+// ingestor and clear it again, so no per-ping objects are created.
+public class LocationUpdateBatch {
+    private final int[] driverIds;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final long[] timestamps;
+    private int size;
+
+    public LocationUpdateBatch(int capacity) {
+        driverIds = new int[capacity];
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        timestamps = new long[capacity];
+    }
+
+    public boolean add(int driverId, double latitude, double longitude, long timestamp) {
+        if (size == driverIds.length) {
+            return false;
+        }
+        driverIds[size] = driverId;
+        latitudes[size] = latitude;
+        longitudes[size] = longitude;
+        timestamps[size] = timestamp;
+        size++;
+        return true;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return driverIds.length;
+    }
+
+    public boolean isFull() {
+        return size == driverIds.length;
+    }
+
+    public int getDriverId(int index) {
+        return driverIds[index];
+    }
+
+    public double getLatitude(int index) {
+        return latitudes[index];
+    }
+
+    public double getLongitude(int index) {
+        return longitudes[index];
+    }
+
+    public long getTimestamp(int index) {
+        return timestamps[index];
+    }
+}
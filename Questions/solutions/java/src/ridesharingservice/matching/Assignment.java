@@ -0,0 +1,28 @@
+package ridesharingservice.matching;
+
+import ridesharingservice.Driver;
+import ridesharingservice.Ride;
+
+public class Assignment {
+    private final Ride ride;
+    private final Driver driver;
+    private final double pickupDistanceKm;
+
+    public Assignment(Ride ride, Driver driver, double pickupDistanceKm) {
+        this.ride = ride;
+        this.driver = driver;
+        this.pickupDistanceKm = pickupDistanceKm;
+    }
+
+    public Ride getRide() {
+        return ride;
+    }
+
+    public Driver getDriver() {
+        return driver;
+    }
+
+    public double getPickupDistanceKm() {
+        return pickupDistanceKm;
+    }
+}
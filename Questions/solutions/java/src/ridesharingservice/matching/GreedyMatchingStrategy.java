@@ -0,0 +1,33 @@
+package ridesharingservice.matching;
+
+import ridesharingservice.Ride;
+import ridesharingservice.geo.NearbyDriver;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// First-come-first-served baseline, like drivers answering acceptRide today:
+// each ride, in request order, takes its nearest driver that has not been taken yet.
+public class GreedyMatchingStrategy implements MatchingStrategy {
+    @Override
+    public List<Assignment> match(List<Ride> rides, List<List<NearbyDriver>> candidates) {
+        List<Assignment> assignments = new ArrayList<>();
+        Set<Integer> taken = new HashSet<>();
+        for (int i = 0; i < rides.size(); i++) {
+            for (NearbyDriver candidate : candidates.get(i)) {
+                if (taken.add(candidate.getDriver().getId())) {
+                    assignments.add(new Assignment(rides.get(i), candidate.getDriver(), candidate.getDistanceKm()));
+                    break;
+                }
+            }
+        }
+        return assignments;
+    }
+
+    @Override
+    public boolean matchesInRequestOrder() {
+        return true;
+    }
+}
@@ -0,0 +1,138 @@
+package ridesharingservice.matching;
+
+import ridesharingservice.Driver;
+import ridesharingservice.Ride;
+import ridesharingservice.geo.NearbyDriver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Minimises the total pickup distance of a batch with the Hungarian algorithm.
+// Only nearby drivers get a real cost; every ride also gets a private
+// "unmatched" column priced at the penalty, so the problem is always feasible
+// and a ride is left for the next window rather than sent across the city.
+public class HungarianMatchingStrategy implements MatchingStrategy {
+    private static final double NOT_A_CANDIDATE = 1e12;
+
+    private final double unmatchedPenaltyKm;
+
+    public HungarianMatchingStrategy(double unmatchedPenaltyKm) {
+        this.unmatchedPenaltyKm = unmatchedPenaltyKm;
+    }
+
+    @Override
+    public List<Assignment> match(List<Ride> rides, List<List<NearbyDriver>> candidates) {
+        // Rides without nearby drivers cannot be matched and would only grow the matrix.
+        List<Ride> matchable = new ArrayList<>();
+        List<List<NearbyDriver>> matchableCandidates = new ArrayList<>();
+        for (int i = 0; i < rides.size(); i++) {
+            if (!candidates.get(i).isEmpty()) {
+                matchable.add(rides.get(i));
+                matchableCandidates.add(candidates.get(i));
+            }
+        }
+        rides = matchable;
+        candidates = matchableCandidates;
+
+        int rideCount = rides.size();
+        if (rideCount == 0) {
+            return new ArrayList<>();
+        }
+
+        Map<Integer, Integer> driverColumns = new HashMap<>();
+        List<Driver> columnDrivers = new ArrayList<>();
+        for (List<NearbyDriver> rideCandidates : candidates) {
+            for (NearbyDriver candidate : rideCandidates) {
+                Driver driver = candidate.getDriver();
+                if (!driverColumns.containsKey(driver.getId())) {
+                    driverColumns.put(driver.getId(), columnDrivers.size());
+                    columnDrivers.add(driver);
+                }
+            }
+        }
+
+        int driverCount = columnDrivers.size();
+        int columns = driverCount + rideCount;
+        double[][] cost = new double[rideCount][columns];
+        for (int i = 0; i < rideCount; i++) {
+            Arrays.fill(cost[i], NOT_A_CANDIDATE);
+            cost[i][driverCount + i] = unmatchedPenaltyKm;
+            for (NearbyDriver candidate : candidates.get(i)) {
+                cost[i][driverColumns.get(candidate.getDriver().getId())] = candidate.getDistanceKm();
+            }
+        }
+
+        int[] assignedColumn = solve(cost, rideCount, columns);
+        List<Assignment> assignments = new ArrayList<>();
+        for (int i = 0; i < rideCount; i++) {
+            int column = assignedColumn[i];
+            if (column < driverCount) {
+                assignments.add(new Assignment(rides.get(i), columnDrivers.get(column), cost[i][column]));
+            }
+        }
+        return assignments;
+    }
+
+    // Shortest augmenting path formulation with row/column potentials, O(n^2 * m) for n <= m.
+    private static int[] solve(double[][] cost, int n, int m) {
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] rowOfColumn = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minSlack = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int row = 1; row <= n; row++) {
+            rowOfColumn[0] = row;
+            int column = 0;
+            Arrays.fill(minSlack, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[column] = true;
+                int currentRow = rowOfColumn[column];
+                double delta = Double.POSITIVE_INFINITY;
+                int nextColumn = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) {
+                        continue;
+                    }
+                    double slack = cost[currentRow - 1][j - 1] - u[currentRow] - v[j];
+                    if (slack < minSlack[j]) {
+                        minSlack[j] = slack;
+                        way[j] = column;
+                    }
+                    if (minSlack[j] < delta) {
+                        delta = minSlack[j];
+                        nextColumn = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[rowOfColumn[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minSlack[j] -= delta;
+                    }
+                }
+                column = nextColumn;
+            } while (rowOfColumn[column] != 0);
+
+            do {
+                int previous = way[column];
+                rowOfColumn[column] = rowOfColumn[previous];
+                column = previous;
+            } while (column != 0);
+        }
+
+        int[] assignedColumn = new int[n];
+        for (int j = 1; j <= m; j++) {
+            if (rowOfColumn[j] != 0) {
+                assignedColumn[rowOfColumn[j] - 1] = j - 1;
+            }
+        }
+        return assignedColumn;
+    }
+}
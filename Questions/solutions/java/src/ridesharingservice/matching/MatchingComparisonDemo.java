@@ -0,0 +1,54 @@
+package ridesharingservice.matching;
+
+import ridesharingservice.Driver;
+import ridesharingservice.DriverStatus;
+import ridesharingservice.Location;
+import ridesharingservice.Passenger;
+import ridesharingservice.Ride;
+import ridesharingservice.RideService;
+import ridesharingservice.RideStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class MatchingComparisonDemo {
+    private static final int DRIVERS = 5_000;
+    private static final int RIDES = 3_000;
+    private static final double REGION_SIZE_KM = 3.0;
+    private static final int CANDIDATES_PER_RIDE = 8;
+    private static final double SEARCH_RADIUS_KM = 5.0;
+
+    public static void run() {
+        RideService rideService = RideService.newInstance();
+        Random random = new Random(7);
+
+        // Peak-hour snapshot over San Francisco
+        for (int i = 0; i < DRIVERS; i++) {
+            rideService.addDriver(new Driver(100_000 + i, "Driver " + i, "", "", randomLocation(random), DriverStatus.AVAILABLE));
+        }
+        List<Ride> rides = new ArrayList<>();
+        for (int i = 0; i < RIDES; i++) {
+            Location source = randomLocation(random);
+            Passenger passenger = new Passenger(100_000 + i, "Passenger " + i, "", source);
+            rides.add(new Ride(100_000 + i, passenger, null, source, randomLocation(random), RideStatus.REQUESTED, 0.0));
+        }
+
+        RideMatchingEngine greedy = new RideMatchingEngine(rideService, new GreedyMatchingStrategy(),
+                REGION_SIZE_KM, CANDIDATES_PER_RIDE, SEARCH_RADIUS_KM);
+        RideMatchingEngine batched = new RideMatchingEngine(rideService, new HungarianMatchingStrategy(SEARCH_RADIUS_KM * 2),
+                REGION_SIZE_KM, CANDIDATES_PER_RIDE, SEARCH_RADIUS_KM);
+
+        // Warm up both paths before measuring
+        for (int i = 0; i < 5; i++) {
+            greedy.evaluate(rides);
+            batched.evaluate(rides);
+        }
+        System.out.println("Greedy:  " + greedy.evaluate(rides));
+        System.out.println("Batched: " + batched.evaluate(rides));
+    }
+
+    private static Location randomLocation(Random random) {
+        return new Location(37.70 + random.nextDouble() * 0.12, -122.52 + random.nextDouble() * 0.17);
+    }
+}
@@ -0,0 +1,43 @@
+package ridesharingservice.matching;
+
+public class MatchingReport {
+    private final int ridesConsidered;
+    private final int ridesMatched;
+    private final int regions;
+    private final double totalPickupDistanceKm;
+    private final long latencyNanos;
+
+    public MatchingReport(int ridesConsidered, int ridesMatched, int regions, double totalPickupDistanceKm, long latencyNanos) {
+        this.ridesConsidered = ridesConsidered;
+        this.ridesMatched = ridesMatched;
+        this.regions = regions;
+        this.totalPickupDistanceKm = totalPickupDistanceKm;
+        this.latencyNanos = latencyNanos;
+    }
+
+    public int getRidesConsidered() {
+        return ridesConsidered;
+    }
+
+    public int getRidesMatched() {
+        return ridesMatched;
+    }
+
+    public int getRegions() {
+        return regions;
+    }
+
+    public double getAveragePickupDistanceKm() {
+        return ridesMatched == 0 ? 0.0 : totalPickupDistanceKm / ridesMatched;
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("rides=%d matched=%d regions=%d avgPickup=%.3f km latency=%.3f ms",
+                ridesConsidered, ridesMatched, regions, getAveragePickupDistanceKm(), latencyNanos / 1e6);
+    }
+}
@@ -0,0 +1,18 @@
+package ridesharingservice.matching;
+
+import ridesharingservice.Ride;
+import ridesharingservice.geo.NearbyDriver;
+
+import java.util.List;
+
+public interface MatchingStrategy {
+    // candidates.get(i) holds the nearby available drivers of rides.get(i), nearest first.
+    // Each driver may be assigned to at most one ride; rides may stay unassigned.
+    List<Assignment> match(List<Ride> rides, List<List<NearbyDriver>> candidates);
+
+    // Strategies that answer rides one at a time in request order are not split into
+    // regions; the engine hands them each ride alone with the drivers still free.
+    default boolean matchesInRequestOrder() {
+        return false;
+    }
+}
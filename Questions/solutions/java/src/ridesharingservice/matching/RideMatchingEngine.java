@@ -0,0 +1,180 @@
+package ridesharingservice.matching;
+
+import ridesharingservice.Location;
+import ridesharingservice.Ride;
+import ridesharingservice.RideService;
+import ridesharingservice.RideStatus;
+import ridesharingservice.geo.GeoUtils;
+import ridesharingservice.geo.NearbyDriver;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Collects requested rides over a short window and assigns them in one batch.
+// Rides are partitioned into square regions that are solved in parallel;
+// a driver that is the best candidate in two neighbouring regions is kept
+// by the cheaper assignment and the other ride waits for the next window.
+// Strategies that match in request order skip the regions and see one ride at
+// a time, as if each driver had accepted the ride the moment it was requested.
+public class RideMatchingEngine {
+    private final RideService rideService;
+    private final MatchingStrategy strategy;
+    private final double regionSizeDegrees;
+    private final int candidatesPerRide;
+    private final double searchRadiusKm;
+    private ScheduledExecutorService scheduler;
+
+    public RideMatchingEngine(RideService rideService, MatchingStrategy strategy, double regionSizeKm,
+                              int candidatesPerRide, double searchRadiusKm) {
+        this.rideService = rideService;
+        this.strategy = strategy;
+        this.regionSizeDegrees = regionSizeKm / GeoUtils.KM_PER_DEGREE;
+        this.candidatesPerRide = candidatesPerRide;
+        this.searchRadiusKm = searchRadiusKm;
+    }
+
+    public synchronized void start(long windowMillis) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleWithFixedDelay(this::matchPendingRides, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    // Drains requestedRides, commits the batch assignment through RideService and
+    // puts rides that could not be matched back in the queue.
+    public MatchingReport matchPendingRides() {
+        long start = System.nanoTime();
+        List<Ride> pending = new ArrayList<>();
+        Ride ride;
+        while ((ride = rideService.getRequestedRides().poll()) != null) {
+            if (ride.getStatus() == RideStatus.REQUESTED) {
+                pending.add(ride);
+            }
+        }
+
+        Collection<List<Ride>> regions = partition(pending);
+        List<Assignment> assignments = plan(regions);
+
+        Set<Ride> matched = new HashSet<>();
+        double totalPickupKm = 0;
+        for (Assignment assignment : assignments) {
+            if (rideService.acceptRide(assignment.getDriver(), assignment.getRide())) {
+                matched.add(assignment.getRide());
+                totalPickupKm += assignment.getPickupDistanceKm();
+            }
+        }
+        for (Ride unmatched : pending) {
+            if (!matched.contains(unmatched) && unmatched.getStatus() == RideStatus.REQUESTED) {
+                rideService.getRequestedRides().offer(unmatched);
+            }
+        }
+        return new MatchingReport(pending.size(), matched.size(), regions.size(), totalPickupKm, System.nanoTime() - start);
+    }
+
+    // Computes assignments for the given rides without committing them, e.g. to compare strategies.
+    public MatchingReport evaluate(List<Ride> rides) {
+        long start = System.nanoTime();
+        Collection<List<Ride>> regions = partition(rides);
+        List<Assignment> assignments = plan(regions);
+        double totalPickupKm = 0;
+        for (Assignment assignment : assignments) {
+            totalPickupKm += assignment.getPickupDistanceKm();
+        }
+        return new MatchingReport(rides.size(), assignments.size(), regions.size(), totalPickupKm, System.nanoTime() - start);
+    }
+
+    private List<Assignment> plan(Collection<List<Ride>> regions) {
+        if (strategy.matchesInRequestOrder()) {
+            return planInRequestOrder(regions.iterator().next());
+        }
+        List<Assignment> proposals = regions.parallelStream()
+                .flatMap(regionRides -> matchRegion(regionRides).stream())
+                .sorted(Comparator.comparingDouble(Assignment::getPickupDistanceKm))
+                .toList();
+
+        List<Assignment> assignments = new ArrayList<>();
+        Set<Integer> takenDrivers = new HashSet<>();
+        for (Assignment proposal : proposals) {
+            if (takenDrivers.add(proposal.getDriver().getId())) {
+                assignments.add(proposal);
+            }
+        }
+        return assignments;
+    }
+
+    private List<Assignment> planInRequestOrder(List<Ride> rides) {
+        List<Assignment> assignments = new ArrayList<>();
+        Set<Integer> takenDrivers = new HashSet<>();
+        for (Ride ride : rides) {
+            List<NearbyDriver> free = freeDriversNear(ride.getSource(), takenDrivers);
+            for (Assignment assignment : strategy.match(List.of(ride), List.of(free))) {
+                takenDrivers.add(assignment.getDriver().getId());
+                assignments.add(assignment);
+            }
+        }
+        return assignments;
+    }
+
+    // Nearest drivers that no earlier ride of this batch has taken, widening the
+    // search until some are found or the radius holds no more drivers.
+    private List<NearbyDriver> freeDriversNear(Location location, Set<Integer> takenDrivers) {
+        int count = candidatesPerRide;
+        while (true) {
+            List<NearbyDriver> nearby = rideService.findNearestDrivers(location, count, searchRadiusKm);
+            List<NearbyDriver> free = new ArrayList<>();
+            for (NearbyDriver candidate : nearby) {
+                if (!takenDrivers.contains(candidate.getDriver().getId())) {
+                    free.add(candidate);
+                }
+            }
+            if (!free.isEmpty() || nearby.size() < count) {
+                return free;
+            }
+            count *= 2;
+        }
+    }
+
+    private List<Assignment> matchRegion(List<Ride> rides) {
+        List<List<NearbyDriver>> candidates = new ArrayList<>(rides.size());
+        for (Ride ride : rides) {
+            candidates.add(rideService.findNearestDrivers(ride.getSource(), candidatesPerRide, searchRadiusKm));
+        }
+        return strategy.match(rides, candidates);
+    }
+
+    private Collection<List<Ride>> partition(List<Ride> rides) {
+        if (strategy.matchesInRequestOrder()) {
+            return List.of(rides);
+        }
+        return partitionByRegion(rides);
+    }
+
+    private Collection<List<Ride>> partitionByRegion(List<Ride> rides) {
+        // Insertion-ordered so batches are solved and merged in a reproducible order
+        Map<Long, List<Ride>> regions = new LinkedHashMap<>();
+        for (Ride ride : rides) {
+            Location source = ride.getSource();
+            long latIndex = (long) Math.floor(source.getLatitude() / regionSizeDegrees);
+            long lonIndex = (long) Math.floor(source.getLongitude() / regionSizeDegrees);
+            regions.computeIfAbsent((latIndex << 32) | (lonIndex & 0xffffffffL), key -> new ArrayList<>()).add(ride);
+        }
+        return new ArrayList<>(regions.values());
+    }
+}
@@ -0,0 +1,315 @@
+package ridesharingservice.pricing;
+
+import ridesharingservice.Location;
+import ridesharingservice.geo.GeoUtils;
+
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Sliding-window supply/demand counts per grid cell, turned into surge multipliers.
+//
+// Producers (any thread) only increment per-cell counters of the time bucket the
+// event falls into. tick() runs on a single thread: it folds closed buckets into
+// the window totals, evicts the bucket that slid out of the window and recomputes
+// multipliers for the cells those buckets touched. Nothing is rescanned, and
+// readers look multipliers up with a single atomic read.
+//
+// The tick thread remembers how much of every bucket it has folded. The newest
+// closed bucket is folded again on every tick to pick up late events, and
+// eviction subtracts exactly what was folded, so the window totals always equal
+// the sum of the folded buckets. Events for older buckets are dropped, and events
+// stamped past the bucket being written are counted in it.
+//
+// Demand counts ride requests. Supply counts each available driver once per cell
+// and bucket however often it reports its position, so the window's supply divided
+// by the number of buckets is the average number of drivers available in the cell.
+// Buckets should be at least as long as the drivers' ping interval.
+public class SurgePricingEngine {
+    private static final double MULTIPLIER_STEP = 0.1;
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    private final double minLat;
+    private final double minLon;
+    private final double cellSizeDegrees;
+    private final int rows;
+    private final int columns;
+    private final int cellCount;
+    private final long bucketMillis;
+    private final int windowBuckets;
+    private final int slots;
+    private final double maxMultiplier;
+    private final double sensitivity;
+    private final int minDemand;
+
+    private final AtomicIntegerArray demandCounts;
+    private final AtomicIntegerArray supplyCounts;
+    private final AtomicIntegerArray touchedFlags;
+    private final AtomicIntegerArray touchedCells;
+    private final AtomicIntegerArray touchedCounts;
+    private final AtomicLongArray multipliers;
+
+    // Owned by the tick thread
+    private final int[] foldedDemand;
+    private final int[] foldedSupply;
+    private final int[] windowDemand;
+    private final int[] windowSupply;
+    private final boolean[] dirty;
+    private final int[] dirtyCells;
+    private int dirtyCount;
+    private long lastFoldedPeriod = Long.MIN_VALUE;
+    // Oldest period producers may still record into; only advanced by the tick thread
+    private volatile long oldestOpenPeriod = Long.MIN_VALUE;
+    private ScheduledExecutorService scheduler;
+
+    public SurgePricingEngine(double minLat, double minLon, double maxLat, double maxLon, double cellSizeKm,
+                              long bucketMillis, int windowBuckets, double maxMultiplier,
+                              double sensitivity, int minDemand) {
+        this.minLat = minLat;
+        this.minLon = minLon;
+        this.cellSizeDegrees = cellSizeKm / GeoUtils.KM_PER_DEGREE;
+        this.rows = (int) Math.ceil((maxLat - minLat) / cellSizeDegrees);
+        this.columns = (int) Math.ceil((maxLon - minLon) / cellSizeDegrees);
+        this.cellCount = rows * columns;
+        this.bucketMillis = bucketMillis;
+        this.windowBuckets = windowBuckets;
+        // One slot is being written, one has just closed and the rest form the window.
+        this.slots = windowBuckets + 2;
+        this.maxMultiplier = maxMultiplier;
+        this.sensitivity = sensitivity;
+        this.minDemand = minDemand;
+
+        demandCounts = new AtomicIntegerArray(slots * cellCount);
+        supplyCounts = new AtomicIntegerArray(slots * cellCount);
+        touchedFlags = new AtomicIntegerArray(slots * cellCount);
+        touchedCells = new AtomicIntegerArray(slots * cellCount);
+        touchedCounts = new AtomicIntegerArray(slots);
+        multipliers = new AtomicLongArray(cellCount);
+        for (int cell = 0; cell < cellCount; cell++) {
+            multipliers.set(cell, Double.doubleToRawLongBits(1.0));
+        }
+        foldedDemand = new int[slots * cellCount];
+        foldedSupply = new int[slots * cellCount];
+        windowDemand = new int[cellCount];
+        windowSupply = new int[cellCount];
+        dirty = new boolean[cellCount];
+        dirtyCells = new int[cellCount];
+    }
+
+    public void recordDemand(Location location, long timeMillis) {
+        int cell = cellOf(location.getLatitude(), location.getLongitude());
+        long period = openPeriod(timeMillis);
+        if (cell >= 0 && period != CLOSED) {
+            increment(demandCounts, cell, period);
+        }
+    }
+
+    // Counts an available driver at most once per cell and bucket. lastCounted is the driver's
+    // own marker of where it was last counted, so repeated pings from the same cell are ignored.
+    public void recordSupply(AtomicLong lastCounted, double latitude, double longitude, long timeMillis) {
+        int cell = cellOf(latitude, longitude);
+        long period = openPeriod(timeMillis);
+        if (cell < 0 || period == CLOSED) {
+            return;
+        }
+        long key = period * cellCount + cell;
+        long previous = lastCounted.get();
+        if (previous != key && lastCounted.compareAndSet(previous, key)) {
+            increment(supplyCounts, cell, period);
+        }
+    }
+
+    public double getMultiplier(Location location) {
+        int cell = cellOf(location.getLatitude(), location.getLongitude());
+        return cell < 0 ? 1.0 : Double.longBitsToDouble(multipliers.get(cell));
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleAtFixedRate(() -> tick(System.currentTimeMillis()), bucketMillis, bucketMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    // Must only be called from one thread at a time.
+    public void tick(long nowMillis) {
+        long currentPeriod = Math.floorDiv(nowMillis, bucketMillis);
+        if (lastFoldedPeriod == Long.MIN_VALUE) {
+            // First tick: fold whatever was recorded for the buckets already in the window
+            clearSlot(slotOf(currentPeriod + 1));
+            for (long period = currentPeriod - windowBuckets; period < currentPeriod; period++) {
+                foldBucket(slotOf(period));
+            }
+            lastFoldedPeriod = currentPeriod - 1;
+        } else if (currentPeriod - lastFoldedPeriod > 2) {
+            // Ticks were missed, so buckets may have been reused before being evicted. Start a fresh window.
+            resync(currentPeriod);
+        } else {
+            foldBucket(slotOf(lastFoldedPeriod));
+        }
+        for (long period = lastFoldedPeriod + 1; period < currentPeriod; period++) {
+            foldBucket(slotOf(period));
+            evictBucket(slotOf(period - windowBuckets));
+            lastFoldedPeriod = period;
+        }
+        oldestOpenPeriod = lastFoldedPeriod;
+
+        for (int i = 0; i < dirtyCount; i++) {
+            int cell = dirtyCells[i];
+            dirty[cell] = false;
+            multipliers.set(cell, Double.doubleToRawLongBits(computeMultiplier(windowDemand[cell], windowSupply[cell])));
+        }
+        dirtyCount = 0;
+    }
+
+    private void resync(long currentPeriod) {
+        int currentSlot = slotOf(currentPeriod);
+        for (int slot = 0; slot < slots; slot++) {
+            if (slot != currentSlot) {
+                clearSlot(slot);
+            }
+        }
+        Arrays.fill(foldedDemand, 0);
+        Arrays.fill(foldedSupply, 0);
+        for (int cell = 0; cell < cellCount; cell++) {
+            windowDemand[cell] = 0;
+            windowSupply[cell] = 0;
+            markDirty(cell);
+        }
+        lastFoldedPeriod = currentPeriod - 1;
+    }
+
+    // Bucket an event at timeMillis is counted in, or CLOSED if that bucket has been folded for
+    // the last time. Producers only write the newest closed bucket and the one after it; a later
+    // period would land in a slot still in the window, so it is counted in the open bucket instead.
+    private long openPeriod(long timeMillis) {
+        long period = Math.floorDiv(timeMillis, bucketMillis);
+        long oldest = oldestOpenPeriod;
+        if (oldest == Long.MIN_VALUE) {
+            return period;
+        }
+        if (period < oldest) {
+            return CLOSED;
+        }
+        return Math.min(period, oldest + 1);
+    }
+
+    private void increment(AtomicIntegerArray counts, int cell, long period) {
+        int slot = slotOf(period);
+        int index = slot * cellCount + cell;
+        // The first event of a cell in a bucket registers the cell so the bucket can be folded incrementally.
+        counts.incrementAndGet(index);
+        if (touchedFlags.get(index) == 0 && touchedFlags.compareAndSet(index, 0, 1)) {
+            int position = touchedCounts.getAndIncrement(slot);
+            touchedCells.set(slot * cellCount + position, cell + 1);
+        }
+    }
+
+    // Adds what the bucket gained since it was last folded.
+    private void foldBucket(int slot) {
+        int touched = touchedCounts.get(slot);
+        int base = slot * cellCount;
+        for (int i = 0; i < touched; i++) {
+            int cell = touchedCell(base + i);
+            int index = base + cell;
+            int demand = demandCounts.get(index);
+            int supply = supplyCounts.get(index);
+            if (demand == foldedDemand[index] && supply == foldedSupply[index]) {
+                continue;
+            }
+            windowDemand[cell] += demand - foldedDemand[index];
+            windowSupply[cell] += supply - foldedSupply[index];
+            foldedDemand[index] = demand;
+            foldedSupply[index] = supply;
+            markDirty(cell);
+        }
+    }
+
+    // Takes back exactly what was folded from the bucket and empties it for reuse.
+    private void evictBucket(int slot) {
+        int touched = touchedCounts.get(slot);
+        int base = slot * cellCount;
+        for (int i = 0; i < touched; i++) {
+            int cell = touchedCell(base + i);
+            int index = base + cell;
+            if (foldedDemand[index] != 0 || foldedSupply[index] != 0) {
+                windowDemand[cell] -= foldedDemand[index];
+                windowSupply[cell] -= foldedSupply[index];
+                foldedDemand[index] = 0;
+                foldedSupply[index] = 0;
+                markDirty(cell);
+            }
+            demandCounts.set(index, 0);
+            supplyCounts.set(index, 0);
+            touchedFlags.set(index, 0);
+            touchedCells.set(base + i, 0);
+        }
+        touchedCounts.set(slot, 0);
+    }
+
+    private void clearSlot(int slot) {
+        int base = slot * cellCount;
+        for (int cell = 0; cell < cellCount; cell++) {
+            int index = base + cell;
+            demandCounts.set(index, 0);
+            supplyCounts.set(index, 0);
+            touchedFlags.set(index, 0);
+            touchedCells.set(index, 0);
+            foldedDemand[index] = 0;
+            foldedSupply[index] = 0;
+        }
+        touchedCounts.set(slot, 0);
+    }
+
+    // A producer bumps touchedCounts before publishing the cell, so wait for it.
+    private int touchedCell(int position) {
+        int entry;
+        while ((entry = touchedCells.get(position)) == 0) {
+            Thread.onSpinWait();
+        }
+        return entry - 1;
+    }
+
+    private void markDirty(int cell) {
+        if (!dirty[cell]) {
+            dirty[cell] = true;
+            dirtyCells[dirtyCount++] = cell;
+        }
+    }
+
+    private double computeMultiplier(int demand, int supply) {
+        if (demand < minDemand) {
+            return 1.0;
+        }
+        double drivers = (double) supply / windowBuckets;
+        double ratio = demand / Math.max(1.0, drivers);
+        double multiplier = 1.0 + sensitivity * Math.max(0.0, ratio - 1.0);
+        multiplier = Math.min(maxMultiplier, multiplier);
+        return Math.round(multiplier / MULTIPLIER_STEP) / (1.0 / MULTIPLIER_STEP);
+    }
+
+    private int slotOf(long period) {
+        return (int) Math.floorMod(period, (long) slots);
+    }
+
+    private int cellOf(double latitude, double longitude) {
+        int row = (int) Math.floor((latitude - minLat) / cellSizeDegrees);
+        int column = (int) Math.floor((longitude - minLon) / cellSizeDegrees);
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            return -1;
+        }
+        return row * columns + column;
+    }
+}
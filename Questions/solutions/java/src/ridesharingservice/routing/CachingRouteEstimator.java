@@ -0,0 +1,226 @@
+package ridesharingservice.routing;
+
+import ridesharingservice.Location;
+import ridesharingservice.geo.GeoUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded cache in front of an expensive RouteEstimator. Locations are snapped to
+// grid cells and departure times to buckets, so nearby trips share one entry.
+// Concurrent misses on the same key are coalesced into a single delegate call.
+// Trips that start and end in the same cell would snap to a zero-length route,
+// so those bypass the cache and go to the delegate with the real points.
+public class CachingRouteEstimator implements RouteEstimator {
+    private static final int SHARDS = 16;
+
+    private final RouteEstimator delegate;
+    private final double cellSizeDegrees;
+    private final long timeBucketMillis;
+    private final List<Map<RouteKey, RouteEstimate>> shards;
+    private final Map<RouteKey, CompletableFuture<RouteEstimate>> inFlight;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public CachingRouteEstimator(RouteEstimator delegate, double cellSizeKm, long timeBucketMillis, int capacity) {
+        this.delegate = delegate;
+        this.cellSizeDegrees = cellSizeKm / GeoUtils.KM_PER_DEGREE;
+        this.timeBucketMillis = timeBucketMillis;
+        this.inFlight = new ConcurrentHashMap<>();
+        this.shards = new ArrayList<>(SHARDS);
+        int shardCapacity = Math.max(1, capacity / SHARDS);
+        for (int i = 0; i < SHARDS; i++) {
+            shards.add(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<RouteKey, RouteEstimate> eldest) {
+                    return size() > shardCapacity;
+                }
+            });
+        }
+    }
+
+    @Override
+    public RouteEstimate estimate(Location source, Location destination, long departureMillis) {
+        RouteKey key = keyOf(source, destination, departureMillis);
+        if (key.sourceCell == key.destinationCell) {
+            return delegate.estimate(source, destination, departureMillis);
+        }
+        RouteEstimate cached = getCached(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        CompletableFuture<RouteEstimate> future = new CompletableFuture<>();
+        CompletableFuture<RouteEstimate> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing.join();
+        }
+        misses.incrementAndGet();
+        try {
+            RouteEstimate estimate = delegate.estimate(cellCenter(key.sourceCell), cellCenter(key.destinationCell), departureMillis);
+            putCached(key, estimate);
+            future.complete(estimate);
+            return estimate;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    @Override
+    public List<RouteEstimate> estimateToPickup(List<Location> origins, Location pickup, long departureMillis) {
+        RouteEstimate[] results = new RouteEstimate[origins.size()];
+        List<CompletableFuture<RouteEstimate>> pending = new ArrayList<>();
+        List<Integer> pendingIndexes = new ArrayList<>();
+        Map<RouteKey, CompletableFuture<RouteEstimate>> owned = new LinkedHashMap<>();
+
+        for (int i = 0; i < origins.size(); i++) {
+            RouteKey key = keyOf(origins.get(i), pickup, departureMillis);
+            if (key.sourceCell == key.destinationCell) {
+                results[i] = delegate.estimate(origins.get(i), pickup, departureMillis);
+                continue;
+            }
+            RouteEstimate cached = getCached(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                results[i] = cached;
+                continue;
+            }
+            CompletableFuture<RouteEstimate> future = owned.get(key);
+            if (future == null) {
+                CompletableFuture<RouteEstimate> mine = new CompletableFuture<>();
+                CompletableFuture<RouteEstimate> existing = inFlight.putIfAbsent(key, mine);
+                if (existing != null) {
+                    coalesced.incrementAndGet();
+                    future = existing;
+                } else {
+                    misses.incrementAndGet();
+                    owned.put(key, mine);
+                    future = mine;
+                }
+            }
+            pending.add(future);
+            pendingIndexes.add(i);
+        }
+
+        if (!owned.isEmpty()) {
+            resolveOwned(owned, departureMillis);
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            results[pendingIndexes.get(i)] = pending.get(i).join();
+        }
+        return List.of(results);
+    }
+
+    // All owned misses share the pickup cell, so they go to the delegate as one batch query.
+    private void resolveOwned(Map<RouteKey, CompletableFuture<RouteEstimate>> owned, long departureMillis) {
+        List<RouteKey> keys = new ArrayList<>(owned.keySet());
+        try {
+            List<Location> origins = new ArrayList<>(keys.size());
+            for (RouteKey key : keys) {
+                origins.add(cellCenter(key.sourceCell));
+            }
+            List<RouteEstimate> estimates = delegate.estimateToPickup(origins, cellCenter(keys.get(0).destinationCell), departureMillis);
+            for (int i = 0; i < keys.size(); i++) {
+                putCached(keys.get(i), estimates.get(i));
+                owned.get(keys.get(i)).complete(estimates.get(i));
+            }
+        } catch (RuntimeException e) {
+            for (CompletableFuture<RouteEstimate> future : owned.values()) {
+                future.completeExceptionally(e);
+            }
+            throw e;
+        } finally {
+            for (Map.Entry<RouteKey, CompletableFuture<RouteEstimate>> entry : owned.entrySet()) {
+                inFlight.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    private RouteEstimate getCached(RouteKey key) {
+        Map<RouteKey, RouteEstimate> shard = shardOf(key);
+        synchronized (shard) {
+            return shard.get(key);
+        }
+    }
+
+    private void putCached(RouteKey key, RouteEstimate estimate) {
+        Map<RouteKey, RouteEstimate> shard = shardOf(key);
+        synchronized (shard) {
+            shard.put(key, estimate);
+        }
+    }
+
+    private Map<RouteKey, RouteEstimate> shardOf(RouteKey key) {
+        return shards.get((key.hashCode() & 0x7fffffff) % SHARDS);
+    }
+
+    private RouteKey keyOf(Location source, Location destination, long departureMillis) {
+        return new RouteKey(cellOf(source), cellOf(destination), Math.floorDiv(departureMillis, timeBucketMillis));
+    }
+
+    private long cellOf(Location location) {
+        long latIndex = (long) Math.floor(location.getLatitude() / cellSizeDegrees);
+        long lonIndex = (long) Math.floor(location.getLongitude() / cellSizeDegrees);
+        return (latIndex << 32) | (lonIndex & 0xffffffffL);
+    }
+
+    private Location cellCenter(long cell) {
+        int latIndex = (int) (cell >> 32);
+        int lonIndex = (int) cell;
+        return new Location((latIndex + 0.5) * cellSizeDegrees, (lonIndex + 0.5) * cellSizeDegrees);
+    }
+
+    private static final class RouteKey {
+        private final long sourceCell;
+        private final long destinationCell;
+        private final long timeBucket;
+
+        private RouteKey(long sourceCell, long destinationCell, long timeBucket) {
+            this.sourceCell = sourceCell;
+            this.destinationCell = destinationCell;
+            this.timeBucket = timeBucket;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RouteKey)) {
+                return false;
+            }
+            RouteKey other = (RouteKey) o;
+            return sourceCell == other.sourceCell && destinationCell == other.destinationCell && timeBucket == other.timeBucket;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Long.hashCode(sourceCell);
+            result = 31 * result + Long.hashCode(destinationCell);
+            return 31 * result + Long.hashCode(timeBucket);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ridesharingservice.routing;
+
+public class RouteEstimate {
+    private final double distanceKm;
+    private final double durationMinutes;
+
+    public RouteEstimate(double distanceKm, double durationMinutes) {
+        this.distanceKm = distanceKm;
+        this.durationMinutes = durationMinutes;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public double getDurationMinutes() {
+        return durationMinutes;
+    }
+}
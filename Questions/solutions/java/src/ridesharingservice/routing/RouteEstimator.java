@@ -0,0 +1,20 @@
+package ridesharingservice.routing;
+
+import ridesharingservice.Location;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public interface RouteEstimator {
+    RouteEstimate estimate(Location source, Location destination, long departureMillis);
+
+    // One-to-many estimate, e.g. every nearby driver to the same pickup point.
+    // Implementations backed by a routing engine should answer this in a single query.
+    default List<RouteEstimate> estimateToPickup(List<Location> origins, Location pickup, long departureMillis) {
+        List<RouteEstimate> estimates = new ArrayList<>(origins.size());
+        for (Location origin : origins) {
+            estimates.add(estimate(origin, pickup, departureMillis));
+        }
+        return estimates;
+    }
+}
@@ -0,0 +1,22 @@
+package ridesharingservice.routing;
+
+import ridesharingservice.Location;
+import ridesharingservice.geo.GeoUtils;
+
+// Stand-in for a road routing engine: great-circle distance stretched by a
+// detour factor, driven at a constant average speed.
+public class StraightLineRouteEstimator implements RouteEstimator {
+    private final double detourFactor;
+    private final double averageSpeedKmh;
+
+    public StraightLineRouteEstimator(double detourFactor, double averageSpeedKmh) {
+        this.detourFactor = detourFactor;
+        this.averageSpeedKmh = averageSpeedKmh;
+    }
+
+    @Override
+    public RouteEstimate estimate(Location source, Location destination, long departureMillis) {
+        double distance = GeoUtils.haversineKm(source, destination) * detourFactor;
+        return new RouteEstimate(distance, distance / averageSpeedKmh * 60);
+    }
+}
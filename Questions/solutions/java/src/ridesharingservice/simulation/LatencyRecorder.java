@@ -0,0 +1,45 @@
+package ridesharingservice.simulation;
+
+import java.util.Arrays;
+
+// Keeps every sample so percentiles are exact; simulations record at most a few million values.
+public class LatencyRecorder {
+    private long[] samples = new long[1024];
+    private int count;
+    private boolean sorted = true;
+
+    public void record(long value) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[count++] = value;
+        sorted = false;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        if (!sorted) {
+            Arrays.sort(samples, 0, count);
+            sorted = true;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return samples[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    public double mean() {
+        if (count == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += samples[i];
+        }
+        return sum / count;
+    }
+}
@@ -0,0 +1,24 @@
+package ridesharingservice.simulation;
+
+import ridesharingservice.matching.GreedyMatchingStrategy;
+import ridesharingservice.matching.HungarianMatchingStrategy;
+
+public class RideSharingSimulationDemo {
+    public static void run() {
+        SimulationConfig config = new SimulationConfig()
+                .setSeed(2024)
+                .setPassengers(20_000)
+                .setDrivers(3_000)
+                .setDurationMinutes(90)
+                // Busy enough, and batched over a long enough window, that each batch
+                // holds ten or more rides competing for the same drivers
+                .setArrivalCurve(60, 3.0, 45, 15)
+                .setMatchingWindowSeconds(10);
+
+        System.out.println("Greedy matching:");
+        System.out.println(new RideSharingSimulator(config, new GreedyMatchingStrategy()).run());
+        System.out.println();
+        System.out.println("Batched matching:");
+        System.out.println(new RideSharingSimulator(config, new HungarianMatchingStrategy(10.0)).run());
+    }
+}
@@ -0,0 +1,257 @@
+package ridesharingservice.simulation;
+
+import ridesharingservice.Driver;
+import ridesharingservice.DriverStatus;
+import ridesharingservice.Location;
+import ridesharingservice.Passenger;
+import ridesharingservice.Ride;
+import ridesharingservice.RideService;
+import ridesharingservice.RideStatus;
+import ridesharingservice.geo.GeoUtils;
+import ridesharingservice.matching.MatchingStrategy;
+import ridesharingservice.matching.RideMatchingEngine;
+import ridesharingservice.pricing.SurgePricingEngine;
+import ridesharingservice.routing.RouteEstimate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+// Discrete-event simulation of a city driving a fresh RideService in simulated time.
+// Every random choice comes from one seeded generator and events with equal
+// timestamps run in scheduling order, so a given config replays identically.
+public class RideSharingSimulator {
+    private static final long MIN_SURGE_BUCKET_MILLIS = 5_000;
+    private static final double REGION_SIZE_KM = 3.0;
+    private static final int CANDIDATES_PER_RIDE = 8;
+    private static final double SEARCH_RADIUS_KM = 5.0;
+
+    private enum EventType {
+        RIDE_REQUEST, MATCH, PICKUP, DROP_OFF, DRIVER_PING, SURGE_TICK
+    }
+
+    private static final class Event {
+        private final long timeMillis;
+        private final long sequence;
+        private final EventType type;
+        private final Ride ride;
+
+        private Event(long timeMillis, long sequence, EventType type, Ride ride) {
+            this.timeMillis = timeMillis;
+            this.sequence = sequence;
+            this.type = type;
+            this.ride = ride;
+        }
+    }
+
+    private final SimulationConfig config;
+    private final SplittableRandom random;
+    private final SimulatedClock clock;
+    private final RideService rideService;
+    private final RideMatchingEngine matchingEngine;
+    private final long surgeBucketMillis;
+    private final SurgePricingEngine surgePricingEngine;
+    private final PriorityQueue<Event> events;
+    private final List<Passenger> passengers;
+    private final List<Driver> drivers;
+    private final List<Ride> waitingRides;
+    private final Map<Integer, Long> requestTimes;
+    private final LatencyRecorder waitTimesMillis;
+    private final LatencyRecorder matchingLatencyNanos;
+    private final long endMillis;
+    private long sequence;
+    private int requests;
+    private int matched;
+    private int completed;
+    private int cancelled;
+    private double totalPickupKm;
+
+    public RideSharingSimulator(SimulationConfig config, MatchingStrategy matchingStrategy) {
+        this.config = config;
+        this.random = new SplittableRandom(config.getSeed());
+        this.clock = new SimulatedClock(0);
+        this.rideService = RideService.newInstance();
+        this.rideService.setClock(clock);
+        this.rideService.setNotificationsEnabled(false);
+        this.matchingEngine = new RideMatchingEngine(rideService, matchingStrategy, REGION_SIZE_KM, CANDIDATES_PER_RIDE, SEARCH_RADIUS_KM);
+        // Every idle driver must ping at least once per bucket to be counted as supply in it.
+        this.surgeBucketMillis = Math.max(MIN_SURGE_BUCKET_MILLIS, config.getDriverPingSeconds() * 1000L);
+        this.surgePricingEngine = new SurgePricingEngine(config.getMinLat(), config.getMinLon(), config.getMaxLat(),
+                config.getMaxLon(), 1.0, surgeBucketMillis, 12, 3.0, 0.5, 5);
+        this.rideService.setSurgePricingEngine(surgePricingEngine);
+        this.events = new PriorityQueue<>(Comparator.<Event>comparingLong(e -> e.timeMillis).thenComparingLong(e -> e.sequence));
+        this.passengers = new ArrayList<>();
+        this.drivers = new ArrayList<>();
+        this.waitingRides = new ArrayList<>();
+        this.requestTimes = new HashMap<>();
+        this.waitTimesMillis = new LatencyRecorder();
+        this.matchingLatencyNanos = new LatencyRecorder();
+        this.endMillis = config.getDurationMinutes() * 60_000L;
+    }
+
+    public SimulationReport run() {
+        for (int i = 0; i < config.getPassengers(); i++) {
+            Passenger passenger = new Passenger(i + 1, "Passenger " + (i + 1), "", randomLocation());
+            passengers.add(passenger);
+            rideService.addPassenger(passenger);
+        }
+        for (int i = 0; i < config.getDrivers(); i++) {
+            Driver driver = new Driver(i + 1, "Driver " + (i + 1), "", "", randomLocation(), DriverStatus.AVAILABLE);
+            drivers.add(driver);
+            rideService.addDriver(driver);
+        }
+
+        schedule(nextArrival(0), EventType.RIDE_REQUEST, null);
+        schedule(config.getMatchingWindowSeconds() * 1000L, EventType.MATCH, null);
+        schedule(config.getDriverPingSeconds() * 1000L, EventType.DRIVER_PING, null);
+        schedule(surgeBucketMillis, EventType.SURGE_TICK, null);
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        long processed = 0;
+        while (!events.isEmpty() && events.peek().timeMillis <= endMillis) {
+            Event event = events.poll();
+            clock.advanceTo(event.timeMillis);
+            handle(event);
+            processed++;
+        }
+        long wallNanos = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+        long allocated = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+
+        return new SimulationReport(config.getDurationMinutes(), wallNanos, processed, requests, matched, completed,
+                cancelled, matched == 0 ? 0 : totalPickupKm / matched, waitTimesMillis, matchingLatencyNanos, allocated);
+    }
+
+    private void handle(Event event) {
+        long now = event.timeMillis;
+        switch (event.type) {
+            case RIDE_REQUEST -> {
+                Passenger passenger = passengers.get(random.nextInt(passengers.size()));
+                Ride ride = rideService.requestRide(passenger, passenger.getLocation(), randomLocation());
+                requestTimes.put(ride.getId(), now);
+                waitingRides.add(ride);
+                requests++;
+                schedule(nextArrival(now), EventType.RIDE_REQUEST, null);
+            }
+            case MATCH -> {
+                long matchStart = System.nanoTime();
+                matchingEngine.matchPendingRides();
+                matchingLatencyNanos.record(System.nanoTime() - matchStart);
+                collectMatches(now);
+                schedule(now + config.getMatchingWindowSeconds() * 1000L, EventType.MATCH, null);
+            }
+            case PICKUP -> {
+                Ride ride = event.ride;
+                rideService.updateDriverLocation(ride.getDriver(), ride.getSource());
+                rideService.startRide(ride);
+                RouteEstimate trip = rideService.estimateRoute(ride.getSource(), ride.getDestination());
+                schedule(now + minutesToMillis(trip.getDurationMinutes()), EventType.DROP_OFF, ride);
+            }
+            case DROP_OFF -> {
+                Ride ride = event.ride;
+                rideService.updateDriverLocation(ride.getDriver(), ride.getDestination());
+                if (rideService.completeRide(ride)) {
+                    completed++;
+                }
+            }
+            case DRIVER_PING -> {
+                moveIdleDrivers();
+                schedule(now + config.getDriverPingSeconds() * 1000L, EventType.DRIVER_PING, null);
+            }
+            case SURGE_TICK -> {
+                surgePricingEngine.tick(now);
+                schedule(now + surgeBucketMillis, EventType.SURGE_TICK, null);
+            }
+        }
+    }
+
+    private void collectMatches(long now) {
+        long maxWaitMillis = config.getMaxWaitMinutes() * 60_000L;
+        Iterator<Ride> iterator = waitingRides.iterator();
+        while (iterator.hasNext()) {
+            Ride ride = iterator.next();
+            long requestedAt = requestTimes.get(ride.getId());
+            if (ride.getStatus() == RideStatus.ACCEPTED) {
+                Driver driver = ride.getDriver();
+                RouteEstimate pickup = rideService.estimateRoute(driver.getLocation(), ride.getSource());
+                totalPickupKm += GeoUtils.haversineKm(driver.getLocation(), ride.getSource());
+                waitTimesMillis.record(now - requestedAt + minutesToMillis(pickup.getDurationMinutes()));
+                matched++;
+                schedule(now + minutesToMillis(pickup.getDurationMinutes()), EventType.PICKUP, ride);
+                iterator.remove();
+                requestTimes.remove(ride.getId());
+            } else if (ride.getStatus() != RideStatus.REQUESTED || now - requestedAt > maxWaitMillis) {
+                if (rideService.cancelRide(ride)) {
+                    cancelled++;
+                }
+                iterator.remove();
+                requestTimes.remove(ride.getId());
+            }
+        }
+    }
+
+    private void moveIdleDrivers() {
+        double maxStepDegrees = config.getDriverSpeedKmh() * config.getDriverPingSeconds() / 3600.0 / GeoUtils.KM_PER_DEGREE;
+        for (Driver driver : drivers) {
+            if (driver.getStatus() != DriverStatus.AVAILABLE) {
+                continue;
+            }
+            Location location = driver.getLocation();
+            double lat = clamp(location.getLatitude() + (random.nextDouble() - 0.5) * maxStepDegrees,
+                    config.getMinLat(), config.getMaxLat());
+            double lon = clamp(location.getLongitude() + (random.nextDouble() - 0.5) * maxStepDegrees,
+                    config.getMinLon(), config.getMaxLon());
+            rideService.updateDriverLocation(driver, new Location(lat, lon));
+        }
+    }
+
+    // Non-homogeneous Poisson arrivals by thinning against the peak rate.
+    private long nextArrival(long nowMillis) {
+        double maxRatePerMilli = config.maxRequestsPerMinute() / 60_000.0;
+        double time = nowMillis;
+        while (true) {
+            time += -Math.log(1.0 - random.nextDouble()) / maxRatePerMilli;
+            double rate = config.requestsPerMinuteAt(time / 60_000.0) / 60_000.0;
+            if (random.nextDouble() * maxRatePerMilli <= rate) {
+                return (long) Math.ceil(time);
+            }
+        }
+    }
+
+    private void schedule(long timeMillis, EventType type, Ride ride) {
+        events.add(new Event(timeMillis, sequence++, type, ride));
+    }
+
+    private Location randomLocation() {
+        return new Location(config.getMinLat() + random.nextDouble() * (config.getMaxLat() - config.getMinLat()),
+                config.getMinLon() + random.nextDouble() * (config.getMaxLon() - config.getMinLon()));
+    }
+
+    private static long minutesToMillis(double minutes) {
+        return Math.max(1L, Math.round(minutes * 60_000));
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        long total = 0;
+        for (long allocated : ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            total += Math.max(0, allocated);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,41 @@
+package ridesharingservice.simulation;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+public class SimulatedClock extends Clock {
+    private volatile long millis;
+
+    public SimulatedClock(long startMillis) {
+        this.millis = startMillis;
+    }
+
+    public void advanceTo(long millis) {
+        if (millis < this.millis) {
+            throw new IllegalArgumentException("Simulated time cannot move backwards");
+        }
+        this.millis = millis;
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return this;
+    }
+}
@@ -0,0 +1,135 @@
+package ridesharingservice.simulation;
+
+public class SimulationConfig {
+    private long seed = 1L;
+    private int passengers = 20_000;
+    private int drivers = 2_000;
+    private int durationMinutes = 120;
+    private double baseRequestsPerMinute = 60;
+    private double peakFactor = 4.0;
+    private int peakMinute = 60;
+    private int peakWidthMinutes = 20;
+    private int matchingWindowSeconds = 2;
+    private int driverPingSeconds = 10;
+    private int maxWaitMinutes = 10;
+    private double driverSpeedKmh = 30;
+    private double minLat = 37.70;
+    private double minLon = -122.52;
+    private double maxLat = 37.82;
+    private double maxLon = -122.35;
+
+    public SimulationConfig setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public SimulationConfig setPassengers(int passengers) {
+        this.passengers = passengers;
+        return this;
+    }
+
+    public SimulationConfig setDrivers(int drivers) {
+        this.drivers = drivers;
+        return this;
+    }
+
+    public SimulationConfig setDurationMinutes(int durationMinutes) {
+        this.durationMinutes = durationMinutes;
+        return this;
+    }
+
+    // Arrival curve: Poisson requests at the base rate, rising to baseRate * peakFactor
+    // around peakMinute with a Gaussian shape of the given width.
+    public SimulationConfig setArrivalCurve(double baseRequestsPerMinute, double peakFactor, int peakMinute, int peakWidthMinutes) {
+        this.baseRequestsPerMinute = baseRequestsPerMinute;
+        this.peakFactor = peakFactor;
+        this.peakMinute = peakMinute;
+        this.peakWidthMinutes = peakWidthMinutes;
+        return this;
+    }
+
+    public SimulationConfig setMatchingWindowSeconds(int matchingWindowSeconds) {
+        this.matchingWindowSeconds = matchingWindowSeconds;
+        return this;
+    }
+
+    public SimulationConfig setDriverPingSeconds(int driverPingSeconds) {
+        this.driverPingSeconds = driverPingSeconds;
+        return this;
+    }
+
+    public SimulationConfig setMaxWaitMinutes(int maxWaitMinutes) {
+        this.maxWaitMinutes = maxWaitMinutes;
+        return this;
+    }
+
+    public SimulationConfig setDriverSpeedKmh(double driverSpeedKmh) {
+        this.driverSpeedKmh = driverSpeedKmh;
+        return this;
+    }
+
+    public SimulationConfig setBounds(double minLat, double minLon, double maxLat, double maxLon) {
+        this.minLat = minLat;
+        this.minLon = minLon;
+        this.maxLat = maxLat;
+        this.maxLon = maxLon;
+        return this;
+    }
+
+    public double requestsPerMinuteAt(double minute) {
+        double offset = (minute - peakMinute) / peakWidthMinutes;
+        return baseRequestsPerMinute * (1 + (peakFactor - 1) * Math.exp(-offset * offset));
+    }
+
+    public double maxRequestsPerMinute() {
+        return baseRequestsPerMinute * Math.max(1.0, peakFactor);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getPassengers() {
+        return passengers;
+    }
+
+    public int getDrivers() {
+        return drivers;
+    }
+
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public int getMatchingWindowSeconds() {
+        return matchingWindowSeconds;
+    }
+
+    public int getDriverPingSeconds() {
+        return driverPingSeconds;
+    }
+
+    public int getMaxWaitMinutes() {
+        return maxWaitMinutes;
+    }
+
+    public double getDriverSpeedKmh() {
+        return driverSpeedKmh;
+    }
+
+    public double getMinLat() {
+        return minLat;
+    }
+
+    public double getMinLon() {
+        return minLon;
+    }
+
+    public double getMaxLat() {
+        return maxLat;
+    }
+
+    public double getMaxLon() {
+        return maxLon;
+    }
+}
@@ -0,0 +1,84 @@
+package ridesharingservice.simulation;
+
+public class SimulationReport {
+    private final int simulatedMinutes;
+    private final long wallNanos;
+    private final long events;
+    private final int requests;
+    private final int matched;
+    private final int completed;
+    private final int cancelled;
+    private final double averagePickupKm;
+    private final LatencyRecorder waitTimesMillis;
+    private final LatencyRecorder matchingLatencyNanos;
+    private final long allocatedBytes;
+
+    public SimulationReport(int simulatedMinutes, long wallNanos, long events, int requests, int matched, int completed,
+                            int cancelled, double averagePickupKm, LatencyRecorder waitTimesMillis,
+                            LatencyRecorder matchingLatencyNanos, long allocatedBytes) {
+        this.simulatedMinutes = simulatedMinutes;
+        this.wallNanos = wallNanos;
+        this.events = events;
+        this.requests = requests;
+        this.matched = matched;
+        this.completed = completed;
+        this.cancelled = cancelled;
+        this.averagePickupKm = averagePickupKm;
+        this.waitTimesMillis = waitTimesMillis;
+        this.matchingLatencyNanos = matchingLatencyNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public double getRequestsPerSecond() {
+        return requests / (wallNanos / 1e9);
+    }
+
+    public double getAllocationRateMbPerSecond() {
+        return allocatedBytes < 0 ? Double.NaN : allocatedBytes / 1e6 / (wallNanos / 1e9);
+    }
+
+    public int getRequests() {
+        return requests;
+    }
+
+    public int getMatched() {
+        return matched;
+    }
+
+    public int getCompleted() {
+        return completed;
+    }
+
+    public int getCancelled() {
+        return cancelled;
+    }
+
+    public double getAveragePickupKm() {
+        return averagePickupKm;
+    }
+
+    public LatencyRecorder getWaitTimesMillis() {
+        return waitTimesMillis;
+    }
+
+    public LatencyRecorder getMatchingLatencyNanos() {
+        return matchingLatencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Simulated %d min in %.1f ms wall (%,d events)%n", simulatedMinutes, wallNanos / 1e6, events));
+        sb.append(String.format("Requests: %,d, matched: %,d, completed: %,d, cancelled: %,d%n", requests, matched, completed, cancelled));
+        sb.append(String.format("Throughput: %,.0f requests/sec, %,.0f events/sec%n", getRequestsPerSecond(), events / (wallNanos / 1e9)));
+        sb.append(String.format("Passenger wait (simulated): p50=%.1fs p90=%.1fs p99=%.1fs, avg pickup %.3f km%n",
+                waitTimesMillis.percentile(50) / 1e3, waitTimesMillis.percentile(90) / 1e3,
+                waitTimesMillis.percentile(99) / 1e3, averagePickupKm));
+        sb.append(String.format("Matching batch latency: p50=%.3fms p99=%.3fms p99.9=%.3fms (%d batches)%n",
+                matchingLatencyNanos.percentile(50) / 1e6, matchingLatencyNanos.percentile(99) / 1e6,
+                matchingLatencyNanos.percentile(99.9) / 1e6, matchingLatencyNanos.getCount()));
+        sb.append(String.format("Allocation: %.1f MB/s, %,.0f bytes/request",
+                getAllocationRateMbPerSecond(), requests == 0 || allocatedBytes < 0 ? 0.0 : (double) allocatedBytes / requests));
+        return sb.toString();
+    }
+}
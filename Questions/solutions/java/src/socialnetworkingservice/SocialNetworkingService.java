@@ -1,5 +1,9 @@
 package socialnetworkingservice;
 
+import socialnetworkingservice.feed.FeedPage;
+import socialnetworkingservice.feed.NewsfeedCache;
+import socialnetworkingservice.feed.NewsfeedPager;
+
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
@@ -9,15 +13,22 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 public class SocialNetworkingService {
+    private static final int FEED_CAPACITY = 500;
+    private static final int CELEBRITY_THRESHOLD = 1000;
+
     private static SocialNetworkingService instance;
     private final Map<String, User> users;
     private final Map<String, Post> posts;
     private final Map<String, List<Notification>> notifications;
+    private final NewsfeedCache newsfeedCache;
+    private final NewsfeedPager newsfeedPager;
 
     private SocialNetworkingService() {
         users = new ConcurrentHashMap<>();
         posts = new ConcurrentHashMap<>();
         notifications = new ConcurrentHashMap<>();
+        newsfeedCache = new NewsfeedCache(users, FEED_CAPACITY, CELEBRITY_THRESHOLD);
+        newsfeedPager = new NewsfeedPager(users);
     }
 
     public static synchronized SocialNetworkingService getInstance() {
@@ -27,6 +38,10 @@ public class SocialNetworkingService {
         return instance;
     }
 
+    public static SocialNetworkingService newInstance() {
+        return new SocialNetworkingService();
+    }
+
     public void registerUser(User user) {
         users.put(user.getId(), user);
     }
@@ -59,6 +74,7 @@ public class SocialNetworkingService {
         if (user != null && friend != null) {
             user.getFriends().add(friendId);
             friend.getFriends().add(userId);
+            newsfeedCache.onFriendshipAdded(user, friend);
             Notification notification = new Notification(generateNotificationId(), friendId,
                     NotificationType.FRIEND_REQUEST_ACCEPTED, "Friend request accepted by " + userId,
                     new Timestamp(System.currentTimeMillis()));
@@ -70,25 +86,34 @@ public class SocialNetworkingService {
         posts.put(post.getId(), post);
         User user = users.get(post.getUserId());
         if (user != null) {
-            user.getPosts().add(post);
+            synchronized (user) {
+                user.getPosts().add(post);
+                newsfeedCache.onPostCreated(user, post);
+            }
         }
     }
 
+    // The most recent posts by the user and their friends, newest first, up to the feed capacity.
     public List<Post> getNewsfeed(String userId) {
-        List<Post> newsfeed = new ArrayList<>();
+        return getNewsfeed(userId, FEED_CAPACITY);
+    }
+
+    public List<Post> getNewsfeed(String userId, int limit) {
         User user = users.get(userId);
-        if (user != null) {
-            List<String> friendIds = user.getFriends();
-            for (String friendId : friendIds) {
-                User friend = users.get(friendId);
-                if (friend != null) {
-                    newsfeed.addAll(friend.getPosts());
-                }
-            }
-            newsfeed.addAll(user.getPosts());
-            newsfeed.sort((p1, p2) -> p2.getTimestamp().compareTo(p1.getTimestamp()));
+        if (user == null) {
+            return new ArrayList<>();
+        }
+        return newsfeedCache.read(user, Math.min(limit, FEED_CAPACITY));
+    }
+
+    // Scrolls the whole history page by page. Pass null for the first page, then the previous
+    // page's next cursor; posts created in between do not shift later pages.
+    public FeedPage getNewsfeedPage(String userId, String cursor, int pageSize) {
+        User user = users.get(userId);
+        if (user == null) {
+            return new FeedPage(new ArrayList<>(), null);
         }
-        return newsfeed;
+        return newsfeedPager.page(user, cursor, pageSize);
     }
 
     public void likePost(String userId, String postId) {
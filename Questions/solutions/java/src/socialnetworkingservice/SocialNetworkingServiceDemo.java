@@ -1,5 +1,7 @@
 package socialnetworkingservice;
 
+import socialnetworkingservice.feed.FeedPage;
+
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
@@ -51,6 +53,19 @@ public class SocialNetworkingServiceDemo {
             System.out.println();
         }
 
+        // Page through the newsfeed one post at a time
+        String cursor = null;
+        int page = 1;
+        do {
+            FeedPage feedPage = socialNetworkingService.getNewsfeedPage(user1.getId(), cursor, 1);
+            for (Post post : feedPage.getPosts()) {
+                System.out.println("Page " + page + ": " + post.getContent());
+            }
+            cursor = feedPage.getNextCursor();
+            page++;
+        } while (cursor != null);
+        System.out.println();
+
         // Get notifications
         List<Notification> notifications = socialNetworkingService.getNotifications(user1.getId());
         System.out.println("Notifications:");
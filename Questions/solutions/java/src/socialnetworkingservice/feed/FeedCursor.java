@@ -0,0 +1,55 @@
+package socialnetworkingservice.feed;
+
+import socialnetworkingservice.Post;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+// Position in a feed: the (timestamp, post id) of the last post handed out. Every page
+// resumes strictly after it in feed order, so posts arriving in between never shift a page.
+// Encoded as URL-safe base64 so clients treat it as opaque.
+final class FeedCursor {
+    private final Timestamp timestamp;
+    private final String postId;
+
+    private FeedCursor(Timestamp timestamp, String postId) {
+        this.timestamp = timestamp;
+        this.postId = postId;
+    }
+
+    static FeedCursor after(Post post) {
+        return new FeedCursor(post.getTimestamp(), post.getId());
+    }
+
+    Timestamp getTimestamp() {
+        return timestamp;
+    }
+
+    // True if the post comes after this cursor in newest-first order.
+    boolean precedes(Post post) {
+        int byTime = post.getTimestamp().compareTo(timestamp);
+        return byTime < 0 || (byTime == 0 && post.getId().compareTo(postId) > 0);
+    }
+
+    String encode() {
+        byte[] id = postId.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 4 + id.length);
+        buffer.putLong(timestamp.getTime()).putInt(timestamp.getNanos()).put(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    static FeedCursor decode(String cursor) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(cursor));
+            Timestamp timestamp = new Timestamp(buffer.getLong());
+            timestamp.setNanos(buffer.getInt());
+            byte[] id = new byte[buffer.remaining()];
+            buffer.get(id);
+            return new FeedCursor(timestamp, new String(id, StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed feed cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package socialnetworkingservice.feed;
+
+import socialnetworkingservice.Post;
+
+import java.util.List;
+
+public class FeedPage {
+    private final List<Post> posts;
+    private final String nextCursor;
+
+    public FeedPage(List<Post> posts, String nextCursor) {
+        this.posts = posts;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Post> getPosts() {
+        return posts;
+    }
+
+    // Pass back to get the following page; null once the feed is exhausted.
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,128 @@
+package socialnetworkingservice.feed;
+
+import socialnetworkingservice.Post;
+import socialnetworkingservice.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Hybrid newsfeed. A post by an ordinary user is pushed into each friend's UserFeed when it is
+// created, so reading a feed is a slice of a list that is already sorted. A user with more
+// than celebrityThreshold friends would make every post a huge fan-out, so once they cross it
+// their new posts are no longer pushed; readers pull them from the author at read time and
+// merge them with their cached slice.
+public class NewsfeedCache {
+    private final Map<String, User> users;
+    private final int feedCapacity;
+    private final int celebrityThreshold;
+    private final Map<String, UserFeed> feeds = new ConcurrentHashMap<>();
+    // For each celebrity, how many of their posts had already been pushed when they became one.
+    private final Map<String, Integer> celebrityPushedPosts = new ConcurrentHashMap<>();
+    // For each user, the celebrities among their friends, each with the index in that
+    // celebrity's post list from which to pull: past what was pushed to them, or 0 for someone
+    // who only befriended the celebrity afterwards.
+    private final Map<String, Map<String, Integer>> celebrityFriends = new ConcurrentHashMap<>();
+
+    public NewsfeedCache(Map<String, User> users, int feedCapacity, int celebrityThreshold) {
+        this.users = users;
+        this.feedCapacity = feedCapacity;
+        this.celebrityThreshold = celebrityThreshold;
+    }
+
+    // Call while holding the author's monitor, right after adding the post to their post list,
+    // so a concurrent promotion sees the post as either pushed or pulled, never both or neither.
+    public void onPostCreated(User author, Post post) {
+        synchronized (author) {
+            feedOf(author.getId()).add(post);
+            if (celebrityPushedPosts.containsKey(author.getId())) {
+                return;
+            }
+            for (String friendId : author.getFriends()) {
+                feedOf(friendId).add(post);
+            }
+        }
+    }
+
+    // Call after both friend lists have been updated. Each side gets the other's recent posts,
+    // unless the other is a celebrity and is pulled instead.
+    public void onFriendshipAdded(User user, User friend) {
+        connect(user, friend);
+        connect(friend, user);
+        promoteIfPopular(user);
+        promoteIfPopular(friend);
+    }
+
+    // Holds the author's monitor like onPostCreated, so the backfill sees a settled post list.
+    // A post pushed between the friend list update and the backfill is skipped by the feed.
+    private void connect(User reader, User author) {
+        synchronized (author) {
+            if (celebrityPushedPosts.containsKey(author.getId())) {
+                celebrityFriendsOf(reader.getId()).put(author.getId(), 0);
+                return;
+            }
+            UserFeed feed = feedOf(reader.getId());
+            for (Post post : newestPosts(author, 0, feedCapacity)) {
+                feed.add(post);
+            }
+        }
+    }
+
+    // Switches an author to fan-out on read. Posts already pushed stay in friends' feeds; only
+    // later ones are pulled, so nothing shows up twice.
+    private void promoteIfPopular(User author) {
+        if (author.getFriends().size() <= celebrityThreshold) {
+            return;
+        }
+        synchronized (author) {
+            if (celebrityPushedPosts.putIfAbsent(author.getId(), author.getPosts().size()) != null) {
+                return;
+            }
+            int pushed = author.getPosts().size();
+            for (String friendId : author.getFriends()) {
+                celebrityFriendsOf(friendId).putIfAbsent(author.getId(), pushed);
+            }
+        }
+    }
+
+    // The newest `limit` posts for the user: their cached slice merged with whatever the
+    // celebrities they follow posted since being promoted.
+    public List<Post> read(User user, int limit) {
+        List<Post> newsfeed = feedOf(user.getId()).newest(limit);
+        Map<String, Integer> celebrities = celebrityFriends.get(user.getId());
+        if (celebrities == null || celebrities.isEmpty()) {
+            return newsfeed;
+        }
+        for (Map.Entry<String, Integer> entry : celebrities.entrySet()) {
+            User celebrity = users.get(entry.getKey());
+            if (celebrity != null) {
+                newsfeed.addAll(newestPosts(celebrity, entry.getValue(), limit));
+            }
+        }
+        newsfeed.sort(UserFeed.NEWEST_FIRST);
+        return newsfeed.size() > limit ? new ArrayList<>(newsfeed.subList(0, limit)) : newsfeed;
+    }
+
+    public boolean isCelebrity(String userId) {
+        return celebrityPushedPosts.containsKey(userId);
+    }
+
+    // Walks the author's posts from the newest end, stopping at firstIndex.
+    private static List<Post> newestPosts(User author, int firstIndex, int limit) {
+        List<Post> posts = author.getPosts();
+        List<Post> newest = new ArrayList<>(Math.min(limit, posts.size()));
+        for (int i = posts.size() - 1; i >= firstIndex && newest.size() < limit; i--) {
+            newest.add(posts.get(i));
+        }
+        return newest;
+    }
+
+    private UserFeed feedOf(String userId) {
+        return feeds.computeIfAbsent(userId, id -> new UserFeed(feedCapacity));
+    }
+
+    private Map<String, Integer> celebrityFriendsOf(String userId) {
+        return celebrityFriends.computeIfAbsent(userId, id -> new ConcurrentHashMap<>());
+    }
+}
@@ -0,0 +1,113 @@
+package socialnetworkingservice.feed;
+
+import socialnetworkingservice.Post;
+import socialnetworkingservice.User;
+
+import java.sql.Timestamp;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+// Pages through a user's full feed history by lazily merging the post lists of the user and
+// their friends. Each author's list is already in time order, so a heap holding the newest
+// remaining post of each author yields the feed in order; a page costs O(friends + pageSize
+// log friends) plus one binary search per author to find where the cursor left off,
+// regardless of how much history lies beyond the page.
+public class NewsfeedPager {
+    private final Map<String, User> users;
+
+    public NewsfeedPager(Map<String, User> users) {
+        this.users = users;
+    }
+
+    // cursor is null for the first page, otherwise a value from FeedPage.getNextCursor().
+    public FeedPage page(User user, String cursor, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        FeedCursor after = cursor == null ? null : FeedCursor.decode(cursor);
+        PriorityQueue<AuthorPosts> heap = new PriorityQueue<>(
+                Comparator.comparing((AuthorPosts source) -> source.head, UserFeed.NEWEST_FIRST));
+        offer(heap, new AuthorPosts(user.getPosts(), after));
+        for (String friendId : user.getFriends()) {
+            User friend = users.get(friendId);
+            if (friend != null) {
+                offer(heap, new AuthorPosts(friend.getPosts(), after));
+            }
+        }
+
+        List<Post> posts = new ArrayList<>(pageSize);
+        while (posts.size() < pageSize && !heap.isEmpty()) {
+            AuthorPosts source = heap.poll();
+            posts.add(source.head);
+            offer(heap, source);
+        }
+        String nextCursor = heap.isEmpty() ? null : FeedCursor.after(posts.getLast()).encode();
+        return new FeedPage(posts, nextCursor);
+    }
+
+    private static void offer(PriorityQueue<AuthorPosts> heap, AuthorPosts source) {
+        if (source.advance()) {
+            heap.add(source);
+        }
+    }
+
+    // Walks one author's posts from newest to oldest, starting after the cursor. Posts sharing
+    // a timestamp are handed out in feed order (by id) so the merge and the cursor agree.
+    private static class AuthorPosts {
+        private final List<Post> posts;
+        private final FeedCursor after;
+        private final ArrayDeque<Post> sameTime = new ArrayDeque<>();
+        private int remaining;
+        private Post head;
+
+        AuthorPosts(List<Post> posts, FeedCursor after) {
+            this.posts = posts;
+            this.after = after;
+            this.remaining = after == null ? posts.size() : firstNewerThan(posts, after.getTimestamp());
+        }
+
+        // Moves head to the next post, returning false when the author has nothing left.
+        boolean advance() {
+            while (sameTime.isEmpty()) {
+                if (remaining == 0) {
+                    return false;
+                }
+                Timestamp time = posts.get(remaining - 1).getTimestamp();
+                int first = remaining - 1;
+                while (first > 0 && posts.get(first - 1).getTimestamp().equals(time)) {
+                    first--;
+                }
+                List<Post> group = new ArrayList<>(posts.subList(first, remaining));
+                group.sort(UserFeed.NEWEST_FIRST);
+                for (Post post : group) {
+                    if (after == null || after.precedes(post)) {
+                        sameTime.add(post);
+                    }
+                }
+                remaining = first;
+            }
+            head = sameTime.poll();
+            return true;
+        }
+
+        // Index of the first post newer than the time; everything from there on was on
+        // earlier pages.
+        private static int firstNewerThan(List<Post> posts, Timestamp time) {
+            int low = 0;
+            int high = posts.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (posts.get(mid).getTimestamp().compareTo(time) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package socialnetworkingservice.feed;
+
+import socialnetworkingservice.Post;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// One user's precomputed feed: the newest `capacity` posts pushed to them, kept newest first in
+// a ring buffer. Posts normally arrive in time order and land at the head in O(1); a late one
+// is shifted into place. A post already in the feed is ignored. Once full, the oldest post
+// falls off.
+class UserFeed {
+    static final Comparator<Post> NEWEST_FIRST = Comparator.comparing(Post::getTimestamp).reversed()
+            .thenComparing(Post::getId);
+
+    private final Post[] ring;
+    private int head;
+    private int size;
+
+    UserFeed(int capacity) {
+        this.ring = new Post[capacity];
+    }
+
+    synchronized void add(Post post) {
+        int position = 0;
+        while (position < size && NEWEST_FIRST.compare(post, get(position)) > 0) {
+            position++;
+        }
+        if (position < size && NEWEST_FIRST.compare(post, get(position)) == 0) {
+            return; // same timestamp and id, so already in the feed
+        }
+        if (position == ring.length) {
+            return; // older than everything kept
+        }
+        head = (head - 1 + ring.length) % ring.length;
+        if (size < ring.length) {
+            size++;
+        }
+        for (int i = 0; i < position; i++) {
+            set(i, get(i + 1));
+        }
+        set(position, post);
+    }
+
+    // The newest `limit` posts, newest first.
+    synchronized List<Post> newest(int limit) {
+        int count = Math.min(limit, size);
+        List<Post> posts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            posts.add(get(i));
+        }
+        return posts;
+    }
+
+    private Post get(int index) {
+        return ring[(head + index) % ring.length];
+    }
+
+    private void set(int index, Post post) {
+        ring[(head + index) % ring.length] = post;
+    }
+}